@@ -0,0 +1,108 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import rasterizers.BresenhamLineRasterizer;
+import rasterizers.CircleRasterizer;
+import rasterizers.DottedLineRasterizer;
+import rasters.RasterDataBuffer;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Primitives that reach far beyond the canvas, as after dragging a vertex out of the window:
+ * lines with one endpoint on the canvas and one up to {@code reach} pixels outside, lines entirely
+ * off the canvas, and circles much larger than it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClippingBenchmark {
+    private static final int SHAPES = 256;
+
+    @Param({"1", "5"})
+    public int thickness;
+
+    @Param({"10000", "100000"})
+    public int reach;
+
+    private int[] crossing;
+    private int[] offscreen;
+    private BresenhamLineRasterizer bresenham;
+    private DottedLineRasterizer dotted;
+    private CircleRasterizer circle;
+
+    @Setup
+    public void setup() {
+        int width = 1120;
+        int height = 600;
+        RasterDataBuffer raster = new RasterDataBuffer(width, height);
+        bresenham = new BresenhamLineRasterizer(raster);
+        dotted = new DottedLineRasterizer(raster);
+        circle = new CircleRasterizer(raster);
+        Random random = new Random(42);
+        crossing = new int[4 * SHAPES];
+        offscreen = new int[4 * SHAPES];
+        for (int i = 0; i < SHAPES; i++) {
+            crossing[4 * i] = random.nextInt(width);
+            crossing[4 * i + 1] = random.nextInt(height);
+            crossing[4 * i + 2] = random.nextInt(2 * reach) - reach;
+            crossing[4 * i + 3] = random.nextInt(2 * reach) - reach;
+            // Both endpoints left of the canvas
+            offscreen[4 * i] = -1 - random.nextInt(reach);
+            offscreen[4 * i + 1] = random.nextInt(2 * reach) - reach;
+            offscreen[4 * i + 2] = -1 - random.nextInt(reach);
+            offscreen[4 * i + 3] = random.nextInt(2 * reach) - reach;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SHAPES)
+    public void bresenhamCrossing() {
+        for (int i = 0; i < crossing.length; i += 4) {
+            bresenham.rasterize(crossing[i], crossing[i + 1], crossing[i + 2], crossing[i + 3], 0xff0000ff, thickness);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SHAPES)
+    public void dottedCrossing() {
+        for (int i = 0; i < crossing.length; i += 4) {
+            dotted.rasterize(crossing[i], crossing[i + 1], crossing[i + 2], crossing[i + 3], 0xff0000ff, thickness);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SHAPES)
+    public void bresenhamOffscreen() {
+        for (int i = 0; i < offscreen.length; i += 4) {
+            bresenham.rasterize(offscreen[i], offscreen[i + 1], offscreen[i + 2], offscreen[i + 3], 0xff0000ff, thickness);
+        }
+    }
+
+    /**
+     * Circle centred on the canvas through the far endpoint
+     */
+    @Benchmark
+    @OperationsPerInvocation(SHAPES)
+    public void largeCircle() {
+        for (int i = 0; i < crossing.length; i += 4) {
+            int radius = Math.abs(crossing[i + 2] - crossing[i]);
+            circle.rasterize(crossing[i], crossing[i + 1], Math.max(0, radius - thickness), radius, 0xff0000ff);
+        }
+    }
+}
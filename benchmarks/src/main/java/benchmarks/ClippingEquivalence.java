@@ -0,0 +1,142 @@
+package benchmarks;
+
+import rasterizers.BresenhamLineRasterizer;
+import rasterizers.CircleRasterizer;
+import rasterizers.DottedLineRasterizer;
+import rasterizers.EllipseRasterizer;
+import rasters.ClippedRaster;
+import rasters.Raster;
+import rasters.RasterDataBuffer;
+
+import java.awt.*;
+import java.util.Random;
+
+/**
+ * Pixel-equivalence check for clipping: draws random lines, dotted lines, circles and ellipses
+ * reaching far beyond a small canvas, once onto the canvas, where {@code LineClipper} and the
+ * clip-row starts cut them, and once shifted into a reference raster large enough that nothing
+ * is ever clipped. The canvas must match the reference window exactly. Every other batch draws
+ * through a {@link ClippedRaster} with a random clip, which must also leave the pixels outside
+ * the clip untouched.
+ * <p>
+ * Run with {@code gradle :benchmarks:clippingCheck}; exits with status 1 on a mismatch.
+ */
+public final class ClippingEquivalence {
+    private static final int PRIMITIVES = 200_000;
+    private static final int BATCH = 50;
+    private static final int WIDTH = 256;
+    private static final int HEIGHT = 192;
+    // Reference border; no primitive reaches further than this beyond the canvas
+    private static final int MARGIN = 2048;
+    private static final int REACH = 1500;
+
+    private ClippingEquivalence() {
+    }
+
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 42;
+        RasterDataBuffer canvas = new RasterDataBuffer(WIDTH, HEIGHT);
+        ClippedRaster clipped = new ClippedRaster(canvas);
+        RasterDataBuffer reference = new RasterDataBuffer(WIDTH + 2 * MARGIN, HEIGHT + 2 * MARGIN);
+        Renderer direct = new Renderer(canvas, 0);
+        Renderer throughClip = new Renderer(clipped, 0);
+        Renderer shifted = new Renderer(reference, MARGIN);
+        Random random = new Random(seed);
+        int[] primitive = new int[8];
+        long start = System.nanoTime();
+        for (int batch = 0; batch < PRIMITIVES / BATCH; batch++) {
+            canvas.setClearColor(Scenes.CLEAR_COLOR);
+            canvas.clear();
+            reference.fillRect(MARGIN, MARGIN, WIDTH, HEIGHT, Scenes.CLEAR_COLOR);
+            Rectangle clip = new Rectangle(0, 0, WIDTH, HEIGHT);
+            Renderer target = direct;
+            if (batch % 2 == 1) {
+                int x = random.nextInt(WIDTH);
+                int y = random.nextInt(HEIGHT);
+                clip = new Rectangle(x, y, 1 + random.nextInt(WIDTH - x), 1 + random.nextInt(HEIGHT - y));
+                clipped.setClip(clip);
+                target = throughClip;
+            }
+            for (int i = 0; i < BATCH; i++) {
+                randomPrimitive(random, primitive);
+                target.draw(primitive);
+                shifted.draw(primitive);
+            }
+            String mismatch = compare(canvas, reference, clip);
+            if (mismatch != null) {
+                System.out.printf("seed %d, batch %d (clip %s): %s%n", seed, batch, clip, mismatch);
+                System.exit(1);
+            }
+        }
+        System.out.printf("%d primitives, clipped and unclipped pixels equal (%d ms)%n",
+                PRIMITIVES, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Fill {@code primitive} with a kind, four coordinates, a colour and a thickness
+     */
+    private static void randomPrimitive(Random random, int[] primitive) {
+        int kind = random.nextInt(4);
+        primitive[0] = kind;
+        primitive[5] = 0xff000000 | random.nextInt(0xffffff);
+        primitive[6] = 1 + 2 * random.nextInt(4);
+        if (kind < 2) {
+            // Line from anywhere within REACH of the canvas to anywhere within REACH
+            for (int k = 0; k < 2; k++) {
+                primitive[1 + 2 * k] = random.nextInt(WIDTH + 2 * REACH) - REACH;
+                primitive[2 + 2 * k] = random.nextInt(HEIGHT + 2 * REACH) - REACH;
+            }
+        } else {
+            // Centre near the canvas, semi-axes large enough to cross it or miss it
+            primitive[1] = random.nextInt(WIDTH + 1000) - 500;
+            primitive[2] = random.nextInt(HEIGHT + 1000) - 500;
+            primitive[3] = random.nextInt(REACH);
+            primitive[4] = kind == 2 ? primitive[3] : random.nextInt(REACH);
+        }
+    }
+
+    private static String compare(RasterDataBuffer canvas, RasterDataBuffer reference, Rectangle clip) {
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int expected = clip.contains(x, y) ? reference.getPixel(MARGIN + x, MARGIN + y) : Scenes.CLEAR_COLOR;
+                int actual = canvas.getPixel(x, y);
+                if (actual != expected) {
+                    return String.format("pixel (%d, %d) is %08x, expected %08x", x, y, actual, expected);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Draws primitives shifted by {@code offset} on both axes
+     */
+    private static final class Renderer {
+        private final BresenhamLineRasterizer line;
+        private final DottedLineRasterizer dotted;
+        private final CircleRasterizer circle;
+        private final EllipseRasterizer ellipse;
+        private final int offset;
+
+        Renderer(Raster raster, int offset) {
+            line = new BresenhamLineRasterizer(raster);
+            dotted = new DottedLineRasterizer(raster);
+            circle = new CircleRasterizer(raster);
+            ellipse = new EllipseRasterizer(raster);
+            this.offset = offset;
+        }
+
+        void draw(int[] p) {
+            int x = p[1] + offset;
+            int y = p[2] + offset;
+            int thickness = p[6];
+            switch (p[0]) {
+                case 0 -> line.rasterize(x, y, p[3] + offset, p[4] + offset, p[5], thickness);
+                case 1 -> dotted.rasterize(x, y, p[3] + offset, p[4] + offset, p[5], thickness);
+                case 2 -> circle.rasterize(x, y, Math.max(0, p[3] - thickness + 1), p[3], p[5]);
+                default -> ellipse.rasterize(x, y, Math.max(0, p[3] - thickness + 1),
+                        Math.max(0, p[4] - thickness + 1), p[3], p[4], p[5]);
+            }
+        }
+    }
+}
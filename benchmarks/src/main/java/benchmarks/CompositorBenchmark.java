@@ -0,0 +1,101 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import rasters.SpanCompositor;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SpanCompositor} kernels, SIMD versus scalar, over rows of one span length: solid fill
+ * (with {@code Arrays.fill} for reference), a half-transparent colour blended over a span, and a
+ * row of mixed-alpha overlay pixels blended over a row of the base layer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class CompositorBenchmark {
+    private static final int COLOR = 0x80ff4020;
+
+    @Param({"16", "256", "1120"})
+    public int length;
+
+    private SpanCompositor scalar;
+    private SpanCompositor vector;
+    private int[] row;
+    private int[] overlay;
+
+    @Setup
+    public void setup() {
+        scalar = SpanCompositor.scalar();
+        vector = SpanCompositor.vector();
+        if (vector == null) {
+            throw new IllegalStateException("Run with --add-modules jdk.incubator.vector");
+        }
+        Random random = new Random(7);
+        row = new int[length];
+        overlay = new int[length];
+        for (int i = 0; i < length; i++) {
+            row[i] = 0xff000000 | random.nextInt(0x1000000);
+            // Runs of transparent, translucent and opaque pixels, like an antialiased preview
+            int alpha = (i / 8) % 3 == 0 ? 0 : (i / 8) % 3 == 1 ? 0x80 : 0xff;
+            overlay[i] = alpha << 24 | random.nextInt(0x1000000);
+        }
+    }
+
+    @Benchmark
+    public int[] fillArrays() {
+        Arrays.fill(row, 0, length, COLOR | 0xff000000);
+        return row;
+    }
+
+    @Benchmark
+    public int[] fillScalar() {
+        scalar.fill(row, 0, length, COLOR | 0xff000000);
+        return row;
+    }
+
+    @Benchmark
+    public int[] fillVector() {
+        vector.fill(row, 0, length, COLOR | 0xff000000);
+        return row;
+    }
+
+    @Benchmark
+    public int[] blendSpanScalar() {
+        scalar.blend(row, 0, length, COLOR);
+        return row;
+    }
+
+    @Benchmark
+    public int[] blendSpanVector() {
+        vector.blend(row, 0, length, COLOR);
+        return row;
+    }
+
+    @Benchmark
+    public int[] blendLayerScalar() {
+        scalar.blend(row, 0, overlay, 0, length);
+        return row;
+    }
+
+    @Benchmark
+    public int[] blendLayerVector() {
+        vector.blend(row, 0, overlay, 0, length);
+        return row;
+    }
+}
@@ -0,0 +1,104 @@
+package benchmarks;
+
+import Fillers.BasicFiller;
+import Fillers.ScanlineFiller;
+import Fillers.SpanList;
+import models.Point;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import rasters.RasterDataBuffer;
+
+import java.awt.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flood fill from the canvas centre of an open area or a maze of walls.
+ * <p>
+ * {@link BasicFiller} stops after 1,000,000 pixels, so on the large canvas it fills less than
+ * {@link ScanlineFiller} does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FillerBenchmark {
+    private static final int WALL_COLOR = 0xff000000;
+
+    @Param({"open", "maze"})
+    public String region;
+
+    /**
+     * Maze wall thickness
+     */
+    @Param({"1", "5"})
+    public int thickness;
+
+    @Param({"1120x600", "1920x1080"})
+    public String canvasSize;
+
+    private RasterDataBuffer raster;
+    private int[] template;
+    private Point seed;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        Dimension size = Scenes.size(canvasSize);
+        raster = new RasterDataBuffer(size.width, size.height);
+        raster.setClearColor(Scenes.CLEAR_COLOR);
+        raster.clear();
+        if (region.equals("maze")) {
+            drawMaze(size.width, size.height);
+        }
+        template = raster.getPixels().clone();
+        seed = new Point(size.width / 2 + 2, size.height / 2 + 2);
+    }
+
+    /**
+     * Restore the unfilled canvas; fills recolour it in place.
+     */
+    @Setup(Level.Invocation)
+    public void reset() {
+        raster.copyFrom(template, 0, raster.getWidth(), 0, 0, raster.getWidth(), raster.getHeight());
+    }
+
+    @Benchmark
+    public List<Point> basicFiller() {
+        return new BasicFiller(raster).fill(seed, Color.RED);
+    }
+
+    @Benchmark
+    public SpanList scanlineFiller() {
+        return new ScanlineFiller(raster).fillSpans(seed, Color.RED);
+    }
+
+    /**
+     * Serpentine corridors: horizontal walls every 16 rows with a gap alternating sides,
+     * plus vertical stubs that make each corridor zigzag.
+     */
+    private void drawMaze(int width, int height) {
+        int pitch = 16;
+        for (int y = pitch; y < height; y += pitch) {
+            boolean gapLeft = (y / pitch) % 2 == 0;
+            int from = gapLeft ? pitch : 0;
+            int to = gapLeft ? width : width - pitch;
+            raster.fillRect(from, y, to - from, thickness, WALL_COLOR);
+            for (int x = pitch * 2; x < width - pitch; x += pitch * 2) {
+                int stubY = (x / (pitch * 2)) % 2 == 0 ? y - pitch / 2 : y;
+                raster.fillRect(x, stubY, thickness, pitch / 2, WALL_COLOR);
+            }
+        }
+    }
+}
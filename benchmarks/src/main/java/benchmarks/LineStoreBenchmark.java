@@ -0,0 +1,92 @@
+package benchmarks;
+
+import models.Line;
+import models.LineCanvas;
+import models.Point;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import rasterizers.SceneRasterizer;
+import rasters.RasterDataBuffer;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Line storage costs that do not depend on pixel writes: culling every line against a small
+ * dirty rectangle (an incremental re-render), and a rubber split followed by its undo.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LineStoreBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int lines;
+
+    private LineCanvas canvas;
+    private SceneRasterizer rasterizer;
+    private Rectangle clip;
+    private Line[] victims;
+    private Line[] pieces;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Dimension size = Scenes.size("1120x600");
+        canvas = Scenes.randomCanvas(lines, size.width, size.height, 1, 7);
+        rasterizer = new SceneRasterizer(new RasterDataBuffer(size.width, size.height));
+        rasterizer.setClearColor(Scenes.CLEAR_COLOR);
+        clip = new Rectangle(500, 280, 16, 16);
+
+        List<Line> all = new ArrayList<>(canvas.getLines());
+        victims = new Line[256];
+        pieces = new Line[2 * victims.length];
+        for (int i = 0; i < victims.length; i++) {
+            Line line = all.get((int) ((i * 7919L) % all.size()));
+            victims[i] = line;
+            Point middle = new Point((line.getPoint1().getX() + line.getPoint2().getX()) / 2,
+                    (line.getPoint1().getY() + line.getPoint2().getY()) / 2);
+            pieces[2 * i] = new Line(line.getPoint1(), middle, line.getColor(), line.getThickness());
+            pieces[2 * i + 1] = new Line(new Point(middle.getX(), middle.getY()), line.getPoint2(),
+                    line.getColor(), line.getThickness());
+        }
+    }
+
+    @Benchmark
+    public void renderClip() {
+        rasterizer.rasterize(canvas, List.of(), clip);
+    }
+
+    /**
+     * What {@code ReplaceLinesCommand} does for one rubber split, then for its undo.
+     */
+    @Benchmark
+    public void splitAndUndo() {
+        int i = next++ & (victims.length - 1);
+        int position = canvas.removeLine(victims[i]);
+        canvas.add(pieces[2 * i]);
+        canvas.add(pieces[2 * i + 1]);
+        canvas.removeLine(pieces[2 * i + 1]);
+        canvas.removeLine(pieces[2 * i]);
+        canvas.insertLine(position, victims[i]);
+    }
+
+    @Benchmark
+    public void renderFull() {
+        rasterizer.rasterize(canvas, List.of());
+    }
+}
@@ -0,0 +1,89 @@
+package benchmarks;
+
+import models.LineCanvas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import rasterizers.SceneRasterizer;
+import rasters.OffHeapRaster;
+import rasters.Raster;
+import rasters.RasterDataBuffer;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap raster versus {@link OffHeapRaster} in direct memory and in a mapped file: a full scene
+ * render, and blitting a screen-sized region of the raster's image view the way a panel repaints.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OffHeapRasterBenchmark {
+
+    @Param({"heap", "direct", "mapped"})
+    public String raster;
+
+    @Param({"1120x600", "3840x2160"})
+    public String canvasSize;
+
+    private LineCanvas canvas;
+    private SceneRasterizer rasterizer;
+    private Raster target;
+    private Path file;
+    private Graphics2D screen;
+
+    @Setup
+    public void setup() throws IOException {
+        Dimension size = Scenes.size(canvasSize);
+        switch (raster) {
+            case "heap" -> target = new RasterDataBuffer(size.width, size.height);
+            case "direct" -> target = new OffHeapRaster(size.width, size.height);
+            default -> {
+                file = Files.createTempFile("raster", ".bin");
+                target = OffHeapRaster.map(file, size.width, size.height);
+            }
+        }
+        canvas = Scenes.randomCanvas(10000, size.width, size.height, 3, 7);
+        rasterizer = new SceneRasterizer(target);
+        rasterizer.setClearColor(Scenes.CLEAR_COLOR);
+        rasterizer.rasterize(canvas, List.of());
+        screen = new BufferedImage(1120, 600, BufferedImage.TYPE_INT_RGB).createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        screen.dispose();
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Benchmark
+    public void render() {
+        rasterizer.rasterize(canvas, List.of());
+    }
+
+    @Benchmark
+    public void blit() {
+        screen.setClip(0, 0, 1120, 600);
+        target.repaint(screen);
+    }
+}
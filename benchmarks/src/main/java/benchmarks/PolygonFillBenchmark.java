@@ -0,0 +1,98 @@
+package benchmarks;
+
+import Fillers.ScanlineFiller;
+import Fillers.SpanList;
+import models.FillRule;
+import models.Point;
+import models.Polygon;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import rasterizers.PolygonFillRasterizer;
+import rasterizers.PolylineRasterizer;
+import rasters.RasterDataBuffer;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filling a star-shaped polygon that spans most of the canvas: the vector scanline fill from
+ * its vertices against a flood fill of its rendered outline from the centre.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PolygonFillBenchmark {
+
+    /**
+     * Number of star points; the polygon has twice as many vertices
+     */
+    @Param({"5", "64", "1024"})
+    public int points;
+
+    @Param({"1120x600", "1920x1080"})
+    public String canvasSize;
+
+    private RasterDataBuffer raster;
+    private int[] template;
+    private Polygon polygon;
+    private PolygonFillRasterizer fillRasterizer;
+    private Point seed;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        Dimension size = Scenes.size(canvasSize);
+        raster = new RasterDataBuffer(size.width, size.height);
+        raster.setClearColor(Scenes.CLEAR_COLOR);
+        raster.clear();
+        int cx = size.width / 2;
+        int cy = size.height / 2;
+        int outer = Math.min(cx, cy) - 10;
+        List<Point> vertices = new ArrayList<>();
+        for (int i = 0; i < 2 * points; i++) {
+            double angle = Math.PI * i / points;
+            int radius = i % 2 == 0 ? outer : outer * 3 / 4;
+            vertices.add(new Point(cx + (int) Math.round(radius * Math.cos(angle)),
+                    cy + (int) Math.round(radius * Math.sin(angle))));
+        }
+        polygon = new Polygon(vertices, Color.BLACK, 1);
+        new PolylineRasterizer(raster).rasterize(polygon);
+        template = raster.getPixels().clone();
+        fillRasterizer = new PolygonFillRasterizer(raster);
+        seed = new Point(cx, cy);
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        raster.copyFrom(template, 0, raster.getWidth(), 0, 0, raster.getWidth(), raster.getHeight());
+    }
+
+    @Benchmark
+    public void vectorEvenOdd() {
+        fillRasterizer.rasterize(polygon, 0xffff0000, FillRule.EVEN_ODD);
+    }
+
+    @Benchmark
+    public void vectorNonZero() {
+        fillRasterizer.rasterize(polygon, 0xffff0000, FillRule.NON_ZERO);
+    }
+
+    @Benchmark
+    public SpanList floodFill() {
+        return new ScanlineFiller(raster).fillSpans(seed, Color.RED);
+    }
+}
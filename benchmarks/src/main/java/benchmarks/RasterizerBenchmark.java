@@ -0,0 +1,177 @@
+package benchmarks;
+
+import models.BrushShape;
+import models.Ellipse;
+import models.Line;
+import models.Point;
+import models.Polygon;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import rasterizers.BresenhamLineRasterizer;
+import rasterizers.CircleRasterizer;
+import rasterizers.DottedLineRasterizer;
+import rasterizers.EllipseRasterizer;
+import rasterizers.PolylineRasterizer;
+import rasterizers.SquareRasterizer;
+import rasterizers.TrivialLineRasterizer;
+import rasters.RasterDataBuffer;
+
+import java.awt.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the individual primitive rasterizers on random geometry.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RasterizerBenchmark {
+    private static final int SHAPES = 1024;
+
+    @Param({"1", "5", "15"})
+    public int thickness;
+
+    @Param({"1120x600", "3840x2160"})
+    public String canvasSize;
+
+    private Line[] lines;
+    private Line[] roundLines;
+    private TrivialLineRasterizer trivial;
+    private BresenhamLineRasterizer bresenham;
+    private DottedLineRasterizer dotted;
+    private CircleRasterizer circle;
+    private SquareRasterizer square;
+    private Ellipse[] ellipses;
+    private EllipseRasterizer ellipse;
+    private Polygon[] polygons;
+    private PolylineRasterizer polygon;
+
+    @Setup
+    public void setup() {
+        Dimension size = Scenes.size(canvasSize);
+        RasterDataBuffer raster = new RasterDataBuffer(size.width, size.height);
+        lines = Scenes.randomLines(SHAPES, size.width, size.height, thickness, 42);
+        roundLines = new Line[SHAPES];
+        for (int i = 0; i < SHAPES; i++) {
+            roundLines[i] = new Line(lines[i].getPoint1(), lines[i].getPoint2(), lines[i].getColor(), thickness,
+                    BrushShape.ROUND);
+        }
+        trivial = new TrivialLineRasterizer(raster);
+        bresenham = new BresenhamLineRasterizer(raster);
+        dotted = new DottedLineRasterizer(raster);
+        circle = new CircleRasterizer(raster);
+        square = new SquareRasterizer(raster);
+        ellipse = new EllipseRasterizer(raster);
+        polygon = new PolylineRasterizer(raster);
+        ellipses = new Ellipse[SHAPES];
+        polygons = new Polygon[SHAPES];
+        for (int i = 0; i < SHAPES; i++) {
+            Line line = lines[i];
+            Point p1 = line.getPoint1();
+            Point p2 = line.getPoint2();
+            ellipses[i] = new Ellipse(p1, Math.abs(p2.getX() - p1.getX()) / 4, Math.abs(p2.getY() - p1.getY()) / 4,
+                    line.getColor(), thickness);
+            Point p3 = lines[(i + 1) % SHAPES].getPoint1();
+            polygons[i] = new Polygon(List.of(p1, p2, p3), line.getColor(), thickness);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SHAPES)
+    public void trivialLine() {
+        for (Line line : lines) {
+            trivial.rasterize(line);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SHAPES)
+    public void bresenhamLine() {
+        for (Line line : lines) {
+            bresenham.rasterize(line);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SHAPES)
+    public void roundBresenhamLine() {
+        for (Line line : roundLines) {
+            bresenham.rasterize(line);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SHAPES)
+    public void dottedLine() {
+        for (Line line : lines) {
+            dotted.rasterize(line);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SHAPES)
+    public void roundTrivialLine() {
+        for (Line line : roundLines) {
+            trivial.rasterize(line);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SHAPES)
+    public void roundDottedLine() {
+        for (Line line : roundLines) {
+            dotted.rasterize(line);
+        }
+    }
+
+    /**
+     * Circle centred on the first endpoint through the second, clamped to a sensible radius
+     */
+    @Benchmark
+    @OperationsPerInvocation(SHAPES)
+    public void circle() {
+        for (Line line : lines) {
+            Point center = line.getPoint1();
+            Point edge = new Point(center.getX() + (line.getPoint2().getX() - center.getX()) / 4, center.getY());
+            circle.rasterize(center, edge, line.getColor(), thickness);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SHAPES)
+    public void square() {
+        for (Line line : lines) {
+            square.rasterize(line.getPoint1(), line.getPoint2(), line.getColor(), thickness);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SHAPES)
+    public void ellipse() {
+        for (Ellipse e : ellipses) {
+            ellipse.rasterize(e);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SHAPES)
+    public void triangle() {
+        for (Polygon p : polygons) {
+            polygon.rasterize(p);
+        }
+    }
+}
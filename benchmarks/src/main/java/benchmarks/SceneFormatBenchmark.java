@@ -0,0 +1,107 @@
+package benchmarks;
+
+import models.Line;
+import models.LineCanvas;
+import models.Scene;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import scenes.SceneBinaryFormat;
+import scenes.SceneTextReader;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Save and load of the binary scene format against the plain text scene description.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class SceneFormatBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int lines;
+
+    private Scene scene;
+    private Path binaryFile;
+    private Path textFile;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        LineCanvas canvas = Scenes.randomCanvas(lines, 1120, 600, 3, 11);
+        scene = new Scene(1120, 600, Scenes.CLEAR_COLOR, canvas, new ArrayList<>());
+        binaryFile = Files.createTempFile("scene", ".dds");
+        textFile = Files.createTempFile("scene", ".txt");
+        SceneBinaryFormat.save(binaryFile, scene);
+        writeText(textFile, scene);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(binaryFile);
+        Files.deleteIfExists(textFile);
+    }
+
+    @Benchmark
+    public void saveBinary() throws IOException {
+        SceneBinaryFormat.save(binaryFile, scene);
+    }
+
+    @Benchmark
+    public void saveText() throws IOException {
+        writeText(textFile, scene);
+    }
+
+    @Benchmark
+    public Scene loadBinary() throws IOException {
+        return SceneBinaryFormat.load(binaryFile);
+    }
+
+    @Benchmark
+    public Scene loadText() throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(textFile)) {
+            return SceneTextReader.read(in, (w, h) -> {
+                throw new IllegalStateException("Benchmark scene has no fills");
+            });
+        }
+    }
+
+    private static void writeText(Path path, Scene scene) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(path); PrintWriter writer = new PrintWriter(out)) {
+            writer.printf("size %d %d%n", scene.getWidth(), scene.getHeight());
+            writer.printf("clear %08x%n", scene.getClearColor());
+            for (Line line : scene.getCanvas().getLines()) {
+                writeLine(writer, "line", line);
+            }
+            for (Line line : scene.getCanvas().getDottedLines()) {
+                writeLine(writer, "dotted", line);
+            }
+        }
+    }
+
+    private static void writeLine(PrintWriter writer, String command, Line line) {
+        writer.printf("%s %d %d %d %d %08x %d%n", command,
+                line.getPoint1().getX(), line.getPoint1().getY(), line.getPoint2().getX(), line.getPoint2().getY(),
+                line.getColor().getRGB(), line.getThickness());
+    }
+}
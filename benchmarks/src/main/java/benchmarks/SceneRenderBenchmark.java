@@ -0,0 +1,86 @@
+package benchmarks;
+
+import Fillers.FillOperation;
+import Fillers.ScanlineFiller;
+import models.LineCanvas;
+import models.Point;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import rasterizers.SceneRasterizer;
+import rasters.RasterDataBuffer;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full-frame replay equivalent to {@code App.renderCanvas}: clear, fill history, then all lines.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SceneRenderBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int lines;
+
+    @Param({"1", "5", "15"})
+    public int thickness;
+
+    @Param({"1120x600", "3840x2160"})
+    public String canvasSize;
+
+    private LineCanvas canvas;
+    private List<FillOperation> fillOperations;
+    private SceneRasterizer sequential;
+    private SceneRasterizer parallel;
+
+    @Setup
+    public void setup() {
+        Dimension size = Scenes.size(canvasSize);
+        RasterDataBuffer raster = new RasterDataBuffer(size.width, size.height);
+        canvas = Scenes.randomCanvas(lines, size.width, size.height, thickness, 7);
+
+        // Record a few fills the way App does: against the rendered scene, in a grid of seeds
+        sequential = new SceneRasterizer(raster);
+        sequential.setClearColor(Scenes.CLEAR_COLOR);
+        fillOperations = new ArrayList<>();
+        sequential.rasterize(canvas, fillOperations);
+        ScanlineFiller filler = new ScanlineFiller(raster);
+        Color[] colors = {Color.RED, Color.GREEN, Color.BLUE, Color.YELLOW};
+        for (int i = 0; i < colors.length; i++) {
+            Point seed = new Point(size.width * (i + 1) / 5, size.height / 2);
+            FillOperation fill = new FillOperation(filler.fillSpans(seed, colors[i]), colors[i]);
+            if (!fill.getSpans().isEmpty()) {
+                fillOperations.add(fill);
+            }
+        }
+
+        parallel = new SceneRasterizer(raster);
+        parallel.setClearColor(Scenes.CLEAR_COLOR);
+        parallel.setParallel(true);
+    }
+
+    @Benchmark
+    public void renderSequential() {
+        sequential.rasterize(canvas, fillOperations);
+    }
+
+    @Benchmark
+    public void renderParallel() {
+        parallel.rasterize(canvas, fillOperations);
+    }
+}
@@ -0,0 +1,64 @@
+package benchmarks;
+
+import models.Line;
+import models.LineCanvas;
+import models.Point;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic scenes shared by the benchmarks.
+ */
+final class Scenes {
+    static final int CLEAR_COLOR = 0xffaaaaaa;
+
+    private Scenes() {
+    }
+
+    /**
+     * Parse a "WIDTHxHEIGHT" parameter
+     */
+    static Dimension size(String canvasSize) {
+        String[] parts = canvasSize.split("x");
+        return new Dimension(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+    }
+
+    static Line[] randomLines(int count, int width, int height, int thickness, long seed) {
+        Random random = new Random(seed);
+        Line[] lines = new Line[count];
+        for (int i = 0; i < count; i++) {
+            lines[i] = new Line(
+                    new Point(random.nextInt(width), random.nextInt(height)),
+                    new Point(random.nextInt(width), random.nextInt(height)),
+                    new Color(random.nextInt(0xffffff)),
+                    thickness);
+        }
+        return lines;
+    }
+
+    /**
+     * Mostly short strokes with a few long ones, every tenth line dotted
+     */
+    static LineCanvas randomCanvas(int count, int width, int height, int thickness, long seed) {
+        Random random = new Random(seed);
+        LineCanvas canvas = new LineCanvas(new ArrayList<>(), new ArrayList<>());
+        for (int i = 0; i < count; i++) {
+            int x = random.nextInt(width);
+            int y = random.nextInt(height);
+            int reach = random.nextInt(10) == 0 ? Math.max(width, height) : 60;
+            Line line = new Line(
+                    new Point(x, y),
+                    new Point(x + random.nextInt(2 * reach + 1) - reach, y + random.nextInt(2 * reach + 1) - reach),
+                    new Color(random.nextInt(0xffffff)),
+                    thickness);
+            if (i % 10 == 0) {
+                canvas.addDottedLine(line);
+            } else {
+                canvas.add(line);
+            }
+        }
+        return canvas;
+    }
+}
@@ -0,0 +1,60 @@
+package benchmarks;
+
+import models.LineCanvas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import rasterizers.SceneRasterizer;
+import rasters.Raster;
+import rasters.RasterDataBuffer;
+import rasters.TiledRaster;
+
+import java.awt.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full scene render into a dense raster versus the sparse {@link TiledRaster}, for a scene that
+ * covers the canvas and for a 2000x2000 sketch on a large, mostly empty canvas.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx3g")
+public class TiledRasterBenchmark {
+
+    @Param({"dense", "tiled"})
+    public String raster;
+
+    @Param({"1120x600", "16384x16384"})
+    public String canvasSize;
+
+    private LineCanvas canvas;
+    private SceneRasterizer rasterizer;
+
+    @Setup
+    public void setup() {
+        Dimension size = Scenes.size(canvasSize);
+        Raster target = raster.equals("tiled")
+                ? new TiledRaster(size.width, size.height)
+                : new RasterDataBuffer(size.width, size.height);
+        canvas = Scenes.randomCanvas(10000, Math.min(size.width, 2000), Math.min(size.height, 2000), 3, 7);
+        rasterizer = new SceneRasterizer(target);
+        rasterizer.setClearColor(Scenes.CLEAR_COLOR);
+    }
+
+    @Benchmark
+    public void render() {
+        rasterizer.rasterize(canvas, List.of());
+    }
+}
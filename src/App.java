@@ -1,49 +1,97 @@
+import commands.AddShapeCommand;
+import commands.AddVertexCommand;
+import commands.ClearCommand;
+import commands.Command;
+import commands.CompositeCommand;
+import commands.FillCommand;
+import commands.History;
+import commands.MoveVertexCommand;
+import commands.ReplaceLinesCommand;
+import commands.ReplaceShapeCommand;
+import diagnostics.RubberSplitEvent;
+import models.BrushShape;
+import models.Circle;
+import models.Ellipse;
+import models.FillRule;
 import models.Line;
 import models.LineCanvas;
 import models.Point;
+import models.Polygon;
+import models.Polyline;
+import models.Rect;
+import models.Scene;
+import models.Shape;
 import rasterizers.LineCanvasRasterizer;
+import rasterizers.PolygonFillOperation;
 import rasterizers.SquareRasterizer;
 import rasterizers.CircleRasterizer;
-import rasters.RasterBufferedImage;
-import Fillers.BasicFiller;
+import rasters.RasterDataBuffer;
+import rasters.SpanCompositor;
+import renderers.LayeredRenderer;
+import renderers.DragCoalescer;
+import renderers.FrameStats;
+import renderers.RenderThread;
+import renderers.StatsHud;
+import scenes.SceneBinaryFormat;
+import scenes.SceneStreamLoader;
 import Fillers.FillOperation;
+import Fillers.Filler;
+import Fillers.ScanlineFiller;
+import Fillers.SpanList;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.image.BufferedImage;
+import java.io.IOException;
 import java.io.Serial;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Hashtable;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 public class App {
     private static final int DEFAULT_WIDTH = 1120;
     private static final int DEFAULT_HEIGHT = 600;
-    private static final int CLEAR_COLOR = 0xaaaaaa;
+    private static final int CLEAR_COLOR = 0xffaaaaaa;
     private static final int MIN_BRUSH_SIZE = 1;
     private static final int MAX_BRUSH_SIZE = 15;
     private static final int COLOR_BUTTON_SIZE = 50;
     private static final String FRAME_TITLE = "UHK FIM PGRF";
     private static final Font UI_FONT = new Font("Arial", Font.BOLD, 15);
     private static final Font SLIDER_FONT = new Font("Arial", Font.BOLD, 12);
+    private static final long LOAD_REPAINT_INTERVAL_NANOS = 33_000_000L;
+    private static final long UNDO_CHECKPOINT_BUDGET = Long.getLong("undo.checkpointBudgetMB", 64) << 20;
+    private static final boolean RENDER_THREAD = Boolean.parseBoolean(System.getProperty("render.thread", "true"));
+    private static final boolean RENDER_STATS = Boolean.getBoolean("render.stats");
+    private static final int HUD_REFRESH_MILLIS = 250;
 
     private final JFrame frame;
     private final JPanel canvasPanel;
-    private final RasterBufferedImage raster;
+    private final RasterDataBuffer raster;
+    private final LayeredRenderer renderer;
+    // Null when the scene is edited and drawn on the event dispatch thread
+    private final RenderThread renderThread;
+    private final FrameStats frameStats;
+    private final StatsHud hud;
     private final LineCanvasRasterizer lineRasterizer;
     private final SquareRasterizer squareRasterizer;
     private final CircleRasterizer circleRasterizer;
     private final LineCanvas canvas;
-    private final BasicFiller filler;
+    private final Filler filler;
+    private final History history;
     private JLabel fillModeLabel;
     private JLabel polygonModeLabel;
     private JLabel rubberModeLabel;
+    private JLabel brushModeLabel;
     private final List<FillOperation> fillOperations = new ArrayList<>();
     private Point startPoint;
-    private Line closingLine;
+    private Polygon currentPolygon;
     private ArrayList<Point> polygonPoints = new ArrayList<>();
     private Color currentColor = Color.BLUE;
+    private FillRule fillRule = FillRule.EVEN_ODD;
+    private BrushShape brush = BrushShape.SQUARE;
     private int lineWidth = 1;
     private int eraserSize = 1;
     private boolean isCtrlPressed;
@@ -53,6 +101,12 @@ public class App {
     private boolean isSquareMode;
     private boolean isCircleMode;
     private boolean isRubberMode;
+    private SceneStreamLoader sceneLoader;
+    private long lastLoadRepaint;
+    private final List<Command> rubberStroke = new ArrayList<>();
+    // Without a render thread: start of the outermost task being run, or -1, and whether it repainted
+    private long taskStarted = -1;
+    private boolean framePending;
 
     public static void main(String[] args) {
         SwingUtilities.invokeLater(() -> new App(DEFAULT_WIDTH, DEFAULT_HEIGHT).start());
@@ -65,8 +119,13 @@ public class App {
         frame.setResizable(true);
         frame.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
 
-        raster = new RasterBufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        filler = new BasicFiller(raster);
+        canvas = new LineCanvas(new ArrayList<>(), new ArrayList<>());
+        renderer = new LayeredRenderer(width, height, canvas, fillOperations);
+        renderer.setParallel(Runtime.getRuntime().availableProcessors() > 1);
+        raster = renderer.getBase();
+        history = new History(canvas, fillOperations, renderer,
+                History.DEFAULT_CHECKPOINT_INTERVAL, UNDO_CHECKPOINT_BUDGET);
+        filler = new ScanlineFiller(raster);
         canvasPanel = new JPanel() {
             @Serial
             private static final long serialVersionUID = 1L;
@@ -74,25 +133,44 @@ public class App {
             @Override
             public void paintComponent(Graphics g) {
                 super.paintComponent(g);
-                g.drawImage(raster.getImg(), 0, 0, null);
+                if (renderThread != null) {
+                    renderThread.paint(g);
+                } else {
+                    renderer.paint(g);
+                }
+                hud.paint(g);
             }
         };
         canvasPanel.setPreferredSize(new Dimension(width, height));
         canvasPanel.setFocusable(true);
+        // Scene state below belongs to the render thread from here on, listeners only post to it
+        renderThread = RENDER_THREAD ? new RenderThread(renderer, canvasPanel::repaint) : null;
+        frameStats = renderThread != null ? renderThread.getStats() : new FrameStats();
+        hud = new StatsHud(frameStats);
+        // -Drender.stats=true starts with the HUD shown instead of waiting for H
+        hud.setVisible(RENDER_STATS);
 
         frame.add(createButtonPanel(), BorderLayout.NORTH);
         frame.add(canvasPanel, BorderLayout.CENTER);
         frame.pack();
         frame.setVisible(true);
 
-        lineRasterizer = new LineCanvasRasterizer(raster);
-        squareRasterizer = new SquareRasterizer(raster);
-        circleRasterizer = new CircleRasterizer(raster);
-        canvas = new LineCanvas(new ArrayList<>(), new ArrayList<>());
+        // Previews only ever draw into the overlay layer
+        lineRasterizer = new LineCanvasRasterizer(renderer.getOverlay());
+        squareRasterizer = new SquareRasterizer(renderer.getOverlay());
+        circleRasterizer = new CircleRasterizer(renderer.getOverlay());
 
         setupEventListeners();
         canvasPanel.requestFocus();
         canvasPanel.requestFocusInWindow();
+        if (renderThread != null) {
+            renderThread.start();
+        }
+        new Timer(HUD_REFRESH_MILLIS, e -> {
+            if (hud.isVisible()) {
+                canvasPanel.repaint(hud.getBounds());
+            }
+        }).start();
     }
 
     private JPanel createButtonPanel() {
@@ -119,8 +197,11 @@ public class App {
         labels.put(15, new JLabel("15"));
         sizeSlider.setLabelTable(labels);
         sizeSlider.addChangeListener(e -> {
-            lineWidth = sizeSlider.getValue();
-            eraserSize = sizeSlider.getValue();
+            int size = sizeSlider.getValue();
+            post(() -> {
+                lineWidth = size;
+                eraserSize = size;
+            });
             canvasPanel.requestFocusInWindow();
         });
 
@@ -139,6 +220,7 @@ public class App {
         fillModeLabel = createModeLabel("Fill: OFF");
         polygonModeLabel = createModeLabel("Polygon: OFF");
         rubberModeLabel = createModeLabel("Rubber: OFF");
+        brushModeLabel = createModeLabel("Round brush: OFF");
 
         panel.add(new JLabel("Color:"));
         panel.add(colorButton);
@@ -152,6 +234,7 @@ public class App {
         panel.add(fillModeLabel);
         panel.add(polygonModeLabel);
         panel.add(rubberModeLabel);
+        panel.add(brushModeLabel);
 
         return panel;
     }
@@ -168,8 +251,8 @@ public class App {
 
     private void showColorPalette() {
         JDialog dialog = new JDialog(frame, "Select Color", true);
-        dialog.setLayout(new GridLayout(5, 5, 5, 5));
-        dialog.setSize(300, 300);
+        dialog.setLayout(new GridLayout(6, 5, 5, 5));
+        dialog.setSize(300, 360);
         dialog.setLocationRelativeTo(frame);
 
         Color[] colors = {
@@ -177,15 +260,22 @@ public class App {
                 Color.RED, new Color(255, 102, 102), new Color(204, 0, 0), new Color(139, 0, 0), new Color(255, 51, 51),
                 Color.GREEN, new Color(102, 255, 102), new Color(0, 204, 0), new Color(0, 139, 0), new Color(51, 255, 51),
                 Color.BLUE, new Color(102, 102, 255), new Color(0, 0, 204), new Color(0, 0, 139), new Color(51, 51, 255),
-                Color.YELLOW, new Color(255, 255, 102), new Color(204, 204, 0), new Color(139, 139, 0), new Color(255, 255, 51)
+                Color.YELLOW, new Color(255, 255, 102), new Color(204, 204, 0), new Color(139, 139, 0), new Color(255, 255, 51),
+                // Half transparent: drawn over what is already on the canvas
+                new Color(0, 0, 0, 128), new Color(255, 0, 0, 128), new Color(0, 255, 0, 128),
+                new Color(0, 0, 255, 128), new Color(255, 255, 0, 128)
         };
 
         for (Color color : colors) {
             JButton button = new JButton();
-            button.setBackground(color);
+            // Swing paints translucent backgrounds badly; show the colour as it looks over white
+            button.setBackground(new Color(SpanCompositor.over(0xffffffff, color.getRGB())));
+            if (color.getAlpha() < 255) {
+                button.setToolTipText(Math.round(color.getAlpha() / 2.55f) + "% opaque");
+            }
             button.setPreferredSize(new Dimension(COLOR_BUTTON_SIZE, COLOR_BUTTON_SIZE));
             button.addActionListener(e -> {
-                currentColor = color;
+                post(() -> currentColor = color);
                 dialog.dispose();
                 canvasPanel.requestFocusInWindow();
             });
@@ -196,100 +286,154 @@ public class App {
     }
 
     private void toggleMode(Runnable modeToggle) {
-        modeToggle.run();
-        if (isSquareMode || isCircleMode || isRubberMode) {
-            isFillMode = false;
-            if (isPolygonMode) {
-                finalizePolygon();
+        post(() -> {
+            modeToggle.run();
+            if (isSquareMode || isCircleMode || isRubberMode) {
+                isFillMode = false;
+                if (isPolygonMode) {
+                    finalizePolygon();
+                }
+                isPolygonMode = false;
             }
-            isPolygonMode = false;
-        }
-        updateModeLabels();
-        renderCanvas();
+            updateModeLabels();
+            renderCanvas();
+        });
         canvasPanel.requestFocusInWindow();
     }
 
     private void updateModeLabels() {
-        fillModeLabel.setText("Fill: " + (isFillMode ? "ON" : "OFF"));
-        fillModeLabel.setBackground(isFillMode ? Color.GREEN : Color.RED);
-        polygonModeLabel.setText("Polygon: " + (isPolygonMode ? "ON" : "OFF"));
-        polygonModeLabel.setBackground(isPolygonMode ? Color.GREEN : Color.RED);
-        rubberModeLabel.setText("Rubber: " + (isRubberMode ? "ON" : "OFF"));
-        rubberModeLabel.setBackground(isRubberMode ? Color.GREEN : Color.RED);
+        String fillText = "Fill: " + (isFillMode ? "ON" : "OFF")
+                + (fillRule == FillRule.NON_ZERO ? " (non-zero)" : "");
+        boolean fill = isFillMode;
+        boolean polygon = isPolygonMode;
+        boolean rubber = isRubberMode;
+        boolean round = brush == BrushShape.ROUND;
+        onEdt(() -> {
+            fillModeLabel.setText(fillText);
+            fillModeLabel.setBackground(fill ? Color.GREEN : Color.RED);
+            polygonModeLabel.setText("Polygon: " + (polygon ? "ON" : "OFF"));
+            polygonModeLabel.setBackground(polygon ? Color.GREEN : Color.RED);
+            rubberModeLabel.setText("Rubber: " + (rubber ? "ON" : "OFF"));
+            rubberModeLabel.setBackground(rubber ? Color.GREEN : Color.RED);
+            brushModeLabel.setText("Round brush: " + (round ? "ON" : "OFF"));
+            brushModeLabel.setBackground(round ? Color.GREEN : Color.RED);
+        });
     }
 
     private void finalizePolygon() {
-        if (polygonPoints.size() >= 3 && closingLine != null) {
-            canvas.add(new Line(closingLine.getPoint1(), closingLine.getPoint2(), closingLine.getColor(), closingLine.getThickness()));
-        }
+        // The polygon is already in the canvas, later clicks just start a new one
         polygonPoints.clear();
-        if (closingLine != null) {
-            canvas.removeLine(closingLine);
-            closingLine = null;
-        }
+        currentPolygon = null;
     }
 
     private void setupEventListeners() {
         MouseAdapter mouseAdapter = new MouseAdapter() {
             private Point draggedPoint;
             private boolean isRightDragging;
+            private int dragFromX;
+            private int dragFromY;
+            // Pixels the dragged point's primitives covered before the drag
+            private Rectangle dragFromBounds;
+            // Drags arrive faster than frames; pending ones are handled together, once per frame
+            private final DragCoalescer drags = new DragCoalescer(
+                    renderThread != null ? renderThread::executeNextFrame
+                            : task -> SwingUtilities.invokeLater(() -> post(task)),
+                    this::dragged);
 
             @Override
             public void mousePressed(MouseEvent e) {
-                if (e.getButton() == MouseEvent.BUTTON3 && !isRubberMode) {
-                    draggedPoint = findClosestPoint(e.getX(), e.getY());
+                int button = e.getButton();
+                int x = e.getX();
+                int y = e.getY();
+                post(() -> {
+                    drags.flush();
+                    pressed(button, x, y);
+                });
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                drags.add(e.getX(), e.getY());
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                int button = e.getButton();
+                int x = e.getX();
+                int y = e.getY();
+                post(() -> {
+                    drags.flush();
+                    released(button, x, y);
+                });
+            }
+
+            private void pressed(int button, int x, int y) {
+                if (button == MouseEvent.BUTTON3 && !isRubberMode) {
+                    draggedPoint = findClosestPoint(x, y);
                     isRightDragging = draggedPoint != null;
+                    if (isRightDragging) {
+                        dragFromX = draggedPoint.getX();
+                        dragFromY = draggedPoint.getY();
+                        dragFromBounds = boundsAt(draggedPoint);
+                    }
                     startPoint = null;
-                } else if (e.getButton() == MouseEvent.BUTTON1 && isRubberMode) {
-                    splitLine(e.getX(), e.getY());
-                } else if (e.getButton() == MouseEvent.BUTTON1 && !isPolygonMode && !isFillMode && !isSquareMode && !isCircleMode && !isRubberMode) {
-                    startPoint = new Point(e.getX(), e.getY());
+                } else if (button == MouseEvent.BUTTON1 && isRubberMode) {
+                    renderRegion(splitLine(x, y));
+                } else if (button == MouseEvent.BUTTON1 && !isPolygonMode && !isFillMode && !isSquareMode && !isCircleMode && !isRubberMode) {
+                    startPoint = new Point(x, y);
                     draggedPoint = null;
                     isRightDragging = false;
-                } else if (e.getButton() == MouseEvent.BUTTON1 && isFillMode) {
-                    startPoint = new Point(e.getX(), e.getY());
-                    List<Point> filledPoints = filler.fill(startPoint, currentColor);
-                    if (!filledPoints.isEmpty()) {
-                        fillOperations.add(new FillOperation(filledPoints, currentColor));
+                } else if (button == MouseEvent.BUTTON1 && isFillMode) {
+                    Polygon polygon = canvas.findPolygonAt(x, y, fillRule);
+                    if (polygon != null && !canvas.hasStrokesInside(polygon, fillRule)) {
+                        // A polygon no stroke divides is filled as geometry that follows vertex edits
+                        perform(new FillCommand(new PolygonFillOperation(polygon, currentColor, fillRule)));
+                    } else {
+                        floodFill(new Point(x, y));
                     }
-                    renderCanvas();
                     draggedPoint = null;
                     isRightDragging = false;
-                } else if (e.getButton() == MouseEvent.BUTTON1 && (isSquareMode || isCircleMode)) {
-                    startPoint = new Point(e.getX(), e.getY());
+                } else if (button == MouseEvent.BUTTON1 && (isSquareMode || isCircleMode)) {
+                    startPoint = new Point(x, y);
                     draggedPoint = null;
                     isRightDragging = false;
                 }
             }
 
-            @Override
-            public void mouseDragged(MouseEvent e) {
+            /**
+             * The rubber erases along every pending position; everything else only needs the newest.
+             */
+            private void dragged(int[] path) {
+                int x = path[path.length - 2];
+                int y = path[path.length - 1];
                 if (isRightDragging && draggedPoint != null) {
-                    draggedPoint.setX(e.getX());
-                    draggedPoint.setY(e.getY());
-                    renderCanvas();
+                    movePoint(draggedPoint, x, y);
                 } else if (isRubberMode) {
-                    splitLine(e.getX(), e.getY());
+                    Rectangle dirty = null;
+                    for (int i = 0; i < path.length; i += 2) {
+                        dirty = union(dirty, splitLine(path[i], path[i + 1]));
+                    }
+                    renderRegion(dirty);
                 } else if (isPolygonMode && !polygonPoints.isEmpty()) {
                     Point lastPoint = polygonPoints.get(polygonPoints.size() - 1);
-                    Point currentPoint = new Point(e.getX(), e.getY());
+                    Point currentPoint = new Point(x, y);
                     if (isShiftPressed) {
                         currentPoint = alignPoint(lastPoint, currentPoint);
                     }
                     Line tempLine = new Line(lastPoint, currentPoint, currentColor, lineWidth);
                     prepareCanvasAndDraw(() -> lineRasterizer.rasterizeLine(tempLine));
                 } else if (isSquareMode) {
-                    Point endPoint = new Point(e.getX(), e.getY());
+                    Point endPoint = new Point(x, y);
                     prepareCanvasAndDraw(() -> squareRasterizer.rasterize(startPoint, endPoint, currentColor, lineWidth));
                 } else if (isCircleMode) {
-                    Point endPoint = new Point(e.getX(), e.getY());
+                    Point endPoint = new Point(x, y);
                     prepareCanvasAndDraw(() -> circleRasterizer.rasterize(startPoint, endPoint, currentColor, lineWidth));
                 } else if (!isFillMode && !isRubberMode && startPoint != null) {
-                    Point endPoint = new Point(e.getX(), e.getY());
+                    Point endPoint = new Point(x, y);
                     if (isShiftPressed) {
                         endPoint = alignPoint(startPoint, endPoint);
                     }
-                    Line line = new Line(startPoint, endPoint, currentColor, lineWidth);
+                    Line line = new Line(startPoint, endPoint, currentColor, lineWidth, brush);
                     prepareCanvasAndDraw(() -> {
                         if (isCtrlPressed) {
                             lineRasterizer.rasterizeDottedLine(line);
@@ -300,92 +444,46 @@ public class App {
                 }
             }
 
-            @Override
-            public void mouseReleased(MouseEvent e) {
-                if (e.getButton() == MouseEvent.BUTTON3 && isRightDragging && draggedPoint != null) {
-                    draggedPoint.setX(e.getX());
-                    draggedPoint.setY(e.getY());
-                    renderCanvas();
+            private void released(int button, int x, int y) {
+                if (button == MouseEvent.BUTTON3 && isRightDragging && draggedPoint != null) {
+                    movePoint(draggedPoint, x, y);
+                    if (draggedPoint.getX() != dragFromX || draggedPoint.getY() != dragFromY) {
+                        history.record(new MoveVertexCommand(draggedPoint, dragFromX, dragFromY,
+                                union(dragFromBounds, boundsAt(draggedPoint))));
+                    }
                     draggedPoint = null;
+                    dragFromBounds = null;
                     isRightDragging = false;
+                } else if (isRubberMode) {
+                    finishRubberStroke();
                 } else if (isPolygonMode) {
-                    Point newPoint = new Point(e.getX(), e.getY());
+                    Point newPoint = new Point(x, y);
                     if (!polygonPoints.isEmpty() && isShiftPressed) {
                         newPoint = alignPoint(polygonPoints.get(polygonPoints.size() - 1), newPoint);
                     }
-                    // Handle polygon point addition and closing line
-                    if (polygonPoints.isEmpty()) {
-                        polygonPoints.add(newPoint);
+                    // The polygon enters the scene with its second vertex; it closes itself from the third
+                    polygonPoints.add(newPoint);
+                    if (polygonPoints.size() == 1) {
+                        refreshCanvas();
+                    } else if (currentPolygon == null) {
+                        currentPolygon = new Polygon(polygonPoints, currentColor, lineWidth);
+                        perform(new AddShapeCommand(currentPolygon));
                     } else {
-                        Point lastPoint = polygonPoints.get(polygonPoints.size() - 1);
-                        canvas.add(new Line(lastPoint, newPoint, currentColor, lineWidth));
-                        if (closingLine != null) {
-                            canvas.removeLine(closingLine);
-                        }
-                        polygonPoints.add(newPoint);
-                        if (polygonPoints.size() >= 3) {
-                            closingLine = new Line(newPoint, polygonPoints.get(0), currentColor, lineWidth);
-                            canvas.add(closingLine);
-                        }
+                        perform(new AddVertexCommand(currentPolygon, newPoint));
                     }
-                    renderCanvas();
                 } else if (isSquareMode) {
-                    Point endPoint = new Point(e.getX(), e.getY());
-                    // Draw square with equal sides
-                    int dx = endPoint.getX() - startPoint.getX();
-                    int dy = endPoint.getY() - startPoint.getY();
-                    int side = Math.max(Math.abs(dx), Math.abs(dy));
-                    Point topLeft = new Point(startPoint.getX(), startPoint.getY());
-                    Point topRight = new Point(startPoint.getX() + side, startPoint.getY());
-                    Point bottomLeft = new Point(startPoint.getX(), startPoint.getY() + side);
-                    Point bottomRight = new Point(startPoint.getX() + side, startPoint.getY() + side);
-                    if (dx < 0) {
-                        topLeft.setX(startPoint.getX() - side);
-                        topRight.setX(startPoint.getX());
-                        bottomLeft.setX(startPoint.getX() - side);
-                        bottomRight.setX(startPoint.getX());
-                    }
-                    if (dy < 0) {
-                        topLeft.setY(startPoint.getY() - side);
-                        topRight.setY(startPoint.getY() - side);
-                        bottomLeft.setY(startPoint.getY());
-                        bottomRight.setY(startPoint.getY());
-                    }
-                    canvas.add(new Line(topLeft, topRight, currentColor, lineWidth));
-                    canvas.add(new Line(topRight, bottomRight, currentColor, lineWidth));
-                    canvas.add(new Line(bottomRight, bottomLeft, currentColor, lineWidth));
-                    canvas.add(new Line(bottomLeft, topLeft, currentColor, lineWidth));
-                    renderCanvas();
+                    Point endPoint = new Point(x, y);
+                    perform(new AddShapeCommand(Rect.square(startPoint, endPoint, currentColor, lineWidth)));
                 } else if (isCircleMode) {
-                    Point endPoint = new Point(e.getX(), e.getY());
-                    // Approximate circle with line segments
-                    int dx = endPoint.getX() - startPoint.getX();
-                    int dy = endPoint.getY() - startPoint.getY();
-                    int radius = (int) Math.sqrt(dx * dx + dy * dy);
-                    int segments = 36;
-                    Point[] points = new Point[segments];
-                    for (int i = 0; i < segments; i++) {
-                        double angle = 2 * Math.PI * i / segments;
-                        int x = startPoint.getX() + (int) (radius * Math.cos(angle));
-                        int y = startPoint.getY() + (int) (radius * Math.sin(angle));
-                        points[i] = new Point(x, y);
-                    }
-                    for (int i = 0; i < segments; i++) {
-                        canvas.add(new Line(points[i], points[(i + 1) % segments], currentColor, lineWidth));
-                    }
-                    renderCanvas();
+                    Point endPoint = new Point(x, y);
+                    perform(new AddShapeCommand(Circle.through(startPoint, endPoint, currentColor, lineWidth)));
                 } else if (!isFillMode && !isRubberMode && startPoint != null) {
-                    Point endPoint = new Point(e.getX(), e.getY());
+                    Point endPoint = new Point(x, y);
                     if (isShiftPressed) {
                         endPoint = alignPoint(startPoint, endPoint);
                     }
-                    Line line = new Line(startPoint, endPoint, currentColor, lineWidth);
-                    if (isCtrlPressed) {
-                        canvas.addDottedLine(line);
-                    } else {
-                        canvas.add(line);
-                    }
-                    renderCanvas();
+                    Line line = new Line(startPoint, endPoint, currentColor, lineWidth, brush);
+                    perform(ReplaceLinesCommand.adding(List.of(line), isCtrlPressed));
                     startPoint = null;
                 }
             }
@@ -394,20 +492,50 @@ public class App {
         KeyAdapter keyAdapter = new KeyAdapter() {
             @Override
             public void keyPressed(KeyEvent e) {
-                switch (e.getKeyCode()) {
+                int key = e.getKeyCode();
+                boolean ctrl = e.isControlDown();
+                boolean shift = e.isShiftDown();
+                // File dialogs have to open on the event dispatch thread
+                if (key == KeyEvent.VK_S && ctrl) {
+                    saveScene();
+                } else if (key == KeyEvent.VK_O && ctrl) {
+                    openScene();
+                } else if (key == KeyEvent.VK_H) {
+                    hud.setVisible(!hud.isVisible());
+                    canvasPanel.repaint(hud.getBounds());
+                    post(App.this::publishSceneSize);
+                } else {
+                    post(() -> keyPressed(key, ctrl, shift));
+                }
+            }
+
+            private void keyPressed(int key, boolean ctrl, boolean shift) {
+                switch (key) {
                     case KeyEvent.VK_CONTROL -> isCtrlPressed = true;
                     case KeyEvent.VK_SHIFT -> isShiftPressed = true;
                     case KeyEvent.VK_F -> toggleFillMode();
+                    case KeyEvent.VK_N -> toggleFillRule();
+                    case KeyEvent.VK_B -> toggleBrush();
                     case KeyEvent.VK_P -> togglePolygonMode();
                     case KeyEvent.VK_R -> toggleRubberMode();
                     case KeyEvent.VK_C -> clearCanvas();
+                    case KeyEvent.VK_Z -> {
+                        if (ctrl && shift) redo();
+                        else if (ctrl) undo();
+                    }
+                    case KeyEvent.VK_Y -> {
+                        if (ctrl) redo();
+                    }
                 }
             }
 
             @Override
             public void keyReleased(KeyEvent e) {
-                if (e.getKeyCode() == KeyEvent.VK_CONTROL) isCtrlPressed = false;
-                if (e.getKeyCode() == KeyEvent.VK_SHIFT) isShiftPressed = false;
+                int key = e.getKeyCode();
+                post(() -> {
+                    if (key == KeyEvent.VK_CONTROL) isCtrlPressed = false;
+                    if (key == KeyEvent.VK_SHIFT) isShiftPressed = false;
+                });
             }
         };
 
@@ -431,6 +559,34 @@ public class App {
         // Do not call renderCanvas to avoid overwriting existing lines
     }
 
+    private void floodFill(Point seed) {
+        startPoint = seed;
+        renderer.render();
+        SpanList filledSpans = filler.fillSpans(seed, currentColor);
+        FillCommand fillCommand = null;
+        if (!filledSpans.isEmpty()) {
+            FillOperation fill = new FillOperation(filledSpans, currentColor);
+            fillCommand = new FillCommand(fill);
+            fillCommand.apply(canvas, fillOperations);
+            // The filler already painted into the base layer, only the screen is stale
+            renderer.addRepaint(fill.getBounds());
+        }
+        refreshCanvas();
+        if (fillCommand != null) {
+            history.record(fillCommand);
+        }
+    }
+
+    private void toggleFillRule() {
+        fillRule = fillRule == FillRule.EVEN_ODD ? FillRule.NON_ZERO : FillRule.EVEN_ODD;
+        updateModeLabels();
+    }
+
+    private void toggleBrush() {
+        brush = brush == BrushShape.SQUARE ? BrushShape.ROUND : BrushShape.SQUARE;
+        updateModeLabels();
+    }
+
     private void togglePolygonMode() {
         isPolygonMode = !isPolygonMode;
         if (isPolygonMode) {
@@ -439,10 +595,7 @@ public class App {
             isRubberMode = false;
             isFillMode = false;
             polygonPoints = new ArrayList<>();
-            if (closingLine != null) {
-                canvas.removeLine(closingLine);
-                closingLine = null;
-            }
+            currentPolygon = null;
         } else {
             finalizePolygon();
             renderCanvas();
@@ -465,70 +618,339 @@ public class App {
         renderCanvas();
     }
 
+    private void saveScene() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showSaveDialog(frame) == JFileChooser.APPROVE_OPTION) {
+            Path path = chooser.getSelectedFile().toPath();
+            post(() -> {
+                Scene scene = new Scene(raster.getWidth(), raster.getHeight(), CLEAR_COLOR, canvas, fillOperations);
+                try {
+                    SceneBinaryFormat.save(path, scene);
+                } catch (IOException ex) {
+                    onEdt(() -> JOptionPane.showMessageDialog(frame, "Could not save scene: " + ex.getMessage(),
+                            "Save", JOptionPane.ERROR_MESSAGE));
+                }
+            });
+        }
+        // The dialog swallowed the key release
+        post(() -> isCtrlPressed = false);
+        canvasPanel.requestFocusInWindow();
+    }
+
+    private void openScene() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(frame) == JFileChooser.APPROVE_OPTION) {
+            Path path = chooser.getSelectedFile().toPath();
+            post(() -> {
+                clearScene();
+                renderCanvas();
+                // Loaded lines bypass the history, so checkpoints wait for the load to finish
+                history.setCheckpointing(false);
+                history.clear();
+                SceneLoadListener listener = new SceneLoadListener();
+                Executor delivery = renderThread != null ? renderThread : SwingUtilities::invokeLater;
+                sceneLoader = new SceneStreamLoader(path, listener, delivery);
+                listener.loader = sceneLoader;
+                sceneLoader.execute();
+            });
+        }
+        post(() -> isCtrlPressed = false);
+        canvasPanel.requestFocusInWindow();
+    }
+
+    /**
+     * Appends a streamed scene to the live canvas. The editor stays usable during the load; each
+     * batch goes on top of the scene and is drawn straight onto the base layer.
+     */
+    private class SceneLoadListener implements SceneStreamLoader.Listener {
+        private SceneStreamLoader loader;
+
+        // Callbacks queued before the load was cancelled or replaced still arrive
+        private boolean isCurrent() {
+            return loader != null && loader == sceneLoader;
+        }
+
+        @Override
+        public void sceneOpened(int width, int height, int clearColor, List<FillOperation> fills) {
+            if (!isCurrent()) {
+                return;
+            }
+            fillOperations.addAll(fills);
+            renderCanvas();
+            lastLoadRepaint = System.nanoTime();
+        }
+
+        @Override
+        public void linesLoaded(LineCanvas batch, List<FillOperation> fills, int read, int total) {
+            if (!isCurrent()) {
+                return;
+            }
+            // Fills go under every line, so their area is re-rendered
+            for (FillOperation fill : fills) {
+                fillOperations.add(fill);
+                renderer.invalidate(fill.getBounds());
+            }
+            // Loaded primitives go on top of anything drawn meanwhile, as if drawn now. Drawn
+            // first: appending re-keys the batch's shapes into the canvas's drawing order
+            renderer.drawAppended(batch);
+            canvas.appendAll(batch);
+            renderer.render();
+
+            long now = System.nanoTime();
+            if (now - lastLoadRepaint >= LOAD_REPAINT_INTERVAL_NANOS) {
+                lastLoadRepaint = now;
+                repaintChanged();
+                String title = FRAME_TITLE + ": " + App.class.getName()
+                        + " - loading " + (int) (100L * read / Math.max(1, total)) + "%";
+                onEdt(() -> frame.setTitle(title));
+            }
+        }
+
+        @Override
+        public void loadFinished(IOException error) {
+            if (!isCurrent()) {
+                return;
+            }
+            sceneLoader = null;
+            onEdt(() -> frame.setTitle(FRAME_TITLE + ": " + App.class.getName()));
+            history.setCheckpointing(true);
+            if (error != null) {
+                clearScene();
+                renderCanvas();
+                history.clear();
+                onEdt(() -> JOptionPane.showMessageDialog(frame, "Could not open scene: " + error.getMessage(),
+                        "Open", JOptionPane.ERROR_MESSAGE));
+            } else {
+                renderer.render();
+                repaintChanged();
+            }
+        }
+    }
+
     private void clearCanvas() {
-        canvas.clearLines();
-        canvas.getDottedLines().clear();
+        cancelLoad();
+        finishEditing();
+        perform(new ClearCommand());
+    }
+
+    /**
+     * Empty the scene without recording it, before a different scene is opened.
+     */
+    private void clearScene() {
+        cancelLoad();
+        canvas.clear();
         fillOperations.clear();
         polygonPoints.clear();
-        if (closingLine != null) {
-            canvas.removeLine(closingLine);
-            closingLine = null;
+        currentPolygon = null;
+    }
+
+    private void cancelLoad() {
+        if (sceneLoader != null) {
+            sceneLoader.cancel(true);
+            sceneLoader = null;
+            onEdt(() -> frame.setTitle(FRAME_TITLE + ": " + App.class.getName()));
+            history.setCheckpointing(true);
+        }
+    }
+
+    private void perform(Command command) {
+        history.perform(command);
+        refreshCanvas();
+    }
+
+    private void undo() {
+        finishEditing();
+        if (history.undo()) {
+            refreshCanvas();
         }
-        raster.clear();
-        canvasPanel.repaint();
     }
 
-    private void splitLine(int mouseX, int mouseY) {
-        // Split lines near mouse click
-        ArrayList<Line> toRemove = new ArrayList<>();
-        ArrayList<Line> toAdd = new ArrayList<>();
+    private void redo() {
+        finishEditing();
+        if (history.redo()) {
+            refreshCanvas();
+        }
+    }
+
+    /**
+     * Close the open rubber stroke and polygon so the history only holds finished edits.
+     */
+    private void finishEditing() {
+        finishRubberStroke();
+        finalizePolygon();
+    }
+
+    private void finishRubberStroke() {
+        if (!rubberStroke.isEmpty()) {
+            history.record(new CompositeCommand(rubberStroke));
+            rubberStroke.clear();
+        }
+    }
+
+    /**
+     * Split the lines and shapes under the rubber and return the area to re-render, or null.
+     */
+    private Rectangle splitLine(int mouseX, int mouseY) {
+        RubberSplitEvent event = new RubberSplitEvent();
+        event.begin();
+        int strokeSize = rubberStroke.size();
+        // Split lines and shapes near mouse click
         double effectiveSize = Math.max(eraserSize, 3.0);
-        ArrayList<Line> allLines = new ArrayList<>(canvas.getLines());
-        allLines.addAll(canvas.getDottedLines());
-
-        for (Line line : allLines) {
-            Point p1 = line.getPoint1();
-            Point p2 = line.getPoint2();
-            Point closest = getClosestPointOnLine(mouseX, mouseY, p1.getX(), p1.getY(), p2.getX(), p2.getY());
-            double distance = Math.sqrt(Math.pow(mouseX - closest.getX(), 2) + Math.pow(mouseY - closest.getY(), 2));
-            double length = Math.sqrt(Math.pow(p2.getX() - p1.getX(), 2) + Math.pow(p2.getY() - p1.getY(), 2));
-
-            if (distance <= effectiveSize && length > 2 * eraserSize) {
-                double dx = p2.getX() - p1.getX();
-                double dy = p2.getY() - p1.getY();
-                double t = ((mouseX - p1.getX()) * dx + (mouseY - p1.getY()) * dy) / (dx * dx + dy * dy);
-                t = Math.max(0, Math.min(1, t));
-                double gap = 2 * eraserSize;
-                double tGap = gap / length / 2;
-                double t1 = t - tGap;
-                double t2 = t + tGap;
-
-                if (t1 >= 0 && t2 <= 1) {
-                    int x1_new = (int) (p1.getX() + t1 * dx);
-                    int y1_new = (int) (p1.getY() + t1 * dy);
-                    int x2_new = (int) (p1.getX() + t2 * dx);
-                    int y2_new = (int) (p1.getY() + t2 * dy);
-
-                    toRemove.add(line);
-                    toAdd.add(new Line(p1, new Point(x1_new, y1_new), line.getColor(), line.getThickness()));
-                    toAdd.add(new Line(new Point(x2_new, y2_new), p2, line.getColor(), line.getThickness()));
+        // The distance check below uses an integer closest point, so look a pixel further
+        List<Line> candidates = canvas.findLinesWithin(mouseX, mouseY, effectiveSize + 1);
+        List<Line> dottedCandidates = canvas.findDottedLinesWithin(mouseX, mouseY, effectiveSize + 1);
+        List<Shape> shapeCandidates = canvas.findShapesWithin(mouseX, mouseY, effectiveSize + 1);
+        Rectangle dirty = union(splitLines(candidates, false, mouseX, mouseY, effectiveSize),
+                splitLines(dottedCandidates, true, mouseX, mouseY, effectiveSize));
+        dirty = union(dirty, splitShapes(shapeCandidates, mouseX, mouseY, effectiveSize));
+        event.end();
+        if (event.shouldCommit()) {
+            event.x = mouseX;
+            event.y = mouseY;
+            event.candidates = candidates.size() + dottedCandidates.size() + shapeCandidates.size();
+            event.splits = rubberStroke.size() - strokeSize;
+            event.commit();
+        }
+        return dirty;
+    }
+
+    private Rectangle splitLines(List<Line> candidates, boolean dotted, int mouseX, int mouseY, double effectiveSize) {
+        Rectangle dirty = null;
+        for (Line line : candidates) {
+            Point[] gap = cutGap(line.getPoint1(), line.getPoint2(), mouseX, mouseY, effectiveSize);
+            if (gap != null) {
+                Line first = new Line(line.getPoint1(), gap[0], line.getColor(), line.getThickness(), line.getBrush());
+                Line second = new Line(gap[1], line.getPoint2(), line.getColor(), line.getThickness(), line.getBrush());
+                Command split = new ReplaceLinesCommand(List.of(line), List.of(first, second), dotted);
+                split.apply(canvas, fillOperations);
+                rubberStroke.add(split);
+                dirty = union(dirty, line.getBounds());
+            }
+        }
+        return dirty;
+    }
+
+    /**
+     * Cut the shapes under the rubber: a polyline edge is split into two polylines and a closed
+     * outline (polygon, or rectangle taken as its four corners) opens into one polyline.
+     * Ellipses and circles have no edges to cut and are removed.
+     */
+    private Rectangle splitShapes(List<Shape> candidates, int mouseX, int mouseY, double effectiveSize) {
+        Rectangle dirty = null;
+        for (Shape shape : candidates) {
+            List<Shape> pieces;
+            if (shape instanceof Ellipse ellipse) {
+                if (!touchesOutline(ellipse, mouseX, mouseY, effectiveSize)) {
+                    continue;
+                }
+                pieces = List.of();
+            } else {
+                pieces = cutOutline(shape, mouseX, mouseY, effectiveSize);
+                if (pieces == null) {
+                    continue;
                 }
             }
+            Command split = new ReplaceShapeCommand(shape, pieces);
+            split.apply(canvas, fillOperations);
+            rubberStroke.add(split);
+            dirty = union(dirty, shape.getBounds());
         }
+        return dirty;
+    }
 
-        for (Line line : toRemove) {
-            if (canvas.getLines().contains(line)) {
-                canvas.removeLine(line);
-                canvas.getLines().addAll(toAdd);
-            } else if (canvas.getDottedLines().contains(line)) {
-                canvas.removeDottedLine(line);
-                canvas.getDottedLines().addAll(toAdd);
+    /**
+     * The polylines left after cutting the first edge of {@code shape} under the rubber, or
+     * null if no edge is cut
+     */
+    private List<Shape> cutOutline(Shape shape, int mouseX, int mouseY, double effectiveSize) {
+        List<Point> vertices;
+        boolean closed;
+        if (shape instanceof Rect rect) {
+            Point corner1 = rect.getCorner1();
+            Point corner2 = rect.getCorner2();
+            vertices = List.of(corner1, new Point(corner2.getX(), corner1.getY()), corner2,
+                    new Point(corner1.getX(), corner2.getY()));
+            closed = true;
+        } else if (shape instanceof Polyline polyline) {
+            vertices = polyline.getVertices();
+            closed = polyline.isClosed() && vertices.size() >= 3;
+        } else {
+            return null;
+        }
+        int count = vertices.size();
+        for (int i = 0; i < (closed ? count : count - 1); i++) {
+            Point from = vertices.get(i);
+            Point to = vertices.get((i + 1) % count);
+            Point[] gap = cutGap(from, to, mouseX, mouseY, effectiveSize);
+            if (gap == null) {
+                continue;
             }
+            if (closed) {
+                // Open the ring at the gap: from just after it all the way round to just before it
+                List<Point> open = new ArrayList<>(count + 2);
+                open.add(gap[1]);
+                for (int j = 1; j <= count; j++) {
+                    open.add(vertices.get((i + j) % count));
+                }
+                open.add(gap[0]);
+                return List.of(new Polyline(open, shape.getColor(), shape.getThickness()));
+            }
+            List<Point> first = new ArrayList<>(vertices.subList(0, i + 1));
+            first.add(gap[0]);
+            List<Point> second = new ArrayList<>(count - i);
+            second.add(gap[1]);
+            second.addAll(vertices.subList(i + 1, count));
+            return List.of(new Polyline(first, shape.getColor(), shape.getThickness()),
+                    new Polyline(second, shape.getColor(), shape.getThickness()));
+        }
+        return null;
+    }
+
+    /**
+     * Whether the rubber reaches the drawn outline of {@code ellipse}, measured along the ray
+     * from its centre
+     */
+    private static boolean touchesOutline(Ellipse ellipse, int mouseX, int mouseY, double effectiveSize) {
+        double dx = mouseX - ellipse.getCenter().getX();
+        double dy = mouseY - ellipse.getCenter().getY();
+        double reach = effectiveSize + Math.max(0, (ellipse.getThickness() - 1) / 2);
+        if (ellipse.getRadiusX() == 0 || ellipse.getRadiusY() == 0 || (dx == 0 && dy == 0)) {
+            return Math.min(ellipse.getRadiusX(), ellipse.getRadiusY()) <= reach;
         }
+        double scale = Math.hypot(dx / ellipse.getRadiusX(), dy / ellipse.getRadiusY());
+        return Math.hypot(dx, dy) * Math.abs(1 - 1 / scale) <= reach;
+    }
 
-        if (!toRemove.isEmpty()) {
-            renderCanvas();
+    /**
+     * Ends of the rubber's gap in segment [p1, p2], or null if the rubber is too far from it or
+     * the gap would not fit
+     */
+    private Point[] cutGap(Point p1, Point p2, int mouseX, int mouseY, double effectiveSize) {
+        Point closest = getClosestPointOnLine(mouseX, mouseY, p1.getX(), p1.getY(), p2.getX(), p2.getY());
+        double dx = p2.getX() - p1.getX();
+        double dy = p2.getY() - p1.getY();
+        double cx = mouseX - closest.getX();
+        double cy = mouseY - closest.getY();
+        double distance = Math.sqrt(cx * cx + cy * cy);
+        double length = Math.sqrt(dx * dx + dy * dy);
+
+        if (distance <= effectiveSize && length > 2 * eraserSize) {
+            double t = ((mouseX - p1.getX()) * dx + (mouseY - p1.getY()) * dy) / (dx * dx + dy * dy);
+            t = Math.max(0, Math.min(1, t));
+            double gap = 2 * eraserSize;
+            double tGap = gap / length / 2;
+            double t1 = t - tGap;
+            double t2 = t + tGap;
+
+            if (t1 >= 0 && t2 <= 1) {
+                int x1_new = (int) (p1.getX() + t1 * dx);
+                int y1_new = (int) (p1.getY() + t1 * dy);
+                int x2_new = (int) (p1.getX() + t2 * dx);
+                int y2_new = (int) (p1.getY() + t2 * dy);
+                return new Point[]{new Point(x1_new, y1_new), new Point(x2_new, y2_new)};
+            }
         }
+        return null;
     }
 
     private Point getClosestPointOnLine(int x, int y, int x1, int y1, int x2, int y2) {
@@ -562,56 +984,110 @@ public class App {
 
     private Point findClosestPoint(int mouseX, int mouseY) {
         int threshold = 10;
-        ArrayList<Line> lines = new ArrayList<>(canvas.getLines());
-        lines.addAll(canvas.getDottedLines());
+        return canvas.findNearestVertex(mouseX, mouseY, threshold);
+    }
 
-        for (Line line : lines) {
-            Point p1 = line.getPoint1();
-            Point p2 = line.getPoint2();
-            double distToP1 = Math.sqrt(Math.pow(mouseX - p1.getX(), 2) + Math.pow(mouseY - p1.getY(), 2));
-            double distToP2 = Math.sqrt(Math.pow(mouseX - p2.getX(), 2) + Math.pow(mouseY - p2.getY(), 2));
+    private void movePoint(Point point, int x, int y) {
+        Rectangle dirty = boundsAt(point);
+        canvas.movePoint(point, x, y);
+        renderRegion(union(dirty, boundsAt(point)));
+    }
 
-            if (distToP1 < threshold) return p1;
-            if (distToP2 < threshold) return p2;
-        }
-        return null;
+    /**
+     * Pixels covered by the lines, shapes and polygon fills that use {@code point}, or null
+     */
+    private Rectangle boundsAt(Point point) {
+        return union(canvas.getBoundsAt(point), FillOperation.getBoundsAt(fillOperations, point));
+    }
+
+    private static Rectangle union(Rectangle a, Rectangle b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.union(b);
     }
 
     private void prepareCanvasAndDraw(Runnable drawAction) {
-        raster.clear();
-        for (FillOperation op : fillOperations) {
-            Color color = op.getColor();
-            for (Point p : op.getPoints()) {
-                if (p.getX() >= 0 && p.getX() < raster.getWidth() &&
-                        p.getY() >= 0 && p.getY() < raster.getHeight()) {
-                    raster.setPixel(p.getX(), p.getY(), color.getRGB());
-                }
-            }
-        }
-        lineRasterizer.rasterizeCanvas(canvas);
+        renderer.render();
+        renderer.clearOverlay();
         drawAction.run();
-        canvasPanel.repaint();
+        repaintChanged();
     }
 
     private void renderCanvas() {
-        raster.clear();
-        for (FillOperation op : fillOperations) {
-            Color color = op.getColor();
-            for (Point p : op.getPoints()) {
-                if (p.getX() >= 0 && p.getX() < raster.getWidth() &&
-                        p.getY() >= 0 && p.getY() < raster.getHeight()) {
-                    raster.setPixel(p.getX(), p.getY(), color.getRGB());
+        renderer.invalidate();
+        refreshCanvas();
+    }
+
+    private void renderRegion(Rectangle dirty) {
+        if (dirty != null) {
+            renderer.invalidate(dirty);
+        }
+        refreshCanvas();
+    }
+
+    private void refreshCanvas() {
+        renderer.render();
+        renderer.clearOverlay();
+        repaintChanged();
+    }
+
+    private void repaintChanged() {
+        publishSceneSize();
+        if (renderThread != null) {
+            renderThread.requestFrame();
+            return;
+        }
+        Rectangle region = renderer.takeRepaintRegion();
+        if (region != null) {
+            canvasPanel.repaint(region);
+            framePending = true;
+        }
+    }
+
+    private void publishSceneSize() {
+        if (hud.isVisible()) {
+            hud.setSceneSize(canvas.getLineStore().size(), canvas.getDottedLineStore().size(),
+                    canvas.getShapes().size(), fillOperations.size());
+        }
+    }
+
+    private void start() {
+        post(() -> {
+            renderer.setClearColor(CLEAR_COLOR);
+            renderCanvas();
+            history.clear();
+        });
+    }
+
+    /**
+     * Run a scene task on the thread that owns the scene, in the order tasks were posted.
+     */
+    private void post(Runnable task) {
+        if (renderThread != null) {
+            renderThread.execute(task);
+        } else if (taskStarted >= 0) {
+            task.run();
+        } else {
+            taskStarted = System.nanoTime();
+            try {
+                task.run();
+            } finally {
+                if (framePending) {
+                    long now = System.nanoTime();
+                    frameStats.record(now, now - taskStarted, now - taskStarted);
+                    framePending = false;
                 }
+                taskStarted = -1;
             }
         }
-        lineRasterizer.rasterizeCanvas(canvas);
-        canvasPanel.repaint();
     }
 
-    private void start() {
-        raster.setClearColor(CLEAR_COLOR);
-        raster.clear();
-        canvasPanel.repaint();
+    private static void onEdt(Runnable task) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            task.run();
+        } else {
+            SwingUtilities.invokeLater(task);
+        }
     }
 
     public List<FillOperation> getFillOperations() {
@@ -1,5 +1,6 @@
 package Fillers;
 
+import diagnostics.FloodFillEvent;
 import models.Point;
 import rasters.Raster;
 
@@ -30,6 +31,8 @@ public class BasicFiller implements Filler {
             return new ArrayList<>();
         }
 
+        FloodFillEvent event = new FloodFillEvent();
+        event.begin();
         List<Point> pending = new ArrayList<>();
         List<Point> filledPoints = new ArrayList<>();
         Set<Point> processed = new HashSet<>(); // Track processed pixels efficiently
@@ -37,6 +40,7 @@ public class BasicFiller implements Filler {
         processed.add(click);
 
         int fillCount = 0;
+        boolean aborted = false;
 
         while (!pending.isEmpty()) {
             Point p = pending.remove(0);
@@ -44,11 +48,21 @@ public class BasicFiller implements Filler {
                 fillCount++;
                 if (fillCount > MAX_FILL_SIZE) {
                     System.out.println("Fill operation aborted: exceeded maximum fill size.");
+                    aborted = true;
                     break;
                 }
             }
         }
 
+        event.end();
+        if (event.shouldCommit()) {
+            event.filler = getClass().getSimpleName();
+            event.seedX = click.getX();
+            event.seedY = click.getY();
+            event.pixels = filledPoints.size();
+            event.aborted = aborted;
+            event.commit();
+        }
         return filledPoints;
     }
 
@@ -64,7 +78,12 @@ public class BasicFiller implements Filler {
             return false;
         }
 
-        raster.setPixel(p.getX(), p.getY(), fillColor.getRGB());
+        int rgb = fillColor.getRGB();
+        if (rgb >>> 24 == 255) {
+            raster.setPixel(p.getX(), p.getY(), rgb);
+        } else {
+            raster.blendSpan(p.getY(), p.getX(), p.getX(), rgb);
+        }
         filledPoints.add(p);
 
         Point[] neighbors = {
@@ -1,23 +1,123 @@
 package Fillers;
 
 import java.awt.*;
-import models.Point;
 import java.util.List;
+import models.Point;
+import rasters.Raster;
 
+/**
+ * One entry of the fill history, replayed in order under all lines: the row spans a flood fill
+ * covered, or, in a subclass, geometry that is filled again on every replay.
+ */
 public class FillOperation {
-    private final List<Point> points;
+    private final SpanList spans;
     private final Color color;
+    private final Rectangle bounds;
+
+    public FillOperation(SpanList spans, Color color) {
+        spans.trimToSize();
+        this.spans = spans;
+        this.color = color;
+        this.bounds = spans.getBounds();
+    }
 
-    public FillOperation(List<Point> points, Color color) {
-        this.points = points;
+    /**
+     * Fill without spans; the subclass overrides {@link #getBounds()}, both {@code render}
+     * methods, {@link #hasVertex} and {@link #getMemoryFootprint()}.
+     */
+    protected FillOperation(Color color) {
+        this.spans = null;
         this.color = color;
+        this.bounds = null;
     }
 
-    public List<Point> getPoints() {
-        return points;
+    /**
+     * Filled spans, or null for a fill kept as geometry
+     */
+    public SpanList getSpans() {
+        return spans;
     }
 
     public Color getColor() {
         return color;
     }
+
+    /**
+     * Pixel bounds of the filled area, or an empty rectangle if nothing was filled
+     */
+    public Rectangle getBounds() {
+        return new Rectangle(bounds);
+    }
+
+    /**
+     * Replay the spans; a translucent colour is drawn over what is there.
+     */
+    public void render(Raster raster) {
+        int rgb = color.getRGB();
+        boolean opaque = rgb >>> 24 == 255;
+        for (int i = 0; i < spans.size(); i++) {
+            if (opaque) {
+                raster.fillSpan(spans.getY(i), spans.getX0(i), spans.getX1(i), rgb);
+            } else {
+                raster.blendSpan(spans.getY(i), spans.getX0(i), spans.getX1(i), rgb);
+            }
+        }
+    }
+
+    /**
+     * Replay only the spans that intersect {@code clip}, trimmed to it.
+     */
+    public void render(Raster raster, Rectangle clip) {
+        if (!bounds.intersects(clip)) {
+            return;
+        }
+        int rgb = color.getRGB();
+        boolean opaque = rgb >>> 24 == 255;
+        int clipX1 = clip.x + clip.width - 1;
+        int clipY1 = clip.y + clip.height - 1;
+        for (int i = 0; i < spans.size(); i++) {
+            int y = spans.getY(i);
+            if (y < clip.y || y > clipY1) {
+                continue;
+            }
+            int x0 = Math.max(clip.x, spans.getX0(i));
+            int x1 = Math.min(clipX1, spans.getX1(i));
+            if (x0 > x1) {
+                continue;
+            }
+            if (opaque) {
+                raster.fillSpan(y, x0, x1, rgb);
+            } else {
+                raster.blendSpan(y, x0, x1, rgb);
+            }
+        }
+    }
+
+    /**
+     * Whether the filled area is measured from {@code point}, so that it changes when the point
+     * moves. Span fills are fixed once made.
+     */
+    public boolean hasVertex(Point point) {
+        return false;
+    }
+
+    /**
+     * Union of the bounds of the fills that have {@code point} as a vertex, or null if none does
+     */
+    public static Rectangle getBoundsAt(List<FillOperation> fills, Point point) {
+        Rectangle bounds = null;
+        for (FillOperation fill : fills) {
+            if (fill.hasVertex(point)) {
+                bounds = bounds == null ? fill.getBounds() : bounds.union(fill.getBounds());
+            }
+        }
+        return bounds;
+    }
+
+    /**
+     * Approximate heap footprint in bytes of this operation's pixel data.
+     */
+    public long getMemoryFootprint() {
+        return spans.getMemoryFootprint();
+    }
 }
@@ -3,6 +3,7 @@ package Fillers;
 import models.Point;
 
 import java.awt.*;
+import java.util.ArrayList;
 import java.util.List;
 
 public interface Filler {
@@ -11,4 +12,29 @@ public interface Filler {
             Point click,
             Color fillColor
     );
+
+    /**
+     * Fill like {@link #fill(Point, Color)} but return the filled area as horizontal spans.
+     */
+    default SpanList fillSpans(Point click, Color fillColor) {
+        List<Point> points = new ArrayList<>(fill(click, fillColor));
+        points.sort((a, b) -> a.getY() != b.getY()
+                ? Integer.compare(a.getY(), b.getY())
+                : Integer.compare(a.getX(), b.getX()));
+
+        SpanList spans = new SpanList();
+        int i = 0;
+        while (i < points.size()) {
+            int y = points.get(i).getY();
+            int x0 = points.get(i).getX();
+            int x1 = x0;
+            i++;
+            while (i < points.size() && points.get(i).getY() == y && points.get(i).getX() == x1 + 1) {
+                x1++;
+                i++;
+            }
+            spans.add(y, x0, x1);
+        }
+        return spans;
+    }
 }
@@ -0,0 +1,159 @@
+package Fillers;
+
+import diagnostics.FloodFillEvent;
+import models.Point;
+import rasters.Raster;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Span (scanline) flood fill. Visited pixels are tracked one bit each in 64x64 tiles allocated
+ * as the fill reaches them, so the bookkeeping grows with the filled area rather than with the
+ * raster, and pixel indexes never exceed an int even on a very large {@code TiledRaster}.
+ */
+public class ScanlineFiller implements Filler {
+    private static final int TILE_SHIFT = 6;
+    private static final int TILE_MASK = (1 << TILE_SHIFT) - 1;
+
+    private final Raster raster;
+    private int[] stack = new int[256];
+    private int stackSize;
+
+    public ScanlineFiller(Raster raster) {
+        this.raster = raster;
+    }
+
+    @Override
+    public List<Point> fill(Point click, Color fillColor) {
+        return fillSpans(click, fillColor).toPoints();
+    }
+
+    @Override
+    public SpanList fillSpans(Point click, Color fillColor) {
+        SpanList spans = new SpanList();
+        int width = raster.getWidth();
+        int height = raster.getHeight();
+        if (click.getX() < 0 || click.getX() >= width ||
+                click.getY() < 0 || click.getY() >= height) {
+            return spans;
+        }
+
+        int baseColor = raster.getPixel(click.getX(), click.getY());
+        int color = fillColor.getRGB();
+        if (baseColor == color) {
+            return spans;
+        }
+
+        FloodFillEvent event = new FloodFillEvent();
+        event.begin();
+        long tileCount = (long) tilesAcross(width) * tilesAcross(height);
+        if (tileCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Raster too large to flood fill: " + width + "x" + height);
+        }
+        // One bit per pixel; tile t holds 64 rows of one long each
+        long[][] visited = new long[(int) tileCount][];
+        int tilesX = tilesAcross(width);
+        stackSize = 0;
+        push(click.getX(), click.getY());
+
+        while (stackSize > 0) {
+            stackSize -= 2;
+            int x = stack[stackSize];
+            int y = stack[stackSize + 1];
+            if (isVisited(visited, tilesX, x, y) || raster.getPixel(x, y) != baseColor) {
+                continue;
+            }
+
+            // Grow the seed into the widest run of base colour on this row
+            int x0 = x;
+            while (x0 > 0 && !isVisited(visited, tilesX, x0 - 1, y) && raster.getPixel(x0 - 1, y) == baseColor) {
+                x0--;
+            }
+            int x1 = x;
+            while (x1 < width - 1 && !isVisited(visited, tilesX, x1 + 1, y) && raster.getPixel(x1 + 1, y) == baseColor) {
+                x1++;
+            }
+
+            markVisited(visited, tilesX, y, x0, x1);
+            // Every pixel is visited once, so a translucent colour blends exactly once
+            if (color >>> 24 == 255) {
+                raster.fillSpan(y, x0, x1, color);
+            } else {
+                raster.blendSpan(y, x0, x1, color);
+            }
+            spans.add(y, x0, x1);
+
+            if (y > 0) {
+                pushRuns(visited, tilesX, x0, x1, y - 1, baseColor);
+            }
+            if (y < height - 1) {
+                pushRuns(visited, tilesX, x0, x1, y + 1, baseColor);
+            }
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.filler = getClass().getSimpleName();
+            event.seedX = click.getX();
+            event.seedY = click.getY();
+            event.pixels = spans.getPixelCount();
+            event.commit();
+        }
+        return spans;
+    }
+
+    /**
+     * Push one seed per run of unvisited base-colour pixels of row {@code y} within [x0, x1].
+     */
+    private void pushRuns(long[][] visited, int tilesX, int x0, int x1, int y, int baseColor) {
+        boolean inRun = false;
+        for (int x = x0; x <= x1; x++) {
+            boolean open = !isVisited(visited, tilesX, x, y) && raster.getPixel(x, y) == baseColor;
+            if (open && !inRun) {
+                push(x, y);
+            }
+            inRun = open;
+        }
+    }
+
+    private void push(int x, int y) {
+        if (stackSize + 2 > stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[stackSize++] = x;
+        stack[stackSize++] = y;
+    }
+
+    private static int tilesAcross(int size) {
+        return (size + TILE_MASK) >>> TILE_SHIFT;
+    }
+
+    private static boolean isVisited(long[][] visited, int tilesX, int x, int y) {
+        long[] tile = visited[(y >>> TILE_SHIFT) * tilesX + (x >>> TILE_SHIFT)];
+        return tile != null && (tile[y & TILE_MASK] & (1L << x)) != 0;
+    }
+
+    /**
+     * Mark [x0, x1] of row {@code y}, a word per tile crossed
+     */
+    private static void markVisited(long[][] visited, int tilesX, int y, int x0, int x1) {
+        int tileRow = (y >>> TILE_SHIFT) * tilesX;
+        int word = y & TILE_MASK;
+        int x = x0;
+        while (true) {
+            int t = tileRow + (x >>> TILE_SHIFT);
+            if (visited[t] == null) {
+                visited[t] = new long[1 << TILE_SHIFT];
+            }
+            int end = Math.min(x1, x | TILE_MASK);
+            // Bits x..end of the tile's word; shifts use the low six bits
+            visited[t][word] |= (-1L << x) & (-1L >>> (TILE_MASK - (end & TILE_MASK)));
+            if (end == x1) {
+                return;
+            }
+            x = end + 1;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package Fillers;
+
+import models.Point;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Horizontal pixel runs stored as packed (y, x0, x1) triples, both ends inclusive.
+ */
+public class SpanList {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] data;
+    private int size;
+    private int pixelCount;
+
+    public SpanList() {
+        data = new int[INITIAL_CAPACITY * 3];
+    }
+
+    /**
+     * Wrap already packed (y, x0, x1) triples without copying.
+     */
+    public SpanList(int[] packed, int size) {
+        if (packed.length < size * 3) {
+            throw new IllegalArgumentException("Array holds fewer than " + size + " spans");
+        }
+        data = packed;
+        this.size = size;
+        for (int i = 0; i < size; i++) {
+            pixelCount += getX1(i) - getX0(i) + 1;
+        }
+    }
+
+    public void add(int y, int x0, int x1) {
+        if (size * 3 == data.length) {
+            data = Arrays.copyOf(data, Math.max(INITIAL_CAPACITY * 3, data.length * 2));
+        }
+        int i = size * 3;
+        data[i] = y;
+        data[i + 1] = x0;
+        data[i + 2] = x1;
+        size++;
+        pixelCount += x1 - x0 + 1;
+    }
+
+    /**
+     * Drop unused capacity once the list is complete.
+     */
+    public void trimToSize() {
+        if (data.length > size * 3) {
+            data = Arrays.copyOf(data, size * 3);
+        }
+    }
+
+    /**
+     * Approximate heap footprint in bytes, including the backing array.
+     */
+    public long getMemoryFootprint() {
+        return 16 + 16 + 4L * data.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getPixelCount() {
+        return pixelCount;
+    }
+
+    public int getY(int span) {
+        return data[span * 3];
+    }
+
+    public int getX0(int span) {
+        return data[span * 3 + 1];
+    }
+
+    public int getX1(int span) {
+        return data[span * 3 + 2];
+    }
+
+    /**
+     * Bounding box of all spans, or an empty rectangle if there are none
+     */
+    public Rectangle getBounds() {
+        if (size == 0) {
+            return new Rectangle();
+        }
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            minY = Math.min(minY, getY(i));
+            maxY = Math.max(maxY, getY(i));
+            minX = Math.min(minX, getX0(i));
+            maxX = Math.max(maxX, getX1(i));
+        }
+        return new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+    }
+
+    /**
+     * Copy the packed (y, x0, x1) triples into {@code dst} starting at {@code offset}.
+     */
+    public void copyTo(int[] dst, int offset) {
+        System.arraycopy(data, 0, dst, offset, size * 3);
+    }
+
+    public List<Point> toPoints() {
+        List<Point> points = new ArrayList<>(pixelCount);
+        for (int i = 0; i < size; i++) {
+            int y = getY(i);
+            for (int x = getX0(i); x <= getX1(i); x++) {
+                points.add(new Point(x, y));
+            }
+        }
+        return points;
+    }
+}
@@ -0,0 +1,124 @@
+import models.Scene;
+import rasterizers.SceneRasterizer;
+import rasters.OffHeapRaster;
+import rasters.PngStripWriter;
+import rasters.Raster;
+import rasters.RasterDataBuffer;
+import scenes.SceneTextReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders scene description files (see {@link SceneTextReader}) to PNG without any AWT display.
+ * <pre>
+ * HeadlessRenderer [--threads N] [--out DIR] [--offheap] scene.txt...
+ * </pre>
+ * Each scene is written next to its input as {@code <name>.png}, or into {@code --out}.
+ * Scenes are rendered concurrently, each worker thread reusing its own raster; with
+ * {@code --offheap} those rasters are {@link OffHeapRaster}s outside the Java heap. The PNG is
+ * written in strips of rows, so no image of the whole raster is needed at any size.
+ */
+public class HeadlessRenderer {
+    private static final ThreadLocal<Raster> RASTER = new ThreadLocal<>();
+
+    public static void main(String[] args) throws InterruptedException {
+        System.setProperty("java.awt.headless", "true");
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path outDir = null;
+        boolean offHeap = false;
+        List<Path> inputs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--out" -> outDir = Path.of(args[++i]);
+                case "--offheap" -> offHeap = true;
+                default -> inputs.add(Path.of(args[i]));
+            }
+        }
+        if (inputs.isEmpty()) {
+            System.err.println("Usage: HeadlessRenderer [--threads N] [--out DIR] [--offheap] scene.txt...");
+            System.exit(2);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, inputs.size())));
+        AtomicInteger failures = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        boolean useOffHeap = offHeap;
+        for (Path input : inputs) {
+            Path output = outputFor(input, outDir);
+            futures.add(executor.submit(() -> {
+                try {
+                    render(input, output, useOffHeap);
+                } catch (IOException | RuntimeException e) {
+                    failures.incrementAndGet();
+                    System.err.println(input + ": " + e.getMessage());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (java.util.concurrent.ExecutionException e) {
+                failures.incrementAndGet();
+            }
+        }
+        executor.shutdown();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        int rendered = inputs.size() - failures.get();
+        System.out.printf("Rendered %d of %d scenes in %.3f s (%.1f scenes/s, %d threads)%n",
+                rendered, inputs.size(), seconds, rendered / seconds, threads);
+        if (failures.get() > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Render one scene file to a PNG, reusing this thread's raster
+     *
+     * @param offHeap whether to render into an {@link OffHeapRaster} instead of a heap raster
+     */
+    public static void render(Path input, Path output, boolean offHeap) throws IOException {
+        Scene scene;
+        try (BufferedReader in = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+            scene = SceneTextReader.read(in, (width, height) -> rasterFor(width, height, offHeap));
+        }
+        Raster raster = rasterFor(scene.getWidth(), scene.getHeight(), offHeap);
+        SceneRasterizer sceneRasterizer = new SceneRasterizer(raster);
+        sceneRasterizer.setClearColor(scene.getClearColor());
+        sceneRasterizer.rasterize(scene.getCanvas(), scene.getFillOperations());
+        PngStripWriter.write(raster, output);
+    }
+
+    /**
+     * This thread's raster, reallocated only when the size or the kind changes
+     */
+    private static Raster rasterFor(int width, int height, boolean offHeap) {
+        Raster raster = RASTER.get();
+        if (raster == null || raster.getWidth() != width || raster.getHeight() != height
+                || raster instanceof OffHeapRaster != offHeap) {
+            raster = offHeap ? new OffHeapRaster(width, height) : new RasterDataBuffer(width, height);
+            RASTER.set(raster);
+        }
+        return raster;
+    }
+
+    private static Path outputFor(Path input, Path outDir) {
+        String name = input.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String png = (dot > 0 ? name.substring(0, dot) : name) + ".png";
+        return outDir != null ? outDir.resolve(png) : input.resolveSibling(png);
+    }
+}
@@ -0,0 +1,31 @@
+package commands;
+
+import Fillers.FillOperation;
+import models.LineCanvas;
+import models.Shape;
+
+import java.awt.*;
+import java.util.List;
+
+public class AddShapeCommand implements Command {
+    private final Shape shape;
+
+    public AddShapeCommand(Shape shape) {
+        this.shape = shape;
+    }
+
+    @Override
+    public void apply(LineCanvas canvas, List<FillOperation> fillOperations) {
+        canvas.addShape(shape);
+    }
+
+    @Override
+    public void revert(LineCanvas canvas, List<FillOperation> fillOperations) {
+        canvas.removeShape(shape);
+    }
+
+    @Override
+    public Rectangle getBounds() {
+        return shape.getBounds();
+    }
+}
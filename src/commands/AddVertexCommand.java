@@ -0,0 +1,42 @@
+package commands;
+
+import Fillers.FillOperation;
+import models.LineCanvas;
+import models.Point;
+import models.Polyline;
+
+import java.awt.*;
+import java.util.List;
+
+/**
+ * Appends a vertex to a polyline or polygon already in the scene.
+ */
+public class AddVertexCommand implements Command {
+    private final Polyline polyline;
+    private final Point point;
+
+    public AddVertexCommand(Polyline polyline, Point point) {
+        this.polyline = polyline;
+        this.point = point;
+    }
+
+    @Override
+    public void apply(LineCanvas canvas, List<FillOperation> fillOperations) {
+        polyline.addVertex(point);
+    }
+
+    @Override
+    public void revert(LineCanvas canvas, List<FillOperation> fillOperations) {
+        polyline.removeLastVertex();
+    }
+
+    @Override
+    public Rectangle getBounds() {
+        // Every edge touching the new vertex, including a replaced closing edge, lies in the
+        // hull of the other vertices and the new one
+        int half = Math.max(0, (polyline.getThickness() - 1) / 2);
+        Rectangle bounds = new Rectangle(point.getX() - half, point.getY() - half, 2 * half + 1, 2 * half + 1);
+        Rectangle outline = polyline.getBounds();
+        return outline.isEmpty() ? bounds : bounds.union(outline);
+    }
+}
@@ -0,0 +1,45 @@
+package commands;
+
+import Fillers.FillOperation;
+import models.Line;
+import models.LineCanvas;
+import models.Shape;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ClearCommand implements Command {
+    private List<Line> lines = List.of();
+    private List<Line> dottedLines = List.of();
+    private int[] linePositions = new int[0];
+    private int[] dottedLinePositions = new int[0];
+    private List<Shape> shapes = List.of();
+    private int[] shapePositions = new int[0];
+    private List<FillOperation> fills = List.of();
+
+    @Override
+    public void apply(LineCanvas canvas, List<FillOperation> fillOperations) {
+        lines = new ArrayList<>(canvas.getLines());
+        dottedLines = new ArrayList<>(canvas.getDottedLines());
+        // Lines and shapes removed before the clear go back between these on undo, so keep their positions
+        linePositions = canvas.getLinePositions();
+        dottedLinePositions = canvas.getDottedLinePositions();
+        shapes = new ArrayList<>(canvas.getShapes());
+        shapePositions = canvas.getShapePositions();
+        fills = new ArrayList<>(fillOperations);
+        canvas.clear();
+        fillOperations.clear();
+    }
+
+    @Override
+    public void revert(LineCanvas canvas, List<FillOperation> fillOperations) {
+        canvas.insertAll(lines, linePositions, dottedLines, dottedLinePositions, shapes, shapePositions);
+        fillOperations.addAll(fills);
+    }
+
+    @Override
+    public Rectangle getBounds() {
+        return null;
+    }
+}
@@ -0,0 +1,22 @@
+package commands;
+
+import Fillers.FillOperation;
+import models.LineCanvas;
+
+import java.awt.*;
+import java.util.List;
+
+/**
+ * A reversible scene edit. Commands are applied and reverted strictly in history order, so
+ * {@link #revert} always sees the scene exactly as {@link #apply} left it.
+ */
+public interface Command {
+    void apply(LineCanvas canvas, List<FillOperation> fillOperations);
+
+    void revert(LineCanvas canvas, List<FillOperation> fillOperations);
+
+    /**
+     * Pixels that can differ between the scene before and after this command, or null for the whole canvas.
+     */
+    Rectangle getBounds();
+}
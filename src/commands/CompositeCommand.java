@@ -0,0 +1,47 @@
+package commands;
+
+import Fillers.FillOperation;
+import models.LineCanvas;
+
+import java.awt.*;
+import java.util.List;
+
+/**
+ * Several commands undone and redone as one step, e.g. every split of a rubber stroke.
+ */
+public class CompositeCommand implements Command {
+    private final List<Command> commands;
+
+    public CompositeCommand(List<Command> commands) {
+        this.commands = List.copyOf(commands);
+    }
+
+    @Override
+    public void apply(LineCanvas canvas, List<FillOperation> fillOperations) {
+        for (Command command : commands) {
+            command.apply(canvas, fillOperations);
+        }
+    }
+
+    @Override
+    public void revert(LineCanvas canvas, List<FillOperation> fillOperations) {
+        for (int i = commands.size() - 1; i >= 0; i--) {
+            commands.get(i).revert(canvas, fillOperations);
+        }
+    }
+
+    @Override
+    public Rectangle getBounds() {
+        Rectangle bounds = null;
+        for (Command command : commands) {
+            Rectangle part = command.getBounds();
+            if (part == null) {
+                return null;
+            }
+            if (!part.isEmpty()) {
+                bounds = bounds == null ? part : bounds.union(part);
+            }
+        }
+        return bounds == null ? new Rectangle() : bounds;
+    }
+}
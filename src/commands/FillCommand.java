@@ -0,0 +1,33 @@
+package commands;
+
+import Fillers.FillOperation;
+import models.LineCanvas;
+
+import java.awt.*;
+import java.util.List;
+
+public class FillCommand implements Command {
+    private final FillOperation fill;
+
+    public FillCommand(FillOperation fill) {
+        this.fill = fill;
+    }
+
+    @Override
+    public void apply(LineCanvas canvas, List<FillOperation> fillOperations) {
+        fillOperations.add(fill);
+    }
+
+    @Override
+    public void revert(LineCanvas canvas, List<FillOperation> fillOperations) {
+        int index = fillOperations.lastIndexOf(fill);
+        if (index >= 0) {
+            fillOperations.remove(index);
+        }
+    }
+
+    @Override
+    public Rectangle getBounds() {
+        return fill.getBounds();
+    }
+}
@@ -0,0 +1,229 @@
+package commands;
+
+import Fillers.FillOperation;
+import models.LineCanvas;
+import rasters.RasterSnapshot;
+import renderers.LayeredRenderer;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Undo/redo log of scene commands with compressed checkpoints of the rendered base layer.
+ * <p>
+ * Undo and redo revert or re-apply one command on the model, then bring the base layer up to
+ * date the cheaper of two ways: re-render the command's bounds, or restore the nearest
+ * checkpoint at or before the new state and re-render only what the commands since that
+ * checkpoint touched. A checkpoint is taken every {@code checkpointInterval} commands, so the
+ * second path replays at most that many commands however long the history is, which keeps
+ * undoing a canvas-wide fill as fast as undoing a single line. Commands that change the whole
+ * canvas, like clear, get a checkpoint of the state before them. Once checkpoints exceed
+ * {@code checkpointBudget} bytes the oldest periodic ones are dropped first.
+ */
+public class History {
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 16;
+    public static final long DEFAULT_CHECKPOINT_BUDGET = 64L << 20;
+
+    private final LineCanvas canvas;
+    private final List<FillOperation> fillOperations;
+    private final LayeredRenderer renderer;
+    private final int checkpointInterval;
+    private final long checkpointBudget;
+    private final ArrayList<Command> commands = new ArrayList<>();
+    // Ordered by state
+    private final ArrayList<Checkpoint> checkpoints = new ArrayList<>();
+    private long checkpointBytes;
+    // Number of commands currently applied; commands after it can be redone
+    private int cursor;
+    private boolean checkpointing = true;
+
+    private static final class Checkpoint {
+        private final int state;
+        private final RasterSnapshot snapshot;
+        private final boolean beforeWholeCanvas;
+
+        private Checkpoint(int state, RasterSnapshot snapshot, boolean beforeWholeCanvas) {
+            this.state = state;
+            this.snapshot = snapshot;
+            this.beforeWholeCanvas = beforeWholeCanvas;
+        }
+    }
+
+    public History(LineCanvas canvas, List<FillOperation> fillOperations, LayeredRenderer renderer) {
+        this(canvas, fillOperations, renderer, DEFAULT_CHECKPOINT_INTERVAL, DEFAULT_CHECKPOINT_BUDGET);
+    }
+
+    public History(LineCanvas canvas, List<FillOperation> fillOperations, LayeredRenderer renderer,
+                   int checkpointInterval, long checkpointBudget) {
+        if (checkpointInterval < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive: " + checkpointInterval);
+        }
+        this.canvas = canvas;
+        this.fillOperations = fillOperations;
+        this.renderer = renderer;
+        this.checkpointInterval = checkpointInterval;
+        this.checkpointBudget = checkpointBudget;
+    }
+
+    /**
+     * Apply a command, invalidate what it changed and record it; the caller renders.
+     */
+    public void perform(Command command) {
+        Rectangle bounds = command.getBounds();
+        if (bounds == null) {
+            checkpoint(true);
+        }
+        command.apply(canvas, fillOperations);
+        if (bounds == null) {
+            renderer.invalidate();
+        } else {
+            renderer.invalidate(bounds);
+        }
+        record(command);
+    }
+
+    /**
+     * Add a command that has already been applied to the scene and rendered. Discards anything
+     * that could have been redone.
+     */
+    public void record(Command command) {
+        commands.subList(cursor, commands.size()).clear();
+        dropCheckpointsAfter(cursor);
+        commands.add(command);
+        cursor++;
+        if (cursor % checkpointInterval == 0) {
+            checkpoint(false);
+        }
+    }
+
+    public boolean canUndo() {
+        return cursor > 0;
+    }
+
+    public boolean canRedo() {
+        return cursor < commands.size();
+    }
+
+    /**
+     * Revert the last applied command and invalidate what it changed; the caller renders.
+     */
+    public boolean undo() {
+        if (!canUndo()) {
+            return false;
+        }
+        Command command = commands.get(cursor - 1);
+        command.revert(canvas, fillOperations);
+        cursor--;
+        invalidate(command.getBounds());
+        return true;
+    }
+
+    /**
+     * Re-apply the next undone command and invalidate what it changed; the caller renders.
+     */
+    public boolean redo() {
+        if (!canRedo()) {
+            return false;
+        }
+        Command command = commands.get(cursor);
+        command.apply(canvas, fillOperations);
+        cursor++;
+        invalidate(command.getBounds());
+        return true;
+    }
+
+    /**
+     * Forget all commands, e.g. after a different scene was opened.
+     */
+    public void clear() {
+        commands.clear();
+        cursor = 0;
+        dropCheckpointsAfter(-1);
+        checkpoint(false);
+    }
+
+    /**
+     * Stop taking checkpoints while the scene changes outside the history (a streaming load).
+     * Re-enabling drops the stale ones and checkpoints the current state.
+     */
+    public void setCheckpointing(boolean enabled) {
+        checkpointing = enabled;
+        dropCheckpointsAfter(-1);
+        checkpoint(false);
+    }
+
+    public int size() {
+        return commands.size();
+    }
+
+    public long getCheckpointBytes() {
+        return checkpointBytes;
+    }
+
+    private void checkpoint(boolean beforeWholeCanvas) {
+        if (!checkpointing || checkpointBudget <= 0) {
+            return;
+        }
+        renderer.render();
+        dropCheckpointsAfter(cursor - 1);
+        Checkpoint checkpoint = new Checkpoint(cursor, RasterSnapshot.capture(renderer.getBase()), beforeWholeCanvas);
+        checkpoints.add(checkpoint);
+        checkpointBytes += checkpoint.snapshot.getMemoryFootprint();
+        while (checkpointBytes > checkpointBudget && !checkpoints.isEmpty()) {
+            int victim = 0;
+            for (int i = 0; i < checkpoints.size(); i++) {
+                if (!checkpoints.get(i).beforeWholeCanvas) {
+                    victim = i;
+                    break;
+                }
+            }
+            checkpointBytes -= checkpoints.remove(victim).snapshot.getMemoryFootprint();
+        }
+    }
+
+    private void dropCheckpointsAfter(int state) {
+        while (!checkpoints.isEmpty() && checkpoints.get(checkpoints.size() - 1).state > state) {
+            checkpointBytes -= checkpoints.remove(checkpoints.size() - 1).snapshot.getMemoryFootprint();
+        }
+    }
+
+    private void invalidate(Rectangle changed) {
+        Checkpoint nearest = null;
+        for (int i = checkpoints.size() - 1; i >= 0 && nearest == null; i--) {
+            if (checkpoints.get(i).state <= cursor) {
+                nearest = checkpoints.get(i);
+            }
+        }
+        if (nearest != null) {
+            long limit = changed == null ? Long.MAX_VALUE : area(changed);
+            Rectangle replay = null;
+            boolean cheaper = true;
+            for (int i = nearest.state; i < cursor && cheaper; i++) {
+                Rectangle bounds = commands.get(i).getBounds();
+                if (bounds == null) {
+                    cheaper = false;
+                } else if (!bounds.isEmpty()) {
+                    replay = replay == null ? bounds : replay.union(bounds);
+                    cheaper = area(replay) < limit;
+                }
+            }
+            if (cheaper && (replay == null || area(replay) < limit)) {
+                renderer.restoreBase(nearest.snapshot);
+                if (replay != null) {
+                    renderer.invalidate(replay);
+                }
+                return;
+            }
+        }
+        if (changed == null) {
+            renderer.invalidate();
+        } else {
+            renderer.invalidate(changed);
+        }
+    }
+
+    private static long area(Rectangle r) {
+        return (long) r.width * r.height;
+    }
+}
@@ -0,0 +1,48 @@
+package commands;
+
+import Fillers.FillOperation;
+import models.LineCanvas;
+import models.Point;
+
+import java.awt.*;
+import java.util.List;
+
+/**
+ * Moves a shared line endpoint, shape vertex or polygon fill vertex. Built once the drag is over, with the point
+ * already at its new position and the pixels the move touched measured by the caller.
+ */
+public class MoveVertexCommand implements Command {
+    private final Point point;
+    private final int fromX;
+    private final int fromY;
+    private final int toX;
+    private final int toY;
+    private final Rectangle bounds;
+
+    /**
+     * @param bounds pixels covered by the primitives using {@code point} before and after the move, or null
+     */
+    public MoveVertexCommand(Point point, int fromX, int fromY, Rectangle bounds) {
+        this.point = point;
+        this.fromX = fromX;
+        this.fromY = fromY;
+        toX = point.getX();
+        toY = point.getY();
+        this.bounds = bounds == null ? new Rectangle() : new Rectangle(bounds);
+    }
+
+    @Override
+    public void apply(LineCanvas canvas, List<FillOperation> fillOperations) {
+        canvas.movePoint(point, toX, toY);
+    }
+
+    @Override
+    public void revert(LineCanvas canvas, List<FillOperation> fillOperations) {
+        canvas.movePoint(point, fromX, fromY);
+    }
+
+    @Override
+    public Rectangle getBounds() {
+        return new Rectangle(bounds);
+    }
+}
@@ -0,0 +1,79 @@
+package commands;
+
+import Fillers.FillOperation;
+import models.Line;
+import models.LineCanvas;
+
+import java.awt.*;
+import java.util.List;
+
+/**
+ * Removes some lines and appends others, all solid or all dotted. Covers drawing lines and
+ * shapes, splitting a line with the rubber and moving a polygon's closing edge. Removed lines
+ * go back to their original drawing-order position on revert.
+ */
+public class ReplaceLinesCommand implements Command {
+    private final List<Line> removed;
+    private final List<Line> added;
+    private final boolean dotted;
+    private final int[] removedIndices;
+    private final Rectangle bounds;
+
+    public ReplaceLinesCommand(List<Line> removed, List<Line> added, boolean dotted) {
+        this.removed = List.copyOf(removed);
+        this.added = List.copyOf(added);
+        this.dotted = dotted;
+        removedIndices = new int[removed.size()];
+        Rectangle union = null;
+        for (List<Line> lines : List.of(this.removed, this.added)) {
+            for (Line line : lines) {
+                union = union == null ? line.getBounds() : union.union(line.getBounds());
+            }
+        }
+        bounds = union == null ? new Rectangle() : union;
+    }
+
+    public static ReplaceLinesCommand adding(List<Line> lines, boolean dotted) {
+        return new ReplaceLinesCommand(List.of(), lines, dotted);
+    }
+
+    @Override
+    public void apply(LineCanvas canvas, List<FillOperation> fillOperations) {
+        for (int i = 0; i < removed.size(); i++) {
+            removedIndices[i] = dotted ? canvas.removeDottedLine(removed.get(i)) : canvas.removeLine(removed.get(i));
+        }
+        for (Line line : added) {
+            if (dotted) {
+                canvas.addDottedLine(line);
+            } else {
+                canvas.add(line);
+            }
+        }
+    }
+
+    @Override
+    public void revert(LineCanvas canvas, List<FillOperation> fillOperations) {
+        for (int i = added.size() - 1; i >= 0; i--) {
+            if (dotted) {
+                canvas.removeDottedLine(added.get(i));
+            } else {
+                canvas.removeLine(added.get(i));
+            }
+        }
+        for (int i = removed.size() - 1; i >= 0; i--) {
+            if (removedIndices[i] < 0) {
+                continue;
+            }
+            if (dotted) {
+                canvas.insertDottedLine(removedIndices[i], removed.get(i));
+            } else {
+                canvas.insertLine(removedIndices[i], removed.get(i));
+            }
+        }
+    }
+
+    @Override
+    public Rectangle getBounds() {
+        return new Rectangle(bounds);
+    }
+}
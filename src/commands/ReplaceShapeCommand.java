@@ -0,0 +1,53 @@
+package commands;
+
+import Fillers.FillOperation;
+import models.LineCanvas;
+import models.Shape;
+
+import java.awt.*;
+import java.util.List;
+
+/**
+ * Removes a shape and appends the pieces that replace it, e.g. the polylines left after the
+ * rubber cuts a polygon. The removed shape goes back to its original drawing-order position on
+ * revert; a polygon fill in the fill history keeps its polygon either way.
+ */
+public class ReplaceShapeCommand implements Command {
+    private final Shape removed;
+    private final List<Shape> added;
+    private int removedPosition = -1;
+    private final Rectangle bounds;
+
+    public ReplaceShapeCommand(Shape removed, List<Shape> added) {
+        this.removed = removed;
+        this.added = List.copyOf(added);
+        Rectangle union = removed.getBounds();
+        for (Shape shape : this.added) {
+            union = union.union(shape.getBounds());
+        }
+        bounds = union;
+    }
+
+    @Override
+    public void apply(LineCanvas canvas, List<FillOperation> fillOperations) {
+        removedPosition = canvas.removeShape(removed);
+        for (Shape shape : added) {
+            canvas.addShape(shape);
+        }
+    }
+
+    @Override
+    public void revert(LineCanvas canvas, List<FillOperation> fillOperations) {
+        for (int i = added.size() - 1; i >= 0; i--) {
+            canvas.removeShape(added.get(i));
+        }
+        if (removedPosition >= 0) {
+            canvas.insertShape(removedPosition, removed);
+        }
+    }
+
+    @Override
+    public Rectangle getBounds() {
+        return new Rectangle(bounds);
+    }
+}
@@ -0,0 +1,29 @@
+package diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Replay of the stored fill operations while the base layer is re-rendered.
+ */
+@Name("draw.FillReplay")
+@Label("Fill Replay")
+@Category({"Draw", "Rendering"})
+@Description("Fill operations replayed into the base layer")
+@StackTrace(false)
+public class FillReplayEvent extends Event {
+    @Label("Fills")
+    public int fills;
+
+    @Label("Pixels Written")
+    @Description("Overdraw included")
+    public long pixels;
+
+    @Label("Clipped")
+    @Description("Whether only a dirty rectangle was re-rendered")
+    public boolean clipped;
+}
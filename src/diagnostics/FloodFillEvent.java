@@ -0,0 +1,34 @@
+package diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One flood fill from a seed pixel.
+ */
+@Name("draw.FloodFill")
+@Label("Flood Fill")
+@Category({"Draw", "Editing"})
+@Description("Flood fill from a clicked pixel")
+@StackTrace(false)
+public class FloodFillEvent extends Event {
+    @Label("Filler")
+    public String filler;
+
+    @Label("Seed X")
+    public int seedX;
+
+    @Label("Seed Y")
+    public int seedY;
+
+    @Label("Pixels Filled")
+    public long pixels;
+
+    @Label("Aborted")
+    @Description("Whether the fill stopped at the filler's size limit")
+    public boolean aborted;
+}
@@ -0,0 +1,36 @@
+package diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One frame presented by the render thread. The event spans composing the damaged area into the
+ * back buffer; {@link #busy} covers the whole frame, scene edits and base layer renders included.
+ */
+@Name("draw.Frame")
+@Label("Frame")
+@Category({"Draw", "Rendering"})
+@Description("Frame composed and presented by the render thread")
+@StackTrace(false)
+public class FrameEvent extends Event {
+    @Label("Damage Width")
+    public int damageWidth;
+
+    @Label("Damage Height")
+    public int damageHeight;
+
+    @Label("Busy Time")
+    @Description("Render thread time spent on the frame, waiting for the frame interval excluded")
+    @Timespan(Timespan.NANOSECONDS)
+    public long busy;
+
+    @Label("Input Latency")
+    @Description("From the oldest input the frame answers to presenting it")
+    @Timespan(Timespan.NANOSECONDS)
+    public long latency;
+}
@@ -0,0 +1,37 @@
+package diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Rasterization of the committed lines and shapes while the base layer is re-rendered.
+ */
+@Name("draw.LineRasterization")
+@Label("Line Rasterization")
+@Category({"Draw", "Rendering"})
+@Description("Lines, dotted lines and shapes drawn into the base layer")
+@StackTrace(false)
+public class LineRasterizationEvent extends Event {
+    @Label("Lines Drawn")
+    @Description("Solid and dotted segments drawn")
+    public int lines;
+
+    @Label("Shapes Drawn")
+    public int shapes;
+
+    @Label("Pixels Written")
+    @Description("Overdraw included")
+    public long pixels;
+
+    @Label("Clipped")
+    @Description("Whether only a dirty rectangle was re-rendered")
+    public boolean clipped;
+
+    @Label("Parallel")
+    @Description("Whether tiles were rasterized on several threads")
+    public boolean parallel;
+}
@@ -0,0 +1,32 @@
+package diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Splitting the lines and shapes under the rubber at one pointer position.
+ */
+@Name("draw.RubberSplit")
+@Label("Rubber Split")
+@Category({"Draw", "Editing"})
+@Description("Lines and shapes near the rubber looked up and split")
+@StackTrace(false)
+public class RubberSplitEvent extends Event {
+    @Label("X")
+    public int x;
+
+    @Label("Y")
+    public int y;
+
+    @Label("Candidates")
+    @Description("Lines and shapes whose bounds were near enough to be tested")
+    public int candidates;
+
+    @Label("Lines Split")
+    @Description("Lines and shapes split or removed")
+    public int splits;
+}
@@ -0,0 +1,15 @@
+package models;
+
+/**
+ * Footprint of the brush a line is drawn with, stamped at every step of the line.
+ */
+public enum BrushShape {
+    /**
+     * Square of side {@code 2h + 1}, for half size {@code h}
+     */
+    SQUARE,
+    /**
+     * Pixels within {@code h + 1/2} of the centre, so strokes keep their width at every angle
+     */
+    ROUND
+}
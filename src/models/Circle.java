@@ -0,0 +1,40 @@
+package models;
+
+import java.awt.*;
+
+/**
+ * Circle outline of a given stroke thickness, centred on a (possibly shared) point.
+ */
+public class Circle extends Ellipse {
+
+    public Circle(Point center, int radius, Color color, int thickness) {
+        super(center, radius, radius, color, thickness);
+    }
+
+    /**
+     * Circle centred on {@code center} that passes through {@code edge}.
+     */
+    public static Circle through(Point center, Point edge, Color color, int thickness) {
+        long dx = edge.getX() - center.getX();
+        long dy = edge.getY() - center.getY();
+        return new Circle(center, (int) Math.sqrt(dx * dx + dy * dy), color, thickness);
+    }
+
+    public int getRadius() {
+        return getRadiusX();
+    }
+
+    /**
+     * Radius of the outer edge of the stroke
+     */
+    public int getOuterRadius() {
+        return getOuterRadiusX();
+    }
+
+    /**
+     * Radius of the inner edge of the stroke, 0 when the stroke covers the centre
+     */
+    public int getInnerRadius() {
+        return getInnerRadiusX();
+    }
+}
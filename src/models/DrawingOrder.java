@@ -0,0 +1,92 @@
+package models;
+
+import java.util.List;
+
+/**
+ * Cursor over a {@link LineCanvas}'s solid lines, dotted lines and shapes merged into drawing
+ * order by the keys they share, skipping removed line slots. Obtained from
+ * {@link LineCanvas#drawingOrder()}; the canvas must not change while it is walked.
+ */
+public class DrawingOrder {
+    public enum Kind { SOLID, DOTTED, SHAPE }
+
+    private final SegmentStore lines;
+    private final SegmentStore dottedLines;
+    private final List<Shape> shapes;
+    private int lineSlot;
+    private int dottedSlot;
+    private int shapeIndex;
+    private Kind kind;
+    private int index = -1;
+
+    DrawingOrder(SegmentStore lines, SegmentStore dottedLines, List<Shape> shapes) {
+        this.lines = lines;
+        this.dottedLines = dottedLines;
+        this.shapes = shapes;
+        lineSlot = skipRemoved(lines, 0);
+        dottedSlot = skipRemoved(dottedLines, 0);
+    }
+
+    /**
+     * Step to the next primitive.
+     *
+     * @return false once every primitive has been visited
+     */
+    public boolean next() {
+        int line = lineSlot < lines.getSlotCount() ? lines.getPosition(lineSlot) : Integer.MAX_VALUE;
+        int dotted = dottedSlot < dottedLines.getSlotCount() ? dottedLines.getPosition(dottedSlot) : Integer.MAX_VALUE;
+        int shape = shapeIndex < shapes.size() ? shapes.get(shapeIndex).position : Integer.MAX_VALUE;
+        if (line == Integer.MAX_VALUE && dotted == Integer.MAX_VALUE && shape == Integer.MAX_VALUE) {
+            kind = null;
+            index = -1;
+            return false;
+        }
+        if (line < dotted && line < shape) {
+            kind = Kind.SOLID;
+            index = lineSlot;
+            lineSlot = skipRemoved(lines, lineSlot + 1);
+        } else if (dotted < shape) {
+            kind = Kind.DOTTED;
+            index = dottedSlot;
+            dottedSlot = skipRemoved(dottedLines, dottedSlot + 1);
+        } else {
+            kind = Kind.SHAPE;
+            index = shapeIndex++;
+        }
+        return true;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Slot of the current line in its {@link SegmentStore}, or index of the current shape in
+     * {@link LineCanvas#getShapes()}
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Store holding the current line, or null for a shape
+     */
+    public SegmentStore getStore() {
+        return kind == Kind.SOLID ? lines : kind == Kind.DOTTED ? dottedLines : null;
+    }
+
+    public Line getLine() {
+        return getStore().getLine(index);
+    }
+
+    public Shape getShape() {
+        return shapes.get(index);
+    }
+
+    private static int skipRemoved(SegmentStore store, int slot) {
+        while (slot < store.getSlotCount() && store.isRemoved(slot)) {
+            slot++;
+        }
+        return slot;
+    }
+}
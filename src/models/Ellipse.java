@@ -0,0 +1,66 @@
+package models;
+
+import java.awt.*;
+import java.util.List;
+
+/**
+ * Axis-aligned ellipse outline of a given stroke thickness, centred on a (possibly shared) point.
+ */
+public class Ellipse extends Shape {
+    private final Point center;
+    private final int radiusX;
+    private final int radiusY;
+
+    public Ellipse(Point center, int radiusX, int radiusY, Color color, int thickness) {
+        super(color, thickness);
+        this.center = center;
+        this.radiusX = radiusX;
+        this.radiusY = radiusY;
+    }
+
+    public Point getCenter() {
+        return center;
+    }
+
+    public int getRadiusX() {
+        return radiusX;
+    }
+
+    public int getRadiusY() {
+        return radiusY;
+    }
+
+    /**
+     * Semi-axes of the outer edge of the stroke
+     */
+    public int getOuterRadiusX() {
+        return radiusX + getHalfThickness();
+    }
+
+    public int getOuterRadiusY() {
+        return radiusY + getHalfThickness();
+    }
+
+    /**
+     * Semi-axes of the inner edge of the stroke, 0 when the stroke covers the centre
+     */
+    public int getInnerRadiusX() {
+        return Math.max(0, radiusX - getThickness() / 2);
+    }
+
+    public int getInnerRadiusY() {
+        return Math.max(0, radiusY - getThickness() / 2);
+    }
+
+    @Override
+    public List<Point> getVertices() {
+        return List.of(center);
+    }
+
+    @Override
+    protected Rectangle computeBounds() {
+        int outerX = getOuterRadiusX();
+        int outerY = getOuterRadiusY();
+        return new Rectangle(center.getX() - outerX, center.getY() - outerY, 2 * outerX + 1, 2 * outerY + 1);
+    }
+}
@@ -0,0 +1,15 @@
+package models;
+
+/**
+ * Which points a self-intersecting or nested polygon outline encloses.
+ */
+public enum FillRule {
+    /**
+     * Inside when a ray from the point crosses the outline an odd number of times
+     */
+    EVEN_ODD,
+    /**
+     * Inside when the outline winds around the point a non-zero number of times
+     */
+    NON_ZERO
+}
@@ -7,12 +7,21 @@ public class Line {
 	private Point point2;
 	private Color color;
 	private int thickness;
+	private BrushShape brush;
+	// The SegmentStore that last took this line and the line's handle there
+	SegmentStore owner;
+	int handle = -1;
 
 	public Line(Point point1, Point point2, Color color, int thickness) {
+		this(point1, point2, color, thickness, BrushShape.SQUARE);
+	}
+
+	public Line(Point point1, Point point2, Color color, int thickness, BrushShape brush) {
 		this.point1 = point1;
 		this.point2 = point2;
 		this.color = color;
 		this.thickness = thickness;
+		this.brush = brush;
 	}
 
 	public Point getPoint1() {
@@ -27,5 +36,20 @@ public class Line {
 	public int getThickness(){
 		return thickness;
 	}
+	public BrushShape getBrush(){
+		return brush;
+	}
+
+	/**
+	 * Pixel bounds of the rasterized line, including its thickness
+	 */
+	public Rectangle getBounds() {
+		int halfThickness = Math.max(0, (thickness - 1) / 2);
+		int minX = Math.min(point1.getX(), point2.getX()) - halfThickness;
+		int minY = Math.min(point1.getY(), point2.getY()) - halfThickness;
+		int maxX = Math.max(point1.getX(), point2.getX()) + halfThickness;
+		int maxY = Math.max(point1.getY(), point2.getY()) + halfThickness;
+		return new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+	}
 
 }
@@ -1,39 +1,529 @@
 package models;
 
+import java.awt.*;
 import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * The editable scene: solid lines, dotted lines and shapes. All three share one sequence of
+ * drawing-order keys, so anything added is drawn above everything already there, whatever its
+ * kind; {@link #drawingOrder()} walks them merged in that order.
+ */
 public class LineCanvas {
-    private ArrayList<Line> lines;
-    private ArrayList<Line> dottedLines;
+    private final SegmentStore lines = new SegmentStore();
+    private final SegmentStore dottedLines = new SegmentStore();
+    private final ArrayList<Shape> shapes = new ArrayList<>();
+    private final SegmentGrid lineIndex = new SegmentGrid();
+    private final SegmentGrid dottedLineIndex = new SegmentGrid();
+    // The index is built on the first query, so bulk loads into an empty canvas skip it
+    private boolean indexed;
+    // Next drawing-order key; never reset, so positions kept for undo stay valid after clear()
+    private int nextOrder;
 
     public LineCanvas(ArrayList<Line> lines, ArrayList<Line> dottedLines) {
-        this.lines = new ArrayList<>(lines);
-        this.dottedLines = new ArrayList<>(dottedLines);
+        for (Line line : lines) {
+            this.lines.add(line, nextOrder++);
+        }
+        for (Line line : dottedLines) {
+            this.dottedLines.add(line, nextOrder++);
+        }
+    }
+
+    /**
+     * Solid lines in drawing order, as a read-only view.
+     */
+    public List<Line> getLines(){
+        return lines.asList();
     }
-    public ArrayList<Line> getLines(){
+
+    /**
+     * Dotted lines in drawing order, as a read-only view.
+     */
+    public List<Line> getDottedLines(){
+        return dottedLines.asList();
+    }
+
+    /**
+     * Solid line storage for rasterizers. Modify only through this class so the index stays in sync.
+     */
+    public SegmentStore getLineStore() {
         return lines;
     }
-    public ArrayList<Line> getDottedLines(){
+
+    public SegmentStore getDottedLineStore() {
         return dottedLines;
     }
+    /**
+     * Shapes in drawing order among themselves; {@link #drawingOrder()} interleaves them with
+     * the lines. Modify only through this class.
+     */
+    public ArrayList<Shape> getShapes() {
+        return shapes;
+    }
+
+    /**
+     * A cursor over every line and shape in drawing order
+     */
+    public DrawingOrder drawingOrder() {
+        return new DrawingOrder(lines, dottedLines, shapes);
+    }
+
     public void add(Line line) {
-        this.lines.add(line);
+        this.lines.add(line, nextOrder++);
+        if (indexed) {
+            lineIndex.insert(line);
+        }
     }
     public void addDottedLine(Line line) {
-        this.dottedLines.add(line);
+        this.dottedLines.add(line, nextOrder++);
+        if (indexed) {
+            dottedLineIndex.insert(line);
+        }
     }
     public void clearLines() {
         this.lines.clear();
+        lineIndex.clear();
     }
-    public void removeLine(Line line) {
-        if (this.lines.contains(line)) {
-        this.lines.remove(line);
+    public void clear() {
+        clearLines();
+        this.shapes.clear();
+        this.dottedLines.clear();
+        dottedLineIndex.clear();
+        indexed = false;
+    }
+    /**
+     * @return the line's drawing-order position for {@link #insertLine}, or -1 if it was not there
+     */
+    public int removeLine(Line line) {
+        return remove(lines, indexed ? lineIndex : null, line);
+    }
+
+    /**
+     * @return the line's drawing-order position for {@link #insertDottedLine}, or -1 if it was not there
+     */
+    public int removeDottedLine(Line line) {
+        return remove(dottedLines, indexed ? dottedLineIndex : null, line);
+    }
+
+    /**
+     * Put a line back at a drawing-order position returned by {@link #removeLine}.
+     */
+    public void insertLine(int position, Line line) {
+        this.lines.insert(position, line);
+        if (indexed) {
+            lineIndex.insert(line);
         }
     }
-    public void removeDottedLine(Line line) {
-        if (this.dottedLines.contains(line)) {
-            this.dottedLines.remove(line);
+
+    public void insertDottedLine(int position, Line line) {
+        this.dottedLines.insert(position, line);
+        if (indexed) {
+            dottedLineIndex.insert(line);
         }
     }
-}
 
+    /**
+     * Drawing-order positions of {@link #getLines()}, for putting them back after {@link #clear()}
+     */
+    public int[] getLinePositions() {
+        return positions(lines);
+    }
+
+    public int[] getDottedLinePositions() {
+        return positions(dottedLines);
+    }
+
+    /**
+     * Drawing-order positions of {@link #getShapes()}
+     */
+    public int[] getShapePositions() {
+        int[] positions = new int[shapes.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = shapes.get(i).position;
+        }
+        return positions;
+    }
+
+    /**
+     * Put back lines and shapes at the drawing-order positions they had, e.g. to undo
+     * {@link #clear()}. Into an empty canvas this defers indexing to the next query.
+     */
+    public void insertAll(List<Line> lines, int[] positions, List<Line> dottedLines, int[] dottedPositions,
+                          List<Shape> shapes, int[] shapePositions) {
+        if (this.lines.isEmpty() && this.dottedLines.isEmpty()) {
+            lineIndex.clear();
+            dottedLineIndex.clear();
+            indexed = false;
+        }
+        for (int i = 0; i < lines.size(); i++) {
+            insertLine(positions[i], lines.get(i));
+        }
+        for (int i = 0; i < dottedLines.size(); i++) {
+            insertDottedLine(dottedPositions[i], dottedLines.get(i));
+        }
+        for (int i = 0; i < shapes.size(); i++) {
+            insertShape(shapePositions[i], shapes.get(i));
+        }
+    }
+
+    /**
+     * Add everything in {@code other} on top, keeping its drawing order. Its lines and shapes
+     * then belong to this canvas; {@code other} is no longer usable.
+     */
+    public void appendAll(LineCanvas other) {
+        DrawingOrder order = other.drawingOrder();
+        while (order.next()) {
+            switch (order.getKind()) {
+                case SOLID -> add(order.getLine());
+                case DOTTED -> addDottedLine(order.getLine());
+                case SHAPE -> addShape(order.getShape());
+            }
+        }
+    }
+
+    public void addShape(Shape shape) {
+        shape.position = nextOrder++;
+        this.shapes.add(shape);
+    }
+
+    /**
+     * @return the shape's drawing-order position for {@link #insertShape}, or -1 if it was not there
+     */
+    public int removeShape(Shape shape) {
+        int index = shapeIndex(shape.position);
+        if (index < 0 || shapes.get(index) != shape) {
+            return -1;
+        }
+        shapes.remove(index);
+        return shape.position;
+    }
+
+    /**
+     * Put a shape back at a drawing-order position returned by {@link #removeShape}.
+     */
+    public void insertShape(int position, Shape shape) {
+        int index = shapeIndex(position);
+        if (index >= 0) {
+            throw new IllegalArgumentException("Position " + position + " is taken");
+        }
+        shape.position = position;
+        shapes.add(-index - 1, shape);
+    }
+
+    public boolean isDottedLine(Line line) {
+        return dottedLines.contains(line);
+    }
+
+    /**
+     * Move a shared vertex, re-indexing every line and refreshing the bounds of every shape
+     * attached to it.
+     *
+     * @return the solid and dotted lines that use {@code point}
+     */
+    public List<Line> movePoint(Point point, int x, int y) {
+        ensureIndexed();
+        List<Line> solid = lineIndex.findLinesAt(point);
+        List<Line> dotted = dottedLineIndex.findLinesAt(point);
+        for (Line line : solid) {
+            lineIndex.remove(line);
+        }
+        for (Line line : dotted) {
+            dottedLineIndex.remove(line);
+        }
+        List<Shape> attached = findShapesAt(point);
+        point.setX(x);
+        point.setY(y);
+        for (Shape shape : attached) {
+            shape.invalidateBounds();
+        }
+        for (Line line : solid) {
+            lines.update(line);
+            lineIndex.insert(line);
+        }
+        for (Line line : dotted) {
+            dottedLines.update(line);
+            dottedLineIndex.insert(line);
+        }
+        solid.addAll(dotted);
+        return solid;
+    }
+
+    /**
+     * Solid and dotted lines that use {@code point} as an endpoint
+     */
+    public List<Line> findLinesAt(Point point) {
+        ensureIndexed();
+        List<Line> result = lineIndex.findLinesAt(point);
+        result.addAll(dottedLineIndex.findLinesAt(point));
+        return result;
+    }
+
+    /**
+     * Shapes that use {@code point} as a vertex
+     */
+    public List<Shape> findShapesAt(Point point) {
+        List<Shape> result = new ArrayList<>();
+        for (Shape shape : shapes) {
+            // A vertex always lies inside its shape's bounds
+            if (shape.boundsContain(point.getX(), point.getY()) && shape.hasVertex(point)) {
+                result.add(shape);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Topmost polygon that encloses pixel [x,y] under {@code rule}, or null
+     */
+    public Polygon findPolygonAt(int x, int y, FillRule rule) {
+        for (int i = shapes.size() - 1; i >= 0; i--) {
+            if (shapes.get(i) instanceof Polygon polygon && polygon.boundsContain(x, y)
+                    && polygon.contains(x, y, rule)) {
+                return polygon;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Whether a line or another shape's outline runs through the interior of {@code polygon}
+     * under {@code rule}, so that it may split the polygon into regions a flood fill tells apart.
+     * Strokes that only touch the outline, such as lines sharing a vertex, do not count; an
+     * ellipse counts unless it misses the polygon's bounds or encloses them.
+     */
+    public boolean hasStrokesInside(Polygon polygon, FillRule rule) {
+        if (polygon.getVertexCount() < 3) {
+            return false;
+        }
+        Rectangle bounds = polygon.getBounds();
+        for (SegmentStore store : List.of(lines, dottedLines)) {
+            for (int slot = 0; slot < store.getSlotCount(); slot++) {
+                if (!store.isRemoved(slot) && store.intersects(slot, bounds) && entersPolygon(polygon, rule,
+                        store.getX1(slot), store.getY1(slot), store.getX2(slot), store.getY2(slot))) {
+                    return true;
+                }
+            }
+        }
+        for (Shape shape : shapes) {
+            if (shape == polygon || !shape.intersects(bounds)) {
+                continue;
+            }
+            if (shape instanceof Ellipse ellipse) {
+                if (!enclosesBounds(ellipse, bounds)) {
+                    return true;
+                }
+                continue;
+            }
+            List<Point> vertices = shape instanceof Rect rect
+                    ? List.of(rect.getCorner1(), new Point(rect.getCorner2().getX(), rect.getCorner1().getY()),
+                            rect.getCorner2(), new Point(rect.getCorner1().getX(), rect.getCorner2().getY()))
+                    : shape.getVertices();
+            boolean closed = !(shape instanceof Polyline polyline) || polyline.isClosed();
+            int count = vertices.size();
+            for (int i = closed ? 0 : 1; i < count; i++) {
+                Point from = vertices.get(i == 0 ? count - 1 : i - 1);
+                Point to = vertices.get(i);
+                if (entersPolygon(polygon, rule, from.getX(), from.getY(), to.getX(), to.getY())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Union of the pixel bounds of everything attached to {@code point}, or null if nothing is
+     */
+    public Rectangle getBoundsAt(Point point) {
+        Rectangle bounds = null;
+        for (Line line : findLinesAt(point)) {
+            bounds = bounds == null ? line.getBounds() : bounds.union(line.getBounds());
+        }
+        for (Shape shape : findShapesAt(point)) {
+            bounds = bounds == null ? shape.getBounds() : bounds.union(shape.getBounds());
+        }
+        return bounds;
+    }
+
+    public List<Line> findLinesWithin(int x, int y, double radius) {
+        ensureIndexed();
+        return lineIndex.findLinesWithin(x, y, radius);
+    }
+
+    public List<Line> findDottedLinesWithin(int x, int y, double radius) {
+        ensureIndexed();
+        return dottedLineIndex.findLinesWithin(x, y, radius);
+    }
+
+    /**
+     * Shapes whose pixel bounds come within {@code radius} of [x,y], in drawing order
+     */
+    public List<Shape> findShapesWithin(int x, int y, double radius) {
+        int reach = (int) Math.ceil(radius);
+        Rectangle area = new Rectangle(x - reach, y - reach, 2 * reach + 1, 2 * reach + 1);
+        List<Shape> result = new ArrayList<>();
+        for (Shape shape : shapes) {
+            if (shape.intersects(area)) {
+                result.add(shape);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Nearest line endpoint or shape vertex strictly within {@code radius} of [x,y], or null
+     */
+    public Point findNearestVertex(int x, int y, double radius) {
+        ensureIndexed();
+        Point nearest = nearer(lineIndex.findNearestVertex(x, y, radius),
+                dottedLineIndex.findNearestVertex(x, y, radius), x, y);
+        int reach = (int) Math.ceil(radius);
+        Rectangle area = new Rectangle(x - reach, y - reach, 2 * reach + 1, 2 * reach + 1);
+        for (Shape shape : shapes) {
+            if (!shape.intersects(area)) {
+                continue;
+            }
+            for (Point vertex : shape.getVertices()) {
+                if (distanceSquared(vertex, x, y) < radius * radius) {
+                    nearest = nearer(nearest, vertex, x, y);
+                }
+            }
+        }
+        return nearest;
+    }
+
+    private static Point nearer(Point a, Point b, int x, int y) {
+        if (a == null || b == null) {
+            return a != null ? a : b;
+        }
+        return distanceSquared(a, x, y) <= distanceSquared(b, x, y) ? a : b;
+    }
+
+    private void ensureIndexed() {
+        if (!indexed) {
+            lineIndex.clear();
+            dottedLineIndex.clear();
+            for (Line line : lines.asList()) {
+                lineIndex.insert(line);
+            }
+            for (Line line : dottedLines.asList()) {
+                dottedLineIndex.insert(line);
+            }
+            indexed = true;
+        }
+    }
+
+    /**
+     * Index of the shape with drawing-order key {@code position}, or {@code -(insertion point) - 1}
+     */
+    private int shapeIndex(int position) {
+        int low = 0;
+        int high = shapes.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int key = shapes.get(mid).position;
+            if (key < position) {
+                low = mid + 1;
+            } else if (key > position) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -low - 1;
+    }
+
+    private static int[] positions(SegmentStore store) {
+        int[] positions = new int[store.size()];
+        int count = 0;
+        for (int slot = 0; slot < store.getSlotCount(); slot++) {
+            if (!store.isRemoved(slot)) {
+                positions[count++] = store.getPosition(slot);
+            }
+        }
+        return positions;
+    }
+
+    private static int remove(SegmentStore store, SegmentGrid index, Line line) {
+        int position = store.remove(line);
+        if (position >= 0 && index != null) {
+            index.remove(line);
+        }
+        return position;
+    }
+
+    /**
+     * Whether segment [x1,y1]-[x2,y2] has an endpoint or its midpoint strictly inside
+     * {@code polygon}, or properly crosses one of its edges
+     */
+    private static boolean entersPolygon(Polygon polygon, FillRule rule, int x1, int y1, int x2, int y2) {
+        if (isInterior(polygon, rule, x1, y1) || isInterior(polygon, rule, x2, y2)
+                || isInterior(polygon, rule, (x1 + x2) >> 1, (y1 + y2) >> 1)) {
+            return true;
+        }
+        Point previous = polygon.getVertex(polygon.getVertexCount() - 1);
+        for (Point next : polygon.getVertices()) {
+            long a = cross(x1, y1, x2, y2, previous.getX(), previous.getY());
+            long b = cross(x1, y1, x2, y2, next.getX(), next.getY());
+            long c = cross(previous.getX(), previous.getY(), next.getX(), next.getY(), x1, y1);
+            long d = cross(previous.getX(), previous.getY(), next.getX(), next.getY(), x2, y2);
+            if (Long.signum(a) * Long.signum(b) < 0 && Long.signum(c) * Long.signum(d) < 0) {
+                return true;
+            }
+            previous = next;
+        }
+        return false;
+    }
+
+    /**
+     * Inside {@code polygon} and not on its outline
+     */
+    private static boolean isInterior(Polygon polygon, FillRule rule, int x, int y) {
+        if (!polygon.boundsContain(x, y) || !polygon.contains(x, y, rule)) {
+            return false;
+        }
+        Point previous = polygon.getVertex(polygon.getVertexCount() - 1);
+        for (Point next : polygon.getVertices()) {
+            if (cross(previous.getX(), previous.getY(), next.getX(), next.getY(), x, y) == 0
+                    && x >= Math.min(previous.getX(), next.getX()) && x <= Math.max(previous.getX(), next.getX())
+                    && y >= Math.min(previous.getY(), next.getY()) && y <= Math.max(previous.getY(), next.getY())) {
+                return false;
+            }
+            previous = next;
+        }
+        return true;
+    }
+
+    /**
+     * Whether every corner of {@code bounds} lies strictly inside the ellipse's inner edge
+     */
+    private static boolean enclosesBounds(Ellipse ellipse, Rectangle bounds) {
+        long rx = ellipse.getInnerRadiusX();
+        long ry = ellipse.getInnerRadiusY();
+        if (rx <= 0 || ry <= 0) {
+            return false;
+        }
+        int[] xs = {bounds.x, bounds.x + bounds.width - 1};
+        int[] ys = {bounds.y, bounds.y + bounds.height - 1};
+        for (int x : xs) {
+            for (int y : ys) {
+                long dx = x - ellipse.getCenter().getX();
+                long dy = y - ellipse.getCenter().getY();
+                if (dx * dx * ry * ry + dy * dy * rx * rx >= rx * rx * ry * ry) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static long cross(int x1, int y1, int x2, int y2, int x, int y) {
+        return (long) (x2 - x1) * (y - y1) - (long) (y2 - y1) * (x - x1);
+    }
+
+    private static long distanceSquared(Point p, int x, int y) {
+        long dx = p.getX() - x;
+        long dy = p.getY() - y;
+        return dx * dx + dy * dy;
+    }
+}
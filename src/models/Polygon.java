@@ -0,0 +1,61 @@
+package models;
+
+import java.awt.*;
+import java.util.List;
+
+/**
+ * Closed outline: a {@link Polyline} whose last vertex joins back to the first once it has at
+ * least three vertices. Filling it adds a vector fill to the fill history that keeps the polygon
+ * and is rasterized from its vertices, so it follows vertex edits.
+ */
+public class Polygon extends Polyline {
+
+    public Polygon(List<Point> vertices, Color color, int thickness) {
+        super(vertices, color, thickness);
+    }
+
+    @Override
+    public boolean isClosed() {
+        return true;
+    }
+
+    /**
+     * Whether pixel [x,y] is inside under {@code rule}, with the same sampling as the fill
+     * rasterizer: an edge counts on rows [top, bottom) and crosses row y left of or at pixel x.
+     */
+    public boolean contains(int x, int y, FillRule rule) {
+        int count = getVertexCount();
+        if (count < 3) {
+            return false;
+        }
+        int winding = 0;
+        Point previous = getVertex(count - 1);
+        for (int i = 0; i < count; i++) {
+            Point next = getVertex(i);
+            int x0 = previous.getX();
+            int y0 = previous.getY();
+            int x1 = next.getX();
+            int y1 = next.getY();
+            previous = next;
+            int direction = 1;
+            if (y0 > y1) {
+                int temp = x0;
+                x0 = x1;
+                x1 = temp;
+                temp = y0;
+                y0 = y1;
+                y1 = temp;
+                direction = -1;
+            }
+            if (y < y0 || y >= y1) {
+                continue;
+            }
+            // Crossing at x0 + (x1 - x0) (y - y0) / (y1 - y0) <= x, multiplied out
+            long dy = y1 - y0;
+            if ((long) x0 * dy + (long) (x1 - x0) * (y - y0) <= (long) x * dy) {
+                winding += direction;
+            }
+        }
+        return rule == FillRule.EVEN_ODD ? (winding & 1) != 0 : winding != 0;
+    }
+}
@@ -0,0 +1,70 @@
+package models;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Open chain of edges through (possibly shared) vertices, drawn with the solid line brush.
+ */
+public class Polyline extends Shape {
+    private final ArrayList<Point> vertices;
+    private final List<Point> view;
+
+    public Polyline(List<Point> vertices, Color color, int thickness) {
+        super(color, thickness);
+        this.vertices = new ArrayList<>(vertices);
+        view = Collections.unmodifiableList(this.vertices);
+    }
+
+    /**
+     * Whether an edge joins the last vertex back to the first
+     */
+    public boolean isClosed() {
+        return false;
+    }
+
+    @Override
+    public List<Point> getVertices() {
+        return view;
+    }
+
+    public int getVertexCount() {
+        return vertices.size();
+    }
+
+    public Point getVertex(int index) {
+        return vertices.get(index);
+    }
+
+    public void addVertex(Point point) {
+        vertices.add(point);
+        invalidateBounds();
+    }
+
+    public Point removeLastVertex() {
+        Point removed = vertices.remove(vertices.size() - 1);
+        invalidateBounds();
+        return removed;
+    }
+
+    @Override
+    protected Rectangle computeBounds() {
+        if (vertices.isEmpty()) {
+            return new Rectangle();
+        }
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (Point p : vertices) {
+            minX = Math.min(minX, p.getX());
+            minY = Math.min(minY, p.getY());
+            maxX = Math.max(maxX, p.getX());
+            maxY = Math.max(maxY, p.getY());
+        }
+        int half = getHalfThickness();
+        return new Rectangle(minX - half, minY - half, maxX - minX + 2 * half + 1, maxY - minY + 2 * half + 1);
+    }
+}
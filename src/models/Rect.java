@@ -0,0 +1,67 @@
+package models;
+
+import java.awt.*;
+import java.util.List;
+
+/**
+ * Axis-aligned rectangle outline between two opposite (possibly shared) corner points.
+ */
+public class Rect extends Shape {
+    private final Point corner1;
+    private final Point corner2;
+
+    public Rect(Point corner1, Point corner2, Color color, int thickness) {
+        super(color, thickness);
+        this.corner1 = corner1;
+        this.corner2 = corner2;
+    }
+
+    /**
+     * Square with corner {@code corner} whose side is the larger of the horizontal and vertical
+     * distances to {@code drag}, extending towards {@code drag}.
+     */
+    public static Rect square(Point corner, Point drag, Color color, int thickness) {
+        int side = squareSide(corner, drag);
+        Point opposite = new Point(squareOpposite(corner.getX(), drag.getX(), side),
+                squareOpposite(corner.getY(), drag.getY(), side));
+        return new Rect(corner, opposite, color, thickness);
+    }
+
+    /**
+     * Side length of the square {@link #square} builds
+     */
+    public static int squareSide(Point corner, Point drag) {
+        return Math.max(Math.abs(drag.getX() - corner.getX()), Math.abs(drag.getY() - corner.getY()));
+    }
+
+    /**
+     * One coordinate of the square's opposite corner: {@code side} away from {@code corner},
+     * towards {@code drag}
+     */
+    public static int squareOpposite(int corner, int drag, int side) {
+        return drag < corner ? corner - side : corner + side;
+    }
+
+    public Point getCorner1() {
+        return corner1;
+    }
+
+    public Point getCorner2() {
+        return corner2;
+    }
+
+    @Override
+    public List<Point> getVertices() {
+        return List.of(corner1, corner2);
+    }
+
+    @Override
+    protected Rectangle computeBounds() {
+        int half = getHalfThickness();
+        int minX = Math.min(corner1.getX(), corner2.getX()) - half;
+        int minY = Math.min(corner1.getY(), corner2.getY()) - half;
+        int maxX = Math.max(corner1.getX(), corner2.getX()) + half;
+        int maxY = Math.max(corner1.getY(), corner2.getY()) + half;
+        return new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+    }
+}
@@ -0,0 +1,49 @@
+package models;
+
+import Fillers.FillOperation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Everything needed to render a drawing: canvas size, clear colour, lines and fill history.
+ */
+public class Scene {
+    private final int width;
+    private final int height;
+    private final int clearColor;
+    private final LineCanvas canvas;
+    private final List<FillOperation> fillOperations;
+
+    public Scene(int width, int height, int clearColor) {
+        this(width, height, clearColor, new LineCanvas(new ArrayList<>(), new ArrayList<>()), new ArrayList<>());
+    }
+
+    public Scene(int width, int height, int clearColor, LineCanvas canvas, List<FillOperation> fillOperations) {
+        this.width = width;
+        this.height = height;
+        this.clearColor = clearColor;
+        this.canvas = canvas;
+        this.fillOperations = fillOperations;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getClearColor() {
+        return clearColor;
+    }
+
+    public LineCanvas getCanvas() {
+        return canvas;
+    }
+
+    public List<FillOperation> getFillOperations() {
+        return fillOperations;
+    }
+}
@@ -0,0 +1,183 @@
+package models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Uniform grid over line segments. Each segment is registered in every cell its centre line
+ * passes through, so point and radius queries only look at nearby segments.
+ * <p>
+ * Endpoints are mutable, so the grid remembers where each segment was inserted; call
+ * {@link #remove(Line)} before moving an endpoint and {@link #insert(Line)} after.
+ */
+public class SegmentGrid {
+    private static final int CELL_SIZE = 64;
+
+    private final Map<Long, ArrayList<Line>> cells = new HashMap<>();
+    private final Map<Line, int[]> inserted = new IdentityHashMap<>();
+
+    public void insert(Line line) {
+        int[] coords = {
+                line.getPoint1().getX(), line.getPoint1().getY(),
+                line.getPoint2().getX(), line.getPoint2().getY()
+        };
+        if (inserted.put(line, coords) != null) {
+            throw new IllegalStateException("Line is already indexed");
+        }
+        forEachCell(coords, key -> cells.computeIfAbsent(key, k -> new ArrayList<>()).add(line));
+    }
+
+    public void remove(Line line) {
+        int[] coords = inserted.remove(line);
+        if (coords == null) {
+            return;
+        }
+        forEachCell(coords, key -> {
+            ArrayList<Line> cell = cells.get(key);
+            if (cell != null) {
+                cell.remove(line);
+                if (cell.isEmpty()) {
+                    cells.remove(key);
+                }
+            }
+        });
+    }
+
+    public boolean contains(Line line) {
+        return inserted.containsKey(line);
+    }
+
+    public void clear() {
+        cells.clear();
+        inserted.clear();
+    }
+
+    /**
+     * Segments having {@code point} itself (not just an equal point) as an endpoint
+     */
+    public List<Line> findLinesAt(Point point) {
+        List<Line> result = new ArrayList<>();
+        ArrayList<Line> cell = cells.get(key(Math.floorDiv(point.getX(), CELL_SIZE), Math.floorDiv(point.getY(), CELL_SIZE)));
+        if (cell != null) {
+            for (Line line : cell) {
+                if (line.getPoint1() == point || line.getPoint2() == point) {
+                    result.add(line);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Segments whose centre line passes within {@code radius} of [x,y]
+     */
+    public List<Line> findLinesWithin(int x, int y, double radius) {
+        List<Line> result = new ArrayList<>();
+        double radiusSquared = radius * radius;
+        for (Line line : candidates(x, y, radius)) {
+            if (distanceSquared(x, y, line) <= radiusSquared) {
+                result.add(line);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Endpoint closest to [x,y] that is strictly nearer than {@code radius}, or null
+     */
+    public Point findNearestVertex(int x, int y, double radius) {
+        Point nearest = null;
+        double best = radius * radius;
+        for (Line line : candidates(x, y, radius)) {
+            for (Point p : new Point[]{line.getPoint1(), line.getPoint2()}) {
+                double dx = p.getX() - x;
+                double dy = p.getY() - y;
+                double d = dx * dx + dy * dy;
+                if (d < best) {
+                    best = d;
+                    nearest = p;
+                }
+            }
+        }
+        return nearest;
+    }
+
+    private Set<Line> candidates(int x, int y, double radius) {
+        Set<Line> result = Collections.newSetFromMap(new IdentityHashMap<>());
+        int r = (int) Math.ceil(radius);
+        int cx0 = Math.floorDiv(x - r, CELL_SIZE);
+        int cx1 = Math.floorDiv(x + r, CELL_SIZE);
+        int cy0 = Math.floorDiv(y - r, CELL_SIZE);
+        int cy1 = Math.floorDiv(y + r, CELL_SIZE);
+        for (int cx = cx0; cx <= cx1; cx++) {
+            for (int cy = cy0; cy <= cy1; cy++) {
+                ArrayList<Line> cell = cells.get(key(cx, cy));
+                if (cell != null) {
+                    result.addAll(cell);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static double distanceSquared(int x, int y, Line line) {
+        double x1 = line.getPoint1().getX();
+        double y1 = line.getPoint1().getY();
+        double dx = line.getPoint2().getX() - x1;
+        double dy = line.getPoint2().getY() - y1;
+        double t = 0;
+        double lengthSquared = dx * dx + dy * dy;
+        if (lengthSquared > 0) {
+            t = Math.max(0, Math.min(1, ((x - x1) * dx + (y - y1) * dy) / lengthSquared));
+        }
+        double ex = x1 + t * dx - x;
+        double ey = y1 + t * dy - y;
+        return ex * ex + ey * ey;
+    }
+
+    /**
+     * Visit every cell crossed by the segment, column by column.
+     */
+    private static void forEachCell(int[] coords, CellVisitor visitor) {
+        int x1 = coords[0], y1 = coords[1], x2 = coords[2], y2 = coords[3];
+        if (x1 > x2) {
+            int temp = x1;
+            x1 = x2;
+            x2 = temp;
+            temp = y1;
+            y1 = y2;
+            y2 = temp;
+        }
+        int cx0 = Math.floorDiv(x1, CELL_SIZE);
+        int cx1 = Math.floorDiv(x2, CELL_SIZE);
+        for (int cx = cx0; cx <= cx1; cx++) {
+            int columnStart = Math.max(x1, cx * CELL_SIZE);
+            int columnEnd = Math.min(x2, cx * CELL_SIZE + CELL_SIZE - 1);
+            double ya = y1;
+            double yb = y2;
+            if (x1 != x2) {
+                ya = y1 + (double) (y2 - y1) * (columnStart - x1) / (x2 - x1);
+                yb = y1 + (double) (y2 - y1) * (columnEnd - x1) / (x2 - x1);
+            }
+            // Widen by a pixel so rounding can never drop a cell the segment touches
+            int cy0 = Math.floorDiv((int) Math.floor(Math.min(ya, yb)) - 1, CELL_SIZE);
+            int cy1 = Math.floorDiv((int) Math.ceil(Math.max(ya, yb)) + 1, CELL_SIZE);
+            for (int cy = cy0; cy <= cy1; cy++) {
+                visitor.visit(key(cx, cy));
+            }
+        }
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+
+    private interface CellVisitor {
+        void visit(long key);
+    }
+}
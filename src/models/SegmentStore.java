@@ -0,0 +1,419 @@
+package models;
+
+import java.awt.*;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Line segments in drawing order, stored as parallel primitive arrays so rasterizers can walk
+ * coordinates, packed ARGB colours, thicknesses and brushes without touching the {@link Line} and
+ * {@link Point} objects. The {@code Line} passed in is kept as the segment's identity and is what
+ * {@link #asList()} hands back.
+ * <p>
+ * Each segment has a stable handle. Removal is O(1): the slot is only flagged, so drawing order
+ * is untouched and a removed segment can later be revived in place. Slots are compacted by
+ * {@link #remove} once most of them are removed, preserving order; reads never move them. Endpoint coordinates are copies; after moving a
+ * shared {@link Point}, call {@link #update(Line)} for every segment that uses it.
+ * <p>
+ * A line belongs to the store that took it last; handing it to a second store while the first
+ * still holds it is not supported.
+ */
+public class SegmentStore {
+    public static final byte FLAG_REMOVED = 1;
+    public static final byte FLAG_ROUND = 2;
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MIN_COMPACT_REMOVED = 64;
+
+    private int[] x1 = new int[INITIAL_CAPACITY];
+    private int[] y1 = new int[INITIAL_CAPACITY];
+    private int[] x2 = new int[INITIAL_CAPACITY];
+    private int[] y2 = new int[INITIAL_CAPACITY];
+    private int[] color = new int[INITIAL_CAPACITY];
+    private int[] thickness = new int[INITIAL_CAPACITY];
+    private byte[] flags = new byte[INITIAL_CAPACITY];
+    // Drawing-order key of each slot, strictly increasing across slots
+    private int[] order = new int[INITIAL_CAPACITY];
+    private int[] handleOf = new int[INITIAL_CAPACITY];
+    private Line[] lines = new Line[INITIAL_CAPACITY];
+    private int slots;
+    private int removed;
+    private int nextOrder;
+    // Bumped whenever slots are added, removed, revived or moved
+    private int version;
+
+    // Handle -> slot, or -1 for a free handle; free handles are chained through nextFree
+    private int[] slotOf = new int[INITIAL_CAPACITY];
+    private int[] nextFree = new int[INITIAL_CAPACITY];
+    private int handles;
+    private int freeHandle = -1;
+
+    private final LineList view = new LineList();
+
+    /**
+     * Number of slots, removed ones included. Iterate {@code [0, getSlotCount())} and skip
+     * slots where {@link #isRemoved(int)}.
+     */
+    public int getSlotCount() {
+        return slots;
+    }
+
+    /**
+     * Number of segments that are not removed
+     */
+    public int size() {
+        return slots - removed;
+    }
+
+    public boolean isEmpty() {
+        return slots == removed;
+    }
+
+    public boolean isRemoved(int slot) {
+        return (flags[slot] & FLAG_REMOVED) != 0;
+    }
+
+    public int getX1(int slot) {
+        return x1[slot];
+    }
+
+    public int getY1(int slot) {
+        return y1[slot];
+    }
+
+    public int getX2(int slot) {
+        return x2[slot];
+    }
+
+    public int getY2(int slot) {
+        return y2[slot];
+    }
+
+    public int getColor(int slot) {
+        return color[slot];
+    }
+
+    public int getThickness(int slot) {
+        return thickness[slot];
+    }
+
+    public BrushShape getBrush(int slot) {
+        return (flags[slot] & FLAG_ROUND) != 0 ? BrushShape.ROUND : BrushShape.SQUARE;
+    }
+
+    /**
+     * Whether the pixel bounds of a segment, thickness included, overlap {@code clip}; the same
+     * test as {@code getLine(slot).getBounds().intersects(clip)} without allocating.
+     */
+    public boolean intersects(int slot, Rectangle clip) {
+        int half = Math.max(0, (thickness[slot] - 1) / 2);
+        return !clip.isEmpty()
+                && Math.min(x1[slot], x2[slot]) - half < clip.x + clip.width
+                && Math.max(x1[slot], x2[slot]) + half >= clip.x
+                && Math.min(y1[slot], y2[slot]) - half < clip.y + clip.height
+                && Math.max(y1[slot], y2[slot]) + half >= clip.y;
+    }
+
+    public Line getLine(int slot) {
+        return lines[slot];
+    }
+
+    /**
+     * Drawing-order position of a slot, as accepted by {@link #insert}
+     */
+    public int getPosition(int slot) {
+        return order[slot];
+    }
+
+    public int getHandle(int slot) {
+        return handleOf[slot];
+    }
+
+    /**
+     * Current slot of a handle, or -1 if the handle is not in use
+     */
+    public int getSlot(int handle) {
+        return handle >= 0 && handle < handles ? slotOf[handle] : -1;
+    }
+
+    /**
+     * Append a segment on top of all others.
+     *
+     * @return its handle
+     */
+    public int add(Line line) {
+        return add(line, nextOrder);
+    }
+
+    /**
+     * Append a segment on top of all others with a drawing-order key chosen by the caller, e.g.
+     * one shared with other primitives; it must be above every key in the store.
+     *
+     * @return its handle
+     */
+    public int add(Line line, int position) {
+        if (slots > 0 && position <= order[slots - 1]) {
+            throw new IllegalArgumentException("Position " + position + " is not above " + order[slots - 1]);
+        }
+        ensureCapacity(slots + 1);
+        int slot = slots++;
+        version++;
+        int handle = allocateHandle(slot);
+        set(slot, line, position, handle);
+        nextOrder = Math.max(nextOrder, position + 1);
+        return handle;
+    }
+
+    /**
+     * Remove a segment, leaving the others in place.
+     *
+     * @return the segment's drawing-order position for {@link #insert}, or -1 if it was not here
+     */
+    public int remove(Line line) {
+        int slot = find(line);
+        if (slot < 0) {
+            return -1;
+        }
+        int position = order[slot];
+        flags[slot] |= FLAG_REMOVED;
+        removed++;
+        version++;
+        if (removed >= MIN_COMPACT_REMOVED && removed > slots / 2) {
+            compact();
+        }
+        return position;
+    }
+
+    /**
+     * Put a segment back at a drawing-order position returned by {@link #remove} or
+     * {@link #getPosition}. A segment that was not compacted away since is revived in place.
+     */
+    public void insert(int position, Line line) {
+        int slot = slotOrInsertionPoint(position);
+        if (slot >= 0) {
+            if (lines[slot] == line && isRemoved(slot)) {
+                flags[slot] &= ~FLAG_REMOVED;
+                removed--;
+                version++;
+                line.owner = this;
+                line.handle = handleOf[slot];
+                return;
+            }
+            throw new IllegalArgumentException("Position " + position + " is taken");
+        }
+        slot = -slot - 1;
+        ensureCapacity(slots + 1);
+        int tail = slots - slot;
+        for (int[] column : new int[][]{x1, y1, x2, y2, color, thickness, order, handleOf}) {
+            System.arraycopy(column, slot, column, slot + 1, tail);
+        }
+        System.arraycopy(flags, slot, flags, slot + 1, tail);
+        System.arraycopy(lines, slot, lines, slot + 1, tail);
+        slots++;
+        version++;
+        for (int i = slot + 1; i < slots; i++) {
+            slotOf[handleOf[i]] = i;
+        }
+        set(slot, line, position, allocateHandle(slot));
+    }
+
+    /**
+     * Re-read the endpoints of a segment after one of its points moved.
+     */
+    public void update(Line line) {
+        int slot = find(line);
+        if (slot >= 0) {
+            x1[slot] = line.getPoint1().getX();
+            y1[slot] = line.getPoint1().getY();
+            x2[slot] = line.getPoint2().getX();
+            y2[slot] = line.getPoint2().getY();
+        }
+    }
+
+    public boolean contains(Line line) {
+        return find(line) >= 0;
+    }
+
+    public void clear() {
+        Arrays.fill(lines, 0, slots, null);
+        slots = 0;
+        removed = 0;
+        version++;
+        handles = 0;
+        freeHandle = -1;
+    }
+
+    /**
+     * Live segments in drawing order, as an unmodifiable list backed by this store.
+     */
+    public List<Line> asList() {
+        return view;
+    }
+
+    private void set(int slot, Line line, int position, int handle) {
+        x1[slot] = line.getPoint1().getX();
+        y1[slot] = line.getPoint1().getY();
+        x2[slot] = line.getPoint2().getX();
+        y2[slot] = line.getPoint2().getY();
+        color[slot] = line.getColor().getRGB();
+        thickness[slot] = line.getThickness();
+        flags[slot] = line.getBrush() == BrushShape.ROUND ? FLAG_ROUND : 0;
+        order[slot] = position;
+        handleOf[slot] = handle;
+        lines[slot] = line;
+        line.owner = this;
+        line.handle = handle;
+    }
+
+    /**
+     * Live slot holding {@code line}, or -1
+     */
+    private int find(Line line) {
+        if (line.owner != this) {
+            return -1;
+        }
+        int slot = getSlot(line.handle);
+        return slot >= 0 && lines[slot] == line && !isRemoved(slot) ? slot : -1;
+    }
+
+    /**
+     * Slot with the given drawing-order key, or {@code -(insertion point) - 1}
+     */
+    private int slotOrInsertionPoint(int position) {
+        return Arrays.binarySearch(order, 0, slots, position);
+    }
+
+    private int allocateHandle(int slot) {
+        int handle;
+        if (freeHandle >= 0) {
+            handle = freeHandle;
+            freeHandle = nextFree[handle];
+        } else {
+            if (handles == slotOf.length) {
+                slotOf = Arrays.copyOf(slotOf, handles * 2);
+                nextFree = Arrays.copyOf(nextFree, handles * 2);
+            }
+            handle = handles++;
+        }
+        slotOf[handle] = slot;
+        return handle;
+    }
+
+    private void compact() {
+        int target = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            int handle = handleOf[slot];
+            if (isRemoved(slot)) {
+                slotOf[handle] = -1;
+                nextFree[handle] = freeHandle;
+                freeHandle = handle;
+                continue;
+            }
+            if (target != slot) {
+                x1[target] = x1[slot];
+                y1[target] = y1[slot];
+                x2[target] = x2[slot];
+                y2[target] = y2[slot];
+                color[target] = color[slot];
+                thickness[target] = thickness[slot];
+                flags[target] = flags[slot];
+                order[target] = order[slot];
+                handleOf[target] = handle;
+                lines[target] = lines[slot];
+                slotOf[handle] = target;
+            }
+            target++;
+        }
+        Arrays.fill(lines, target, slots, null);
+        slots = target;
+        removed = 0;
+        version++;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= x1.length) {
+            return;
+        }
+        int length = Math.max(capacity, x1.length * 2);
+        x1 = Arrays.copyOf(x1, length);
+        y1 = Arrays.copyOf(y1, length);
+        x2 = Arrays.copyOf(x2, length);
+        y2 = Arrays.copyOf(y2, length);
+        color = Arrays.copyOf(color, length);
+        thickness = Arrays.copyOf(thickness, length);
+        flags = Arrays.copyOf(flags, length);
+        order = Arrays.copyOf(order, length);
+        handleOf = Arrays.copyOf(handleOf, length);
+        lines = Arrays.copyOf(lines, length);
+    }
+
+    /**
+     * Read-only view; reads never move slots, so slots and handles stay valid while it is used.
+     */
+    private class LineList extends AbstractList<Line> {
+        // Last index found by get and its slot, so a loop over increasing indexes scans each slot once
+        private int cursorIndex;
+        private int cursorSlot = -1;
+        private int cursorVersion;
+
+        @Override
+        public Line get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index " + index + ", size " + size());
+            }
+            if (removed == 0) {
+                return lines[index];
+            }
+            int live = 0;
+            int slot = skipRemoved(0);
+            if (cursorSlot >= 0 && cursorVersion == version && cursorIndex <= index) {
+                live = cursorIndex;
+                slot = cursorSlot;
+            }
+            for (; live < index; live++) {
+                slot = skipRemoved(slot + 1);
+            }
+            cursorIndex = index;
+            cursorSlot = slot;
+            cursorVersion = version;
+            return lines[slot];
+        }
+
+        @Override
+        public int size() {
+            return SegmentStore.this.size();
+        }
+
+        @Override
+        public Iterator<Line> iterator() {
+            return new Iterator<>() {
+                private int slot = skipRemoved(0);
+
+                @Override
+                public boolean hasNext() {
+                    return slot < slots;
+                }
+
+                @Override
+                public Line next() {
+                    if (slot >= slots) {
+                        throw new NoSuchElementException();
+                    }
+                    Line line = lines[slot];
+                    slot = skipRemoved(slot + 1);
+                    return line;
+                }
+            };
+        }
+
+        private int skipRemoved(int slot) {
+            while (slot < slots && isRemoved(slot)) {
+                slot++;
+            }
+            return slot;
+        }
+    }
+}
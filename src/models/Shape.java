@@ -0,0 +1,79 @@
+package models;
+
+import java.awt.*;
+import java.util.List;
+
+/**
+ * Outline primitive kept as geometry rather than as separate lines. Its pixel bounds are
+ * cached, so culling is a rectangle test; vertex moves go through {@link LineCanvas#movePoint},
+ * which drops the cache of every shape built on the moved point.
+ */
+public abstract class Shape {
+    private final Color color;
+    private final int thickness;
+    private Rectangle bounds;
+    // Drawing-order key in the LineCanvas that holds the shape, shared with its lines
+    int position = -1;
+
+    protected Shape(Color color, int thickness) {
+        this.color = color;
+        this.thickness = thickness;
+    }
+
+    public Color getColor() {
+        return color;
+    }
+
+    public int getThickness() {
+        return thickness;
+    }
+
+    /**
+     * Points defining the shape, possibly shared with lines and other shapes
+     */
+    public abstract List<Point> getVertices();
+
+    public boolean hasVertex(Point point) {
+        for (Point vertex : getVertices()) {
+            if (vertex == point) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Pixel bounds of the rasterized shape, including its thickness
+     */
+    public Rectangle getBounds() {
+        return new Rectangle(cachedBounds());
+    }
+
+    public boolean intersects(Rectangle area) {
+        return cachedBounds().intersects(area);
+    }
+
+    public boolean boundsContain(int x, int y) {
+        return cachedBounds().contains(x, y);
+    }
+
+    protected abstract Rectangle computeBounds();
+
+    /**
+     * Called whenever a vertex changes
+     */
+    protected void invalidateBounds() {
+        bounds = null;
+    }
+
+    protected int getHalfThickness() {
+        return Math.max(0, (thickness - 1) / 2);
+    }
+
+    private Rectangle cachedBounds() {
+        if (bounds == null) {
+            bounds = computeBounds();
+        }
+        return bounds;
+    }
+}
@@ -0,0 +1,212 @@
+package rasterizers;
+
+import models.BrushShape;
+import models.Line;
+import rasters.Raster;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Solid line rasterizer using integer Bresenham stepping.
+ * <p>
+ * The stepped pixels are collected as one run per row. A thin line writes each run as a span;
+ * a thick line is scan-converted as the outline swept by its brush ({@link BrushStamp}), one
+ * span per row, so every covered pixel is written exactly once. The square brush's outline is
+ * the segment widened by half the thickness on every side; the round brush's row extent is
+ * taken over the stamp rows that reach it.
+ * <p>
+ * Lines are first clipped to the raster's clip rectangle grown by half the thickness
+ * ({@link LineClipper}), so only steps that can touch it are taken.
+ */
+public class BresenhamLineRasterizer implements Rasterizer {
+    private final Raster raster;
+    private final LineClipper clipper = new LineClipper();
+    private int[] runMin = new int[64];
+    private int[] runMax = new int[64];
+
+    public BresenhamLineRasterizer(Raster raster) {
+        this.raster = raster;
+    }
+
+    public void rasterize(Line line) {
+        rasterize(line.getPoint1().getX(), line.getPoint1().getY(),
+                line.getPoint2().getX(), line.getPoint2().getY(),
+                line.getColor().getRGB(), line.getThickness(), line.getBrush());
+    }
+
+    public void rasterize(int x1, int y1, int x2, int y2, int color, int thickness) {
+        rasterize(x1, y1, x2, y2, color, thickness, BrushShape.SQUARE);
+    }
+
+    public void rasterize(int x1, int y1, int x2, int y2, int color, int thickness, BrushShape brush) {
+        // Handle thickness <= 1 as single pixel, same brush as TrivialLineRasterizer
+        BrushStamp stamp = BrushStamp.of(brush, thickness);
+        int halfThickness = stamp.getHalfSize();
+
+        // Always step downwards so rows are visited in order
+        if (y1 > y2) {
+            int temp = x1;
+            x1 = x2;
+            x2 = temp;
+            temp = y1;
+            y1 = y2;
+            y2 = temp;
+        }
+        int dx = x2 - x1;
+        int dy = y2 - y1;
+        int adx = Math.abs(dx);
+        int sx = dx < 0 ? -1 : 1;
+
+        // Step only the part of the line whose brush reaches the clip rectangle
+        clipper.setWindow(raster, halfThickness);
+        if (clipper.rejects(Math.min(x1, x2), y1, Math.max(x1, x2), y2)) {
+            return;
+        }
+        boolean xMajor = adx >= dy;
+        boolean visible = xMajor
+                ? clipper.clipSteps(true, x1, sx, y1, 1, adx, dy)
+                : clipper.clipSteps(false, y1, 1, x1, sx, dy, adx);
+        if (!visible) {
+            return;
+        }
+        int first = clipper.getFirst();
+        int last = clipper.getLast();
+        if (halfThickness == 0) {
+            if (xMajor) {
+                rasterizeThinX(x1, y1, adx, dy, sx, first, last, color);
+            } else {
+                rasterizeThinY(x1, y1, adx, dy, sx, first, last, color);
+            }
+            return;
+        }
+
+        // Runs of the visible steps, row 0 being the row of the first one
+        int top;
+        int rows;
+        int x;
+        if (xMajor) {
+            // x-major: one step per column, several pixels per row
+            int offset = LineClipper.minorOffset(adx, dy, first);
+            top = y1 + offset;
+            rows = LineClipper.minorOffset(adx, dy, last) - offset + 1;
+            ensureCapacity(rows);
+            x = x1 + sx * first;
+            runMin[0] = x;
+            runMax[0] = x;
+            int err = LineClipper.error(adx, dy, first);
+            int row = 0;
+            for (int k = first; k < last; k++) {
+                x += sx;
+                err += 2 * dy;
+                if (err >= 2 * adx) {
+                    err -= 2 * adx;
+                    row++;
+                    runMin[row] = x;
+                    runMax[row] = x;
+                } else if (sx > 0) {
+                    runMax[row] = x;
+                } else {
+                    runMin[row] = x;
+                }
+            }
+        } else {
+            // y-major: one step per row, one pixel per row
+            top = y1 + first;
+            rows = last - first + 1;
+            ensureCapacity(rows);
+            x = x1 + sx * LineClipper.minorOffset(dy, adx, first);
+            runMin[0] = x;
+            runMax[0] = x;
+            int err = LineClipper.error(dy, adx, first);
+            for (int row = 1; row < rows; row++) {
+                err += 2 * adx;
+                if (err >= 2 * dy) {
+                    err -= 2 * dy;
+                    x += sx;
+                }
+                runMin[row] = x;
+                runMax[row] = x;
+            }
+        }
+
+        int lastRow = rows - 1;
+        if (stamp.getShape() == BrushShape.SQUARE) {
+            // Row r is covered by the brush of every pixel in rows [r - h, r + h]; since x is
+            // monotonic along the line, the extremes sit at the two ends of that window.
+            for (int row = -halfThickness; row <= lastRow + halfThickness; row++) {
+                int from = Math.max(0, row - halfThickness);
+                int to = Math.min(lastRow, row + halfThickness);
+                int left = sx > 0 ? runMin[from] : runMin[to];
+                int right = sx > 0 ? runMax[to] : runMax[from];
+                raster.fillSpan(top + row, left - halfThickness, right + halfThickness, color);
+            }
+            return;
+        }
+        // Row r of the stamp on run j spans [runMin[j] - w(r - j), runMax[j] + w(r - j)]; adjacent
+        // runs touch, so the union over the window is a single span.
+        for (int row = -halfThickness; row <= lastRow + halfThickness; row++) {
+            int from = Math.max(0, row - halfThickness);
+            int to = Math.min(lastRow, row + halfThickness);
+            int left = Integer.MAX_VALUE;
+            int right = Integer.MIN_VALUE;
+            for (int j = from; j <= to; j++) {
+                int width = stamp.getHalfWidth(row - j);
+                left = Math.min(left, runMin[j] - width);
+                right = Math.max(right, runMax[j] + width);
+            }
+            raster.fillSpan(top + row, left, right, color);
+        }
+    }
+
+    /**
+     * Same stepping as the thick case, but each row's run is written as soon as it is complete.
+     */
+    private void rasterizeThinX(int x1, int y1, int adx, int dy, int sx, int first, int last, int color) {
+        int x = x1 + sx * first;
+        int y = y1 + LineClipper.minorOffset(adx, dy, first);
+        int err = LineClipper.error(adx, dy, first);
+        int runStart = x;
+        for (int k = first; k < last; k++) {
+            err += 2 * dy;
+            if (err >= 2 * adx) {
+                err -= 2 * adx;
+                raster.fillSpan(y, Math.min(runStart, x), Math.max(runStart, x), color);
+                y++;
+                runStart = x + sx;
+            }
+            x += sx;
+        }
+        raster.fillSpan(y, Math.min(runStart, x), Math.max(runStart, x), color);
+    }
+
+    private void rasterizeThinY(int x1, int y1, int adx, int dy, int sx, int first, int last, int color) {
+        int x = x1 + sx * LineClipper.minorOffset(dy, adx, first);
+        int y = y1 + first;
+        int err = LineClipper.error(dy, adx, first);
+        raster.fillSpan(y, x, x, color);
+        for (int k = first; k < last; k++) {
+            err += 2 * adx;
+            if (err >= 2 * dy) {
+                err -= 2 * dy;
+                x += sx;
+            }
+            y++;
+            raster.fillSpan(y, x, x, color);
+        }
+    }
+
+    private void ensureCapacity(int rows) {
+        if (runMin.length < rows) {
+            int capacity = Math.max(rows, runMin.length * 2);
+            runMin = Arrays.copyOf(runMin, capacity);
+            runMax = Arrays.copyOf(runMax, capacity);
+        }
+    }
+
+    public void rasterizeArray(ArrayList<Line> lines) {
+        for (Line line : lines) {
+            rasterize(line);
+        }
+    }
+}
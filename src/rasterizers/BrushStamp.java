@@ -0,0 +1,89 @@
+package rasterizers;
+
+import models.BrushShape;
+import rasters.Raster;
+
+/**
+ * A brush footprint as a row-span table: row {@code dy} in {@code [-h, h]} of a stamp centred at
+ * {@code (x, y)} covers columns {@code x - halfWidth(dy)} to {@code x + halfWidth(dy)}. Stamps
+ * are built once per shape and thickness and shared; they are immutable.
+ * <p>
+ * Thickness maps to the half size {@code h = max(0, (thickness - 1) / 2)} like everywhere else,
+ * so both shapes have the same bounds. A round stamp covers the pixels with
+ * {@code dx^2 + dy^2 <= h^2 + h}, the same half-pixel rule as {@link CircleRasterizer}.
+ */
+public final class BrushStamp {
+    private static final int CACHED_THICKNESS = 64;
+    private static final BrushStamp[][] CACHE = new BrushStamp[BrushShape.values().length][CACHED_THICKNESS + 1];
+
+    static {
+        for (BrushShape shape : BrushShape.values()) {
+            for (int thickness = 0; thickness <= CACHED_THICKNESS; thickness++) {
+                CACHE[shape.ordinal()][thickness] = new BrushStamp(shape, thickness);
+            }
+        }
+    }
+
+    private final BrushShape shape;
+    private final int halfSize;
+    // Indexed by dy + halfSize
+    private final int[] halfWidths;
+
+    private BrushStamp(BrushShape shape, int thickness) {
+        this.shape = shape;
+        halfSize = Math.max(0, (thickness - 1) / 2);
+        halfWidths = new int[2 * halfSize + 1];
+        long limit = (long) halfSize * halfSize + halfSize;
+        for (int dy = -halfSize; dy <= halfSize; dy++) {
+            int width = halfSize;
+            if (shape == BrushShape.ROUND) {
+                while ((long) width * width + (long) dy * dy > limit) {
+                    width--;
+                }
+            }
+            halfWidths[dy + halfSize] = width;
+        }
+    }
+
+    public static BrushStamp of(BrushShape shape, int thickness) {
+        if (thickness >= 0 && thickness <= CACHED_THICKNESS) {
+            return CACHE[shape.ordinal()][thickness];
+        }
+        return new BrushStamp(shape, Math.max(0, thickness));
+    }
+
+    public BrushShape getShape() {
+        return shape;
+    }
+
+    public int getHalfSize() {
+        return halfSize;
+    }
+
+    /**
+     * Half width of row {@code dy}, for {@code -h <= dy <= h}
+     */
+    public int getHalfWidth(int dy) {
+        return halfWidths[dy + halfSize];
+    }
+
+    /**
+     * Stamp centred at {@code (x, y)}, writing only rows {@code top} to {@code bottom}; the row
+     * range is clipped once and every row is one span write.
+     */
+    public void stamp(Raster raster, int x, int y, int color, int top, int bottom) {
+        int from = Math.max(-halfSize, top - y);
+        int to = Math.min(halfSize, bottom - y);
+        if (from > to) {
+            return;
+        }
+        if (shape == BrushShape.SQUARE) {
+            raster.fillRect(x - halfSize, y + from, 2 * halfSize + 1, to - from + 1, color);
+            return;
+        }
+        for (int dy = from; dy <= to; dy++) {
+            int width = halfWidths[dy + halfSize];
+            raster.fillSpan(y + dy, x - width, x + width, color);
+        }
+    }
+}
@@ -1,10 +1,22 @@
 package rasterizers;
 
+import models.Circle;
 import models.Point;
 import rasters.Raster;
 
-import java.awt.Color;
+import java.awt.*;
 
+/**
+ * Rasterizes thick circle outlines as an annulus, one horizontal span per row and side.
+ * <p>
+ * A pixel at distance d from the centre is covered when it lies within half a pixel of the
+ * stroke, i.e. {@code (inner - 0.5)^2 < d^2 <= (outer + 0.5)^2}. Both edges are walked
+ * incrementally down one quadrant, so there is no square root, and every row is mirrored to
+ * the other three quadrants. Each covered pixel is written exactly once.
+ * <p>
+ * Rows outside the raster's clip rectangle are skipped: the walk starts at the first row that
+ * can be visible, with both edges found there by integer square root.
+ */
 public class CircleRasterizer {
     private Raster raster;
 
@@ -13,51 +25,70 @@ public class CircleRasterizer {
     }
 
     public void rasterize(Point center, Point edge, Color color, int thickness) {
-        // Calculate radius as the distance between center and edge
-        int dx = edge.getX() - center.getX();
-        int dy = edge.getY() - center.getY();
-        int radius = (int) Math.sqrt(dx * dx + dy * dy);
-
-        // Adjust radius for thickness
-        int outerRadius = radius + (thickness - 1) / 2;
-        int innerRadius = Math.max(0, radius - thickness / 2);
-
-        // Draw filled circles from inner to outer radius to simulate thickness
-        for (int r = innerRadius; r <= outerRadius; r++) {
-            drawCircle(center.getX(), center.getY(), r, color.getRGB());
-        }
+        rasterize(Circle.through(center, edge, color, thickness));
+    }
+
+    public void rasterize(Circle circle) {
+        rasterize(circle.getCenter().getX(), circle.getCenter().getY(),
+                circle.getInnerRadius(), circle.getOuterRadius(), circle.getColor().getRGB());
     }
 
-    private void drawCircle(int cx, int cy, int radius, int color) {
-        int x = radius;
-        int y = 0;
-        int err = 0;
-
-        while (x >= y) {
-            // Draw all eight octants
-            setPixel(cx + x, cy + y, color);
-            setPixel(cx + y, cy + x, color);
-            setPixel(cx - y, cy + x, color);
-            setPixel(cx - x, cy + y, color);
-            setPixel(cx - x, cy - y, color);
-            setPixel(cx - y, cy - x, color);
-            setPixel(cx + y, cy - x, color);
-            setPixel(cx + x, cy - y, color);
-
-            if (err <= 0) {
-                y += 1;
-                err += 2 * y + 1;
+    public void rasterize(int cx, int cy, int innerRadius, int outerRadius, int color) {
+        Rectangle clip = raster.getClip();
+        int top = clip.y;
+        int bottom = clip.y + clip.height - 1;
+        if (outerRadius < 0 || clip.isEmpty() || cy + outerRadius < top || cy - outerRadius > bottom
+                || cx + outerRadius < clip.x || cx - outerRadius >= clip.x + clip.width) {
+            return;
+        }
+        // Only rows y whose row below (cy + y) or above (cy - y) the centre is inside the clip
+        int firstRow = cy < top ? top - cy : cy > bottom ? cy - bottom : 0;
+        int lastRow = Math.min(outerRadius, Math.max(bottom - cy, cy - top));
+
+        // d^2 <= outer^2 + outer is covered; d^2 <= inner^2 - inner is the hole
+        long outerLimit = (long) outerRadius * outerRadius + outerRadius;
+        long innerLimit = innerRadius > 0 ? (long) innerRadius * innerRadius - innerRadius : -1;
+        long firstYY = (long) firstRow * firstRow;
+        int xOuter = isqrt(outerLimit - firstYY);
+        int xInner = innerLimit >= firstYY ? isqrt(innerLimit - firstYY) : -1;
+        for (int y = firstRow; y <= lastRow; y++) {
+            long yy = (long) y * y;
+            while ((long) xOuter * xOuter + yy > outerLimit) {
+                xOuter--;
+            }
+            while (xInner >= 0 && (long) xInner * xInner + yy > innerLimit) {
+                xInner--;
             }
-            if (err > 0) {
-                x -= 1;
-                err -= 2 * x + 1;
+            fillRow(cy + y, cx, xInner, xOuter, top, bottom, color);
+            if (y > 0) {
+                fillRow(cy - y, cx, xInner, xOuter, top, bottom, color);
             }
         }
     }
 
-    private void setPixel(int x, int y, int color) {
-        if (x >= 0 && x < raster.getWidth() && y >= 0 && y < raster.getHeight()) {
-            raster.setPixel(x, y, color);
+    /**
+     * Largest x with {@code x * x <= n}, for {@code n >= 0}
+     */
+    private static int isqrt(long n) {
+        long x = (long) Math.sqrt((double) n);
+        while (x * x > n) {
+            x--;
+        }
+        while ((x + 1) * (x + 1) <= n) {
+            x++;
+        }
+        return (int) x;
+    }
+
+    private void fillRow(int y, int cx, int xInner, int xOuter, int top, int bottom, int color) {
+        if (y < top || y > bottom) {
+            return;
+        }
+        if (xInner < 0) {
+            raster.fillSpan(y, cx - xOuter, cx + xOuter, color);
+        } else if (xOuter > xInner) {
+            raster.fillSpan(y, cx - xOuter, cx - xInner - 1, color);
+            raster.fillSpan(y, cx + xInner + 1, cx + xOuter, color);
         }
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package rasterizers;
 
+import models.BrushShape;
 import models.Line;
 import rasters.Raster;
 
@@ -8,20 +9,39 @@ import java.util.ArrayList;
 public class DottedLineRasterizer implements Rasterizer {
 
     private Raster raster;
+    private final LineClipper clipper = new LineClipper();
+    // Brush of the line being drawn and the clip rectangle's rows
+    private BrushStamp stamp;
+    private int top;
+    private int bottom;
 
     public DottedLineRasterizer(Raster raster) {
         this.raster = raster;
     }
 
     public void rasterize(Line line) {
-        int thickness = line.getThickness();
-        int x1 = line.getPoint1().getX();
-        int y1 = line.getPoint1().getY();
-        int x2 = line.getPoint2().getX();
-        int y2 = line.getPoint2().getY();
+        rasterize(line.getPoint1().getX(), line.getPoint1().getY(),
+                line.getPoint2().getX(), line.getPoint2().getY(),
+                line.getColor().getRGB(), line.getThickness(), line.getBrush());
+    }
+
+    public void rasterize(int x1, int y1, int x2, int y2, int color, int thickness) {
+        rasterize(x1, y1, x2, y2, color, thickness, BrushShape.SQUARE);
+    }
+
+    public void rasterize(int x1, int y1, int x2, int y2, int color, int thickness, BrushShape brush) {
         int spacing = thickness + 5; // Dynamic spacing: base of 5 pixels plus line thickness
 
-        int halfThickness = Math.max(0, (thickness - 1) / 2);
+        stamp = BrushStamp.of(brush, thickness);
+        int halfThickness = stamp.getHalfSize();
+
+        // Place only the dots whose brush reaches the clip rectangle
+        clipper.setWindow(raster, halfThickness);
+        top = clipper.getTop() + halfThickness;
+        bottom = clipper.getBottom() - halfThickness;
+        if (clipper.rejects(Math.min(x1, x2), Math.min(y1, y2), Math.max(x1, x2), Math.max(y1, y2))) {
+            return;
+        }
 
         if (x1 == x2) {
             if (y1 > y2) {
@@ -29,48 +49,59 @@ public class DottedLineRasterizer implements Rasterizer {
                 y1 = y2;
                 y2 = temp;
             }
-            for (int y = y1; y <= y2; y += spacing) {
-                drawThickPoint(x1, y, halfThickness, line.getColor().getRGB());
+            if (clipper.clipSteps(false, y1, 1, x1, 1, y2 - y1, 0)) {
+                for (int k = firstDot(spacing); k <= clipper.getLast(); k += spacing) {
+                    stamp.stamp(raster, x1, y1 + k, color, top, bottom);
+                }
             }
             return;
         }
 
-        float k = (float) (y2 - y1) / (x2 - x1);
-        float q = y1 - (k * x1);
+        int dx = x2 - x1;
+        int dy = y2 - y1;
 
-        if (Math.abs(k) < 1) {
+        // Dot k sits k pixels along the major axis, the minor one rounded like roundDiv does
+        if (Math.abs(dy) < Math.abs(dx)) {
             if (x1 > x2) {
-                int temp = x1;
                 x1 = x2;
-                x2 = temp;
+                y1 = y2;
+                dx = -dx;
+                dy = -dy;
             }
-            for (int x = x1; x <= x2; x += spacing) {
-                int y = Math.round(k * x + q);
-                drawThickPoint(x, y, halfThickness, line.getColor().getRGB());
+            if (clipper.clipSteps(true, x1, 1, y1, 1, dx, dy)) {
+                for (int k = firstDot(spacing); k <= clipper.getLast(); k += spacing) {
+                    int y = y1 + roundDiv((long) k * dy, dx);
+                    stamp.stamp(raster, x1 + k, y, color, top, bottom);
+                }
             }
         } else {
             if (y1 > y2) {
-                int temp = y1;
+                x1 = x2;
                 y1 = y2;
-                y2 = temp;
+                dx = -dx;
+                dy = -dy;
             }
-            for (int y = y1; y <= y2; y += spacing) {
-                int x = Math.round((y - q) / k);
-                drawThickPoint(x, y, halfThickness, line.getColor().getRGB());
+            if (clipper.clipSteps(false, y1, 1, x1, 1, dy, dx)) {
+                for (int k = firstDot(spacing); k <= clipper.getLast(); k += spacing) {
+                    int x = x1 + roundDiv((long) k * dx, dy);
+                    stamp.stamp(raster, x, y1 + k, color, top, bottom);
+                }
             }
         }
     }
 
-    private void drawThickPoint(int x, int y, int halfThickness, int color) {
-        for (int dx = -halfThickness; dx <= halfThickness; dx++) {
-            for (int dy = -halfThickness; dy <= halfThickness; dy++) {
-                int px = x + dx;
-                int py = y + dy;
-                if (px >= 0 && px < raster.getWidth() && py >= 0 && py < raster.getHeight()) {
-                    raster.setPixel(px, py, color);
-                }
-            }
-        }
+    /**
+     * First dot at or after the first visible step
+     */
+    private int firstDot(int spacing) {
+        return (clipper.getFirst() + spacing - 1) / spacing * spacing;
+    }
+
+    /**
+     * {@code num / den} rounded half up, for a positive {@code den}
+     */
+    private static int roundDiv(long num, long den) {
+        return (int) Math.floorDiv(2 * num + den, 2 * den);
     }
 
     public void rasterizeArray(ArrayList<Line> lines) {
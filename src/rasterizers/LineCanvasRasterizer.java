@@ -1,30 +1,145 @@
 package rasterizers;
 
+import models.DrawingOrder;
 import models.Line;
 import models.LineCanvas;
+import models.SegmentStore;
+import models.Shape;
+import rasters.BlendingRaster;
 import rasters.Raster;
 
+import java.awt.*;
+
+/**
+ * Draws a {@link LineCanvas} in painter's order, lines and shapes interleaved as they were added. Opaque
+ * colours replace pixels; translucent ones go through a second set of rasterizers over a
+ * {@link BlendingRaster}, created on first use.
+ */
 public class LineCanvasRasterizer {
     private Raster raster;
-    private Rasterizer lineRasterizer;
-    private Rasterizer dottedLineRasterizer;
+    private BresenhamLineRasterizer lineRasterizer;
+    private DottedLineRasterizer dottedLineRasterizer;
+    private ShapeRasterizer shapeRasterizer;
+    private BresenhamLineRasterizer blendLineRasterizer;
+    private DottedLineRasterizer blendDottedLineRasterizer;
+    private ShapeRasterizer blendShapeRasterizer;
+    // Drawn by the last rasterizeCanvas call
+    private int linesDrawn;
+    private int shapesDrawn;
 
     public LineCanvasRasterizer(Raster raster) {
         this.raster = raster;
-        lineRasterizer = new TrivialLineRasterizer(raster);
+        lineRasterizer = new BresenhamLineRasterizer(raster);
         dottedLineRasterizer = new DottedLineRasterizer(raster);
+        shapeRasterizer = new ShapeRasterizer(raster);
     }
 
     public void rasterizeCanvas(LineCanvas canvas) {
-        ((TrivialLineRasterizer) lineRasterizer).rasterizeArray(canvas.getLines());
-        ((DottedLineRasterizer) dottedLineRasterizer).rasterizeArray(canvas.getDottedLines());
+        int lines = 0;
+        int shapes = 0;
+        DrawingOrder order = canvas.drawingOrder();
+        while (order.next()) {
+            if (order.getKind() == DrawingOrder.Kind.SHAPE) {
+                rasterizeShape(order.getShape());
+                shapes++;
+            } else {
+                rasterizeSegment(order.getStore(), order.getIndex(), order.getKind() == DrawingOrder.Kind.DOTTED);
+                lines++;
+            }
+        }
+        linesDrawn = lines;
+        shapesDrawn = shapes;
+    }
+
+    /**
+     * Draw only the lines and shapes whose bounds intersect {@code clip}.
+     */
+    public void rasterizeCanvas(LineCanvas canvas, Rectangle clip) {
+        int lines = 0;
+        int shapes = 0;
+        DrawingOrder order = canvas.drawingOrder();
+        while (order.next()) {
+            if (order.getKind() == DrawingOrder.Kind.SHAPE) {
+                Shape shape = order.getShape();
+                if (shape.intersects(clip)) {
+                    rasterizeShape(shape);
+                    shapes++;
+                }
+            } else if (order.getStore().intersects(order.getIndex(), clip)) {
+                rasterizeSegment(order.getStore(), order.getIndex(), order.getKind() == DrawingOrder.Kind.DOTTED);
+                lines++;
+            }
+        }
+        linesDrawn = lines;
+        shapesDrawn = shapes;
+    }
+
+    /**
+     * Solid and dotted segments drawn by the last {@code rasterizeCanvas} call
+     */
+    public int getLinesDrawn() {
+        return linesDrawn;
+    }
+
+    /**
+     * Shapes drawn by the last {@code rasterizeCanvas} call
+     */
+    public int getShapesDrawn() {
+        return shapesDrawn;
+    }
+
+    public void rasterizeSegment(SegmentStore segments, int slot, boolean dotted) {
+        int x1 = segments.getX1(slot);
+        int y1 = segments.getY1(slot);
+        int x2 = segments.getX2(slot);
+        int y2 = segments.getY2(slot);
+        int color = segments.getColor(slot);
+        boolean opaque = color >>> 24 == 255;
+        if (!opaque) {
+            createBlendRasterizers();
+        }
+        if (dotted) {
+            (opaque ? dottedLineRasterizer : blendDottedLineRasterizer).rasterize(x1, y1, x2, y2, color,
+                    segments.getThickness(slot), segments.getBrush(slot));
+        } else {
+            (opaque ? lineRasterizer : blendLineRasterizer).rasterize(x1, y1, x2, y2, color,
+                    segments.getThickness(slot), segments.getBrush(slot));
+        }
     }
 
     public void rasterizeLine(Line line) {
-        ((TrivialLineRasterizer) lineRasterizer).rasterize(line);
+        if (line.getColor().getAlpha() == 255) {
+            lineRasterizer.rasterize(line);
+        } else {
+            createBlendRasterizers();
+            blendLineRasterizer.rasterize(line);
+        }
     }
 
     public void rasterizeDottedLine(Line line) {
-        ((DottedLineRasterizer) dottedLineRasterizer).rasterize(line);
+        if (line.getColor().getAlpha() == 255) {
+            dottedLineRasterizer.rasterize(line);
+        } else {
+            createBlendRasterizers();
+            blendDottedLineRasterizer.rasterize(line);
+        }
+    }
+
+    public void rasterizeShape(Shape shape) {
+        if (shape.getColor().getAlpha() == 255) {
+            shapeRasterizer.rasterize(shape);
+        } else {
+            createBlendRasterizers();
+            blendShapeRasterizer.rasterize(shape);
+        }
+    }
+
+    private void createBlendRasterizers() {
+        if (blendLineRasterizer == null) {
+            Raster blending = new BlendingRaster(raster);
+            blendLineRasterizer = new BresenhamLineRasterizer(blending);
+            blendDottedLineRasterizer = new DottedLineRasterizer(blending);
+            blendShapeRasterizer = new ShapeRasterizer(blending);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,152 @@
+package rasterizers;
+
+import rasters.Raster;
+
+import java.awt.*;
+
+/**
+ * Clips lines to a raster's clip rectangle before they are stepped, so that the part of a line
+ * outside it costs nothing and the rest needs no bounds checks per pixel.
+ * <p>
+ * Lines are described the way the rasterizers step them: step {@code k} of {@code steps} sits at
+ * {@code major0 + majorSign * k} along the major axis and {@code minor0 + minorSign * m(k)} along
+ * the minor one, where {@code m(k) = floor((steps + 2 * dMinor * k) / (2 * steps))} is Bresenham's
+ * rounding of {@code k * dMinor / steps} to the nearest pixel. Since that is monotonic in
+ * {@code k}, the steps inside the window form one range, found in O(1) by solving for both axes,
+ * Liang-Barsky style, in integers, so the clipped line produces exactly the pixels the whole line
+ * would have produced inside the window.
+ */
+public class LineClipper {
+    // Inclusive window
+    private int left;
+    private int top;
+    private int right;
+    private int bottom;
+    private int first;
+    private int last;
+
+    /**
+     * Clip to the rectangle {@code raster} keeps writes in, grown by {@code margin} on every side
+     * (half the brush, so that a step just outside still paints its edge).
+     */
+    public void setWindow(Raster raster, int margin) {
+        Rectangle clip = raster.getClip();
+        left = clip.x - margin;
+        top = clip.y - margin;
+        right = clip.x + clip.width - 1 + margin;
+        bottom = clip.y + clip.height - 1 + margin;
+    }
+
+    public int getLeft() {
+        return left;
+    }
+
+    public int getTop() {
+        return top;
+    }
+
+    public int getRight() {
+        return right;
+    }
+
+    public int getBottom() {
+        return bottom;
+    }
+
+    /**
+     * Whether the box {@code [minX, maxX] x [minY, maxY]} lies entirely outside the window
+     */
+    public boolean rejects(int minX, int minY, int maxX, int maxY) {
+        return maxX < left || minX > right || maxY < top || minY > bottom || right < left || bottom < top;
+    }
+
+    /**
+     * Find the steps of a line that lie in the window.
+     *
+     * @param xMajor whether the major axis is x
+     * @return whether there are any; the range is then {@link #getFirst()} to {@link #getLast()}
+     */
+    public boolean clipSteps(boolean xMajor, int major0, int majorSign, int minor0, int minorSign,
+                             int steps, int dMinor) {
+        int majorLo = xMajor ? left : top;
+        int majorHi = xMajor ? right : bottom;
+        int minorLo = xMajor ? top : left;
+        int minorHi = xMajor ? bottom : right;
+
+        // Major axis: the position is linear in k
+        long lo = majorSign > 0 ? (long) majorLo - major0 : (long) major0 - majorHi;
+        long hi = majorSign > 0 ? (long) majorHi - major0 : (long) major0 - majorLo;
+        lo = Math.max(lo, 0);
+        hi = Math.min(hi, steps);
+
+        // Minor axis: bound the offset m(k), then turn that into bounds on k
+        long mLo = minorSign > 0 ? (long) minorLo - minor0 : (long) minor0 - minorHi;
+        long mHi = minorSign > 0 ? (long) minorHi - minor0 : (long) minor0 - minorLo;
+        // m(k) stays within [-|dMinor|, |dMinor|]; clamping keeps the products below in range
+        long reach = Math.abs((long) dMinor) + 1;
+        mLo = Math.max(mLo, -reach);
+        mHi = Math.min(mHi, reach);
+        if (mLo > mHi) {
+            return false;
+        }
+        if (steps == 0 || dMinor == 0) {
+            // m(k) is 0 throughout
+            if (mLo > 0 || mHi < 0) {
+                return false;
+            }
+        } else {
+            long twoSteps = 2L * steps;
+            long slope = 2L * dMinor;
+            // m(k) >= mLo  <=>  steps + slope * k >= twoSteps * mLo
+            long atLeast = twoSteps * mLo - steps;
+            // m(k) <= mHi  <=>  steps + slope * k <= twoSteps * (mHi + 1) - 1
+            long atMost = twoSteps * (mHi + 1) - 1 - steps;
+            if (slope > 0) {
+                lo = Math.max(lo, ceilDiv(atLeast, slope));
+                hi = Math.min(hi, Math.floorDiv(atMost, slope));
+            } else {
+                lo = Math.max(lo, ceilDiv(-atMost, -slope));
+                hi = Math.min(hi, Math.floorDiv(-atLeast, -slope));
+            }
+        }
+        if (lo > hi) {
+            return false;
+        }
+        first = (int) lo;
+        last = (int) hi;
+        return true;
+    }
+
+    /**
+     * First step inside the window, as found by the last successful {@link #clipSteps}
+     */
+    public int getFirst() {
+        return first;
+    }
+
+    /**
+     * Last step inside the window, as found by the last successful {@link #clipSteps}
+     */
+    public int getLast() {
+        return last;
+    }
+
+    /**
+     * Minor-axis offset {@code m(k)} of step {@code k}
+     */
+    public static int minorOffset(int steps, int dMinor, int k) {
+        return steps == 0 ? 0 : (int) Math.floorDiv(steps + 2L * dMinor * k, 2L * steps);
+    }
+
+    /**
+     * Bresenham's error term at step {@code k}, as a stepper starting from {@code steps} at step 0
+     * holds it
+     */
+    public static int error(int steps, int dMinor, int k) {
+        return (int) (steps + 2L * dMinor * k - 2L * steps * minorOffset(steps, dMinor, k));
+    }
+
+    private static long ceilDiv(long a, long b) {
+        return -Math.floorDiv(-a, b);
+    }
+}
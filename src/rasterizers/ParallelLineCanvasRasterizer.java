@@ -0,0 +1,164 @@
+package rasterizers;
+
+import models.DrawingOrder;
+import models.LineCanvas;
+import models.SegmentStore;
+import models.Shape;
+import rasters.ClippedRaster;
+import rasters.Raster;
+
+import java.awt.*;
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Renders a {@link LineCanvas} tile by tile on a {@link ForkJoinPool}.
+ * <p>
+ * Every line and shape is binned into the tiles its bounds touch, keeping the sequential
+ * drawing order of {@link LineCanvas#drawingOrder()}. Each tile is then rasterized on its own through a
+ * {@link ClippedRaster} limited to the tile, so no two workers ever write the same pixel and
+ * the result matches {@link LineCanvasRasterizer} pixel for pixel.
+ */
+public class ParallelLineCanvasRasterizer {
+    private static final int TILE_SIZE = 128;
+    private static final int SEQUENTIAL_THRESHOLD = 256;
+
+    private final Raster raster;
+    private final ForkJoinPool pool;
+    private final LineCanvasRasterizer sequential;
+
+    public ParallelLineCanvasRasterizer(Raster raster) {
+        this(raster, ForkJoinPool.commonPool());
+    }
+
+    public ParallelLineCanvasRasterizer(Raster raster, ForkJoinPool pool) {
+        this.raster = raster;
+        this.pool = pool;
+        sequential = new LineCanvasRasterizer(raster);
+    }
+
+    public void rasterizeCanvas(LineCanvas canvas) {
+        SegmentStore lines = canvas.getLineStore();
+        SegmentStore dottedLines = canvas.getDottedLineStore();
+        ArrayList<Shape> shapes = canvas.getShapes();
+        if (lines.size() + dottedLines.size() + shapes.size() < SEQUENTIAL_THRESHOLD || pool.getParallelism() < 2) {
+            sequential.rasterizeCanvas(canvas);
+            return;
+        }
+
+        int tilesX = (raster.getWidth() + TILE_SIZE - 1) / TILE_SIZE;
+        int tilesY = (raster.getHeight() + TILE_SIZE - 1) / TILE_SIZE;
+        int[][] bins = new int[tilesX * tilesY][];
+        int[] binSizes = new int[tilesX * tilesY];
+
+        // Solid line slots get indices [0, n), dotted line slots [n, n + m), shapes after; bins
+        // are filled in drawing order
+        int dottedBase = lines.getSlotCount();
+        int shapeBase = dottedBase + dottedLines.getSlotCount();
+        DrawingOrder order = canvas.drawingOrder();
+        while (order.next()) {
+            if (order.getKind() == DrawingOrder.Kind.SHAPE) {
+                Rectangle bounds = order.getShape().getBounds();
+                bin(bounds.x, bounds.y, bounds.x + bounds.width - 1, bounds.y + bounds.height - 1,
+                        shapeBase + order.getIndex(), bins, binSizes, tilesX, tilesY);
+            } else {
+                binSegment(order.getStore(), order.getIndex(),
+                        (order.getKind() == DrawingOrder.Kind.DOTTED ? dottedBase : 0) + order.getIndex(),
+                        bins, binSizes, tilesX, tilesY);
+            }
+        }
+
+        pool.invoke(new TileTask(lines, dottedLines, shapes, bins, binSizes, tilesX, 0, bins.length));
+    }
+
+    private static void binSegment(SegmentStore segments, int slot, int index, int[][] bins, int[] binSizes,
+                                   int tilesX, int tilesY) {
+        int half = Math.max(0, (segments.getThickness(slot) - 1) / 2);
+        int x1 = segments.getX1(slot);
+        int y1 = segments.getY1(slot);
+        int x2 = segments.getX2(slot);
+        int y2 = segments.getY2(slot);
+        bin(Math.min(x1, x2) - half, Math.min(y1, y2) - half, Math.max(x1, x2) + half, Math.max(y1, y2) + half,
+                index, bins, binSizes, tilesX, tilesY);
+    }
+
+    /**
+     * Add {@code index} to every tile overlapping the inclusive pixel box [minX, maxX] x [minY, maxY].
+     */
+    private static void bin(int minX, int minY, int maxX, int maxY, int index, int[][] bins, int[] binSizes,
+                            int tilesX, int tilesY) {
+        int tx0 = Math.max(0, Math.floorDiv(minX, TILE_SIZE));
+        int ty0 = Math.max(0, Math.floorDiv(minY, TILE_SIZE));
+        int tx1 = Math.min(tilesX - 1, Math.floorDiv(maxX, TILE_SIZE));
+        int ty1 = Math.min(tilesY - 1, Math.floorDiv(maxY, TILE_SIZE));
+        for (int ty = ty0; ty <= ty1; ty++) {
+            for (int tx = tx0; tx <= tx1; tx++) {
+                int tile = ty * tilesX + tx;
+                if (bins[tile] == null) {
+                    bins[tile] = new int[16];
+                } else if (binSizes[tile] == bins[tile].length) {
+                    bins[tile] = Arrays.copyOf(bins[tile], binSizes[tile] * 2);
+                }
+                bins[tile][binSizes[tile]++] = index;
+            }
+        }
+    }
+
+    private class TileTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final SegmentStore lines;
+        private final SegmentStore dottedLines;
+        private final ArrayList<Shape> shapes;
+        private final int[][] bins;
+        private final int[] binSizes;
+        private final int tilesX;
+        private final int from;
+        private final int to;
+
+        TileTask(SegmentStore lines, SegmentStore dottedLines, ArrayList<Shape> shapes,
+                 int[][] bins, int[] binSizes, int tilesX, int from, int to) {
+            this.lines = lines;
+            this.dottedLines = dottedLines;
+            this.shapes = shapes;
+            this.bins = bins;
+            this.binSizes = binSizes;
+            this.tilesX = tilesX;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new TileTask(lines, dottedLines, shapes, bins, binSizes, tilesX, from, mid),
+                        new TileTask(lines, dottedLines, shapes, bins, binSizes, tilesX, mid, to));
+                return;
+            }
+            if (bins[from] == null) {
+                return;
+            }
+            ClippedRaster tile = new ClippedRaster(raster);
+            tile.setClip(new Rectangle((from % tilesX) * TILE_SIZE, (from / tilesX) * TILE_SIZE, TILE_SIZE, TILE_SIZE));
+            LineCanvasRasterizer lineRasterizer = new LineCanvasRasterizer(tile);
+            int[] bin = bins[from];
+            int solidCount = lines.getSlotCount();
+            int lineCount = solidCount + dottedLines.getSlotCount();
+            for (int i = 0; i < binSizes[from]; i++) {
+                int index = bin[i];
+                if (index < solidCount) {
+                    lineRasterizer.rasterizeSegment(lines, index, false);
+                } else if (index < lineCount) {
+                    lineRasterizer.rasterizeSegment(dottedLines, index - solidCount, true);
+                } else {
+                    lineRasterizer.rasterizeShape(shapes.get(index - lineCount));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package rasterizers;
+
+import Fillers.FillOperation;
+import models.FillRule;
+import models.Point;
+import models.Polygon;
+import rasters.Raster;
+
+import java.awt.*;
+
+/**
+ * Vector fill of a polygon in the fill history. It keeps the polygon, whose vertices may be
+ * shared with lines and shapes, and scan-converts it on every replay, so it follows vertex edits
+ * while still drawing under every line like a flood fill, and its memory does not depend on
+ * the filled area. Only the polygon's vertices are used, not its outline.
+ */
+public class PolygonFillOperation extends FillOperation {
+    // Rasterizer, and its edge table, for the raster this thread last replayed a polygon fill into
+    private static final ThreadLocal<PolygonFillRasterizer> RASTERIZER = new ThreadLocal<>();
+
+    private final Polygon polygon;
+    private final FillRule rule;
+
+    public PolygonFillOperation(Polygon polygon, Color color, FillRule rule) {
+        super(color);
+        this.polygon = polygon;
+        this.rule = rule;
+    }
+
+    public Polygon getPolygon() {
+        return polygon;
+    }
+
+    public FillRule getRule() {
+        return rule;
+    }
+
+    /**
+     * Hull of the vertices, measured on every call: a vertex may be moved through another
+     * shape or line sharing it.
+     */
+    @Override
+    public Rectangle getBounds() {
+        if (polygon.getVertexCount() < 3) {
+            return new Rectangle();
+        }
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (Point p : polygon.getVertices()) {
+            minX = Math.min(minX, p.getX());
+            minY = Math.min(minY, p.getY());
+            maxX = Math.max(maxX, p.getX());
+            maxY = Math.max(maxY, p.getY());
+        }
+        return new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+    }
+
+    @Override
+    public void render(Raster raster) {
+        rasterizerFor(raster).rasterize(polygon, getColor().getRGB(), rule);
+    }
+
+    /**
+     * Scan only the rows of {@code clip}; the vertex hull is not measured, as the row walk
+     * already skips a polygon outside the clip.
+     */
+    @Override
+    public void render(Raster raster, Rectangle clip) {
+        rasterizerFor(raster).rasterize(polygon, getColor().getRGB(), rule, clip);
+    }
+
+    private static PolygonFillRasterizer rasterizerFor(Raster raster) {
+        PolygonFillRasterizer rasterizer = RASTERIZER.get();
+        if (rasterizer == null || rasterizer.getRaster() != raster) {
+            rasterizer = new PolygonFillRasterizer(raster);
+            RASTERIZER.set(rasterizer);
+        }
+        return rasterizer;
+    }
+
+    @Override
+    public boolean hasVertex(Point point) {
+        return polygon.hasVertex(point);
+    }
+
+    @Override
+    public long getMemoryFootprint() {
+        return 32;
+    }
+}
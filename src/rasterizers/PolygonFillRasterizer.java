@@ -0,0 +1,230 @@
+package rasterizers;
+
+import models.FillRule;
+import models.Point;
+import models.Polygon;
+import rasters.Raster;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * Scanline polygon fill with an active edge table.
+ * <p>
+ * Non-horizontal edges are sorted by their first row. On each row the edges starting there
+ * join the active table, edges that ended leave it, and every active crossing is advanced by
+ * exact integer stepping (quotient plus remainder, no floating point). Pixel x of row y is
+ * inside when the crossings at or left of x give an odd count (even-odd) or a non-zero winding
+ * sum (non-zero). Edges cover rows [top, bottom), so a vertex shared by two edges is counted
+ * once. Only the rows of the clip rectangle are walked, with each edge entering at its first
+ * row inside it, and spans are trimmed to the clip's columns. The work is
+ * O(edges + clipped rows + spans) and the only memory is the edge table, reused between calls.
+ * A translucent colour is blended over what is there.
+ */
+public class PolygonFillRasterizer {
+    // Packed edge records
+    private static final int BOTTOM = 0;
+    private static final int X = 1;
+    private static final int REMAINDER = 2;
+    private static final int STEP = 3;
+    private static final int STEP_REMAINDER = 4;
+    private static final int DY = 5;
+    private static final int DIRECTION = 6;
+    private static final int STRIDE = 7;
+
+    private final Raster raster;
+    private int[] edges = new int[16 * STRIDE];
+    // (first row << 32 | edge) so one primitive sort orders the edge table
+    private long[] starts = new long[16];
+    private int[] active = new int[16];
+    private int[] keys = new int[16];
+
+    public PolygonFillRasterizer(Raster raster) {
+        this.raster = raster;
+    }
+
+    Raster getRaster() {
+        return raster;
+    }
+
+    /**
+     * Fill within the raster's clip rectangle
+     */
+    public void rasterize(Polygon polygon, int color, FillRule rule) {
+        rasterize(polygon, color, rule, raster.getClip());
+    }
+
+    /**
+     * Fill only the pixels inside {@code clip}
+     */
+    public void rasterize(Polygon polygon, int color, FillRule rule, Rectangle clip) {
+        int vertexCount = polygon.getVertexCount();
+        if (vertexCount < 3) {
+            return;
+        }
+        int top = Math.max(0, clip.y);
+        int height = Math.min(raster.getHeight(), clip.y + clip.height);
+        int left = Math.max(0, clip.x);
+        int right = Math.min(raster.getWidth(), clip.x + clip.width) - 1;
+        if (top >= height || left > right) {
+            return;
+        }
+        boolean blend = color >>> 24 != 255;
+        ensureCapacity(vertexCount);
+        int edgeCount = 0;
+        Point previous = polygon.getVertex(vertexCount - 1);
+        for (int i = 0; i < vertexCount; i++) {
+            Point next = polygon.getVertex(i);
+            if (addEdge(edgeCount, previous.getX(), previous.getY(), next.getX(), next.getY(), top, height)) {
+                edgeCount++;
+            }
+            previous = next;
+        }
+        if (edgeCount == 0) {
+            return;
+        }
+        Arrays.sort(starts, 0, edgeCount);
+
+        boolean evenOdd = rule == FillRule.EVEN_ODD;
+        int activeCount = 0;
+        int nextEdge = 0;
+        int y = (int) (starts[0] >> 32);
+        while (nextEdge < edgeCount || activeCount > 0) {
+            if (activeCount == 0) {
+                y = (int) (starts[nextEdge] >> 32);
+            }
+            if (y >= height) {
+                return;
+            }
+
+            // Sort by crossing column rounded up. Edges still active were sorted on the previous
+            // row and rarely swap, so insertion sort is linear; new edges are inserted by search.
+            for (int i = 0; i < activeCount; i++) {
+                int edge = active[i];
+                int key = crossing(edge);
+                int j = i - 1;
+                while (j >= 0 && keys[j] > key) {
+                    keys[j + 1] = keys[j];
+                    active[j + 1] = active[j];
+                    j--;
+                }
+                keys[j + 1] = key;
+                active[j + 1] = edge;
+            }
+            while (nextEdge < edgeCount && (int) (starts[nextEdge] >> 32) == y) {
+                int edge = (int) starts[nextEdge++] * STRIDE;
+                int key = crossing(edge);
+                int position = Arrays.binarySearch(keys, 0, activeCount, key);
+                if (position < 0) {
+                    position = -position - 1;
+                }
+                System.arraycopy(keys, position, keys, position + 1, activeCount - position);
+                System.arraycopy(active, position, active, position + 1, activeCount - position);
+                keys[position] = key;
+                active[position] = edge;
+                activeCount++;
+            }
+
+            if (evenOdd) {
+                // Every row crosses the closed outline an even number of times
+                for (int i = 0; i + 1 < activeCount; i += 2) {
+                    if (keys[i + 1] > keys[i]) {
+                        span(y, keys[i], keys[i + 1] - 1, left, right, color, blend);
+                    }
+                }
+            } else {
+                int winding = 0;
+                int spanStart = 0;
+                for (int i = 0; i < activeCount; i++) {
+                    int before = winding;
+                    winding += edges[active[i] + DIRECTION];
+                    if (before == 0) {
+                        spanStart = keys[i];
+                    } else if (winding == 0 && keys[i] > spanStart) {
+                        span(y, spanStart, keys[i] - 1, left, right, color, blend);
+                    }
+                }
+            }
+
+            // Step to the next row, dropping edges that end there
+            y++;
+            int kept = 0;
+            for (int i = 0; i < activeCount; i++) {
+                int edge = active[i];
+                if (edges[edge + BOTTOM] <= y) {
+                    continue;
+                }
+                // Branch-free carry: the remainder overflows on an unpredictable half of the rows
+                int dy = edges[edge + DY];
+                int remainder = edges[edge + REMAINDER] + edges[edge + STEP_REMAINDER] - dy;
+                int borrow = remainder >> 31;
+                edges[edge + REMAINDER] = remainder + (dy & borrow);
+                edges[edge + X] += edges[edge + STEP] + 1 + borrow;
+                active[kept++] = edge;
+            }
+            activeCount = kept;
+        }
+    }
+
+    private void span(int y, int x0, int x1, int left, int right, int color, boolean blend) {
+        x0 = Math.max(left, x0);
+        x1 = Math.min(right, x1);
+        if (x0 > x1) {
+            return;
+        }
+        if (blend) {
+            raster.blendSpan(y, x0, x1, color);
+        } else {
+            raster.fillSpan(y, x0, x1, color);
+        }
+    }
+
+    private int crossing(int edge) {
+        return edges[edge + X] + (edges[edge + REMAINDER] > 0 ? 1 : 0);
+    }
+
+    /**
+     * Record the edge's crossing at its first row in [top, height).
+     *
+     * @return false if the edge is horizontal or covers none of those rows
+     */
+    private boolean addEdge(int index, int x0, int y0, int x1, int y1, int top, int height) {
+        int direction = 1;
+        if (y0 > y1) {
+            int temp = x0;
+            x0 = x1;
+            x1 = temp;
+            temp = y0;
+            y0 = y1;
+            y1 = temp;
+            direction = -1;
+        }
+        if (y0 == y1 || y1 <= top || y0 >= height) {
+            return false;
+        }
+        int first = Math.max(top, y0);
+        int dy = y1 - y0;
+        int dx = x1 - x0;
+        long offset = (long) dx * (first - y0);
+        int edge = index * STRIDE;
+        edges[edge + BOTTOM] = y1;
+        edges[edge + X] = x0 + (int) Math.floorDiv(offset, dy);
+        edges[edge + REMAINDER] = Math.floorMod(offset, dy);
+        edges[edge + STEP] = Math.floorDiv(dx, dy);
+        edges[edge + STEP_REMAINDER] = Math.floorMod(dx, dy);
+        edges[edge + DY] = dy;
+        edges[edge + DIRECTION] = direction;
+        starts[index] = (long) first << 32 | index;
+        return true;
+    }
+
+    private void ensureCapacity(int edgeCount) {
+        if (starts.length < edgeCount) {
+            int capacity = Math.max(edgeCount, starts.length * 2);
+            edges = new int[capacity * STRIDE];
+            starts = new long[capacity];
+            active = new int[capacity];
+            keys = new int[capacity];
+        }
+    }
+}
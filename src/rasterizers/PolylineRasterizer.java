@@ -0,0 +1,51 @@
+package rasterizers;
+
+import models.Point;
+import models.Polyline;
+import rasters.Raster;
+
+/**
+ * Draws polylines and polygons edge by edge with the solid line brush, straight from the
+ * vertex list. Adjacent edges overlap at their joints, so a translucent outline is collected
+ * in a {@link SpanUnion} first and every pixel is blended once.
+ */
+public class PolylineRasterizer {
+    private final BresenhamLineRasterizer lineRasterizer;
+    private final SpanUnion union;
+    private final BresenhamLineRasterizer unionRasterizer;
+
+    public PolylineRasterizer(Raster raster) {
+        lineRasterizer = new BresenhamLineRasterizer(raster);
+        union = new SpanUnion(raster);
+        unionRasterizer = new BresenhamLineRasterizer(union);
+    }
+
+    public void rasterize(Polyline polyline) {
+        int count = polyline.getVertexCount();
+        if (count == 0) {
+            return;
+        }
+        int color = polyline.getColor().getRGB();
+        int thickness = polyline.getThickness();
+        Point first = polyline.getVertex(0);
+        if (count == 1) {
+            lineRasterizer.rasterize(first.getX(), first.getY(), first.getX(), first.getY(), color, thickness);
+            return;
+        }
+        // Writing an opaque pixel twice changes nothing, so only translucent edges are merged
+        boolean opaque = color >>> 24 == 255;
+        BresenhamLineRasterizer edges = opaque ? lineRasterizer : unionRasterizer;
+        Point previous = first;
+        for (int i = 1; i < count; i++) {
+            Point next = polyline.getVertex(i);
+            edges.rasterize(previous.getX(), previous.getY(), next.getX(), next.getY(), color, thickness);
+            previous = next;
+        }
+        if (polyline.isClosed() && count >= 3) {
+            edges.rasterize(previous.getX(), previous.getY(), first.getX(), first.getY(), color, thickness);
+        }
+        if (!opaque) {
+            union.flush(color);
+        }
+    }
+}
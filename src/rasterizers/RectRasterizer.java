@@ -0,0 +1,52 @@
+package rasterizers;
+
+import models.Rect;
+import rasters.Raster;
+
+/**
+ * Rasterizes axis-aligned rectangle outlines as four rectangle fills: full-width bands along
+ * the top and bottom edges and the left and right bands between them. These cover exactly the
+ * pixels the square line brush covers along the four sides, each written once.
+ */
+public class RectRasterizer {
+    private final Raster raster;
+
+    public RectRasterizer(Raster raster) {
+        this.raster = raster;
+    }
+
+    public void rasterize(Rect rect) {
+        rasterize(rect.getCorner1().getX(), rect.getCorner1().getY(),
+                rect.getCorner2().getX(), rect.getCorner2().getY(),
+                rect.getColor().getRGB(), rect.getThickness());
+    }
+
+    public void rasterize(int x1, int y1, int x2, int y2, int color, int thickness) {
+        int halfThickness = Math.max(0, (thickness - 1) / 2);
+        int left = Math.min(x1, x2);
+        int right = Math.max(x1, x2);
+        int top = Math.min(y1, y2);
+        int bottom = Math.max(y1, y2);
+        int outerLeft = left - halfThickness;
+        int outerWidth = right - left + 2 * halfThickness + 1;
+
+        // The bottom band starts below the top band when the two would overlap
+        int topBandEnd = top + halfThickness;
+        int bottomBandStart = Math.max(bottom - halfThickness, topBandEnd + 1);
+        raster.fillRect(outerLeft, top - halfThickness, outerWidth, 2 * halfThickness + 1, color);
+        if (bottomBandStart <= bottom + halfThickness) {
+            raster.fillRect(outerLeft, bottomBandStart, outerWidth, bottom + halfThickness - bottomBandStart + 1, color);
+        }
+
+        int sideHeight = bottomBandStart - topBandEnd - 1;
+        if (sideHeight <= 0) {
+            return;
+        }
+        if (left + halfThickness >= right - halfThickness - 1) {
+            raster.fillRect(outerLeft, topBandEnd + 1, outerWidth, sideHeight, color);
+        } else {
+            raster.fillRect(outerLeft, topBandEnd + 1, 2 * halfThickness + 1, sideHeight, color);
+            raster.fillRect(right - halfThickness, topBandEnd + 1, 2 * halfThickness + 1, sideHeight, color);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package rasterizers;
+
+import Fillers.FillOperation;
+import diagnostics.FillReplayEvent;
+import diagnostics.LineRasterizationEvent;
+import models.LineCanvas;
+import rasters.ClippedRaster;
+import rasters.CountingRaster;
+import rasters.Raster;
+
+import java.awt.*;
+import java.util.List;
+
+/**
+ * Renders the committed scene: clear, fill history, then lines and shapes in drawing order.
+ * <p>
+ * Fill replay and line rasterization are reported as {@link FillReplayEvent} and
+ * {@link LineRasterizationEvent}. While either is being recorded, rendering goes through a
+ * {@link CountingRaster} so the events can say how many pixels were written.
+ */
+public class SceneRasterizer {
+    /**
+     * The rasterizers writing to one target, directly or through a clip rectangle
+     */
+    private static final class Pipeline {
+        private final Raster raster;
+        private final CountingRaster counter;
+        private final LineCanvasRasterizer lineCanvasRasterizer;
+        private final ParallelLineCanvasRasterizer parallelLineCanvasRasterizer;
+        private final ClippedRaster clippedRaster;
+        private final LineCanvasRasterizer clippedLineRasterizer;
+
+        private Pipeline(Raster raster, CountingRaster counter) {
+            this.raster = raster;
+            this.counter = counter;
+            lineCanvasRasterizer = new LineCanvasRasterizer(raster);
+            parallelLineCanvasRasterizer = new ParallelLineCanvasRasterizer(raster);
+            clippedRaster = new ClippedRaster(raster);
+            clippedLineRasterizer = new LineCanvasRasterizer(clippedRaster);
+        }
+
+        private long pixelsWritten() {
+            return counter == null ? 0 : counter.getPixelsWritten();
+        }
+    }
+
+    private final Raster raster;
+    private final Pipeline direct;
+    // Created the first time events are recorded
+    private Pipeline counting;
+    private int clearColor;
+    private boolean parallel;
+
+    public SceneRasterizer(Raster raster) {
+        this.raster = raster;
+        direct = new Pipeline(raster, null);
+    }
+
+    public void setClearColor(int color) {
+        clearColor = color;
+        setClearColor(direct, color);
+        if (counting != null) {
+            setClearColor(counting, color);
+        }
+    }
+
+    /**
+     * Rasterize lines of full renders tile-parallel on the common ForkJoinPool.
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public void rasterize(LineCanvas canvas, List<FillOperation> fillOperations) {
+        FillReplayEvent fillReplay = new FillReplayEvent();
+        LineRasterizationEvent lineRasterization = new LineRasterizationEvent();
+        Pipeline pipeline = select(fillReplay, lineRasterization);
+        pipeline.raster.clear();
+
+        fillReplay.begin();
+        long written = pipeline.pixelsWritten();
+        for (FillOperation op : fillOperations) {
+            op.render(pipeline.raster);
+        }
+        fillReplay.end();
+        if (fillReplay.shouldCommit()) {
+            fillReplay.fills = fillOperations.size();
+            fillReplay.pixels = pipeline.pixelsWritten() - written;
+            fillReplay.commit();
+        }
+
+        lineRasterization.begin();
+        written = pipeline.pixelsWritten();
+        if (parallel) {
+            pipeline.parallelLineCanvasRasterizer.rasterizeCanvas(canvas);
+        } else {
+            pipeline.lineCanvasRasterizer.rasterizeCanvas(canvas);
+        }
+        lineRasterization.end();
+        if (lineRasterization.shouldCommit()) {
+            // A full render draws everything
+            lineRasterization.lines = canvas.getLineStore().size() + canvas.getDottedLineStore().size();
+            lineRasterization.shapes = canvas.getShapes().size();
+            lineRasterization.pixels = pipeline.pixelsWritten() - written;
+            lineRasterization.parallel = parallel;
+            lineRasterization.commit();
+        }
+    }
+
+    /**
+     * Re-render only {@code clip}: fills, lines and shapes that do not intersect it are skipped and
+     * every write is clipped to it.
+     */
+    public void rasterize(LineCanvas canvas, List<FillOperation> fillOperations, Rectangle clip) {
+        FillReplayEvent fillReplay = new FillReplayEvent();
+        LineRasterizationEvent lineRasterization = new LineRasterizationEvent();
+        Pipeline pipeline = select(fillReplay, lineRasterization);
+        ClippedRaster clippedRaster = pipeline.clippedRaster;
+        clippedRaster.setClip(clip);
+        clip = clippedRaster.getClip();
+        if (clip.isEmpty()) {
+            return;
+        }
+        clippedRaster.clear();
+
+        fillReplay.begin();
+        long written = pipeline.pixelsWritten();
+        for (FillOperation op : fillOperations) {
+            op.render(clippedRaster, clip);
+        }
+        fillReplay.end();
+        if (fillReplay.shouldCommit()) {
+            fillReplay.fills = fillOperations.size();
+            fillReplay.pixels = pipeline.pixelsWritten() - written;
+            fillReplay.clipped = true;
+            fillReplay.commit();
+        }
+
+        lineRasterization.begin();
+        written = pipeline.pixelsWritten();
+        pipeline.clippedLineRasterizer.rasterizeCanvas(canvas, clip);
+        lineRasterization.end();
+        if (lineRasterization.shouldCommit()) {
+            lineRasterization.lines = pipeline.clippedLineRasterizer.getLinesDrawn();
+            lineRasterization.shapes = pipeline.clippedLineRasterizer.getShapesDrawn();
+            lineRasterization.pixels = pipeline.pixelsWritten() - written;
+            lineRasterization.clipped = true;
+            lineRasterization.commit();
+        }
+    }
+
+    private Pipeline select(FillReplayEvent fillReplay, LineRasterizationEvent lineRasterization) {
+        if (!fillReplay.isEnabled() && !lineRasterization.isEnabled()) {
+            return direct;
+        }
+        if (counting == null) {
+            CountingRaster counter = new CountingRaster(raster);
+            counting = new Pipeline(counter, counter);
+            setClearColor(counting, clearColor);
+        }
+        return counting;
+    }
+
+    private static void setClearColor(Pipeline pipeline, int color) {
+        pipeline.raster.setClearColor(color);
+        pipeline.clippedRaster.setClearColor(color);
+    }
+}
@@ -0,0 +1,40 @@
+package rasterizers;
+
+import models.Circle;
+import models.Ellipse;
+import models.Polyline;
+import models.Rect;
+import models.Shape;
+import rasters.Raster;
+
+/**
+ * Hands each {@link Shape} to the rasterizer dedicated to its kind. Polygon fills are not
+ * shapes; they are replayed with the fill history.
+ */
+public class ShapeRasterizer {
+    private final RectRasterizer rectRasterizer;
+    private final CircleRasterizer circleRasterizer;
+    private final EllipseRasterizer ellipseRasterizer;
+    private final PolylineRasterizer polylineRasterizer;
+
+    public ShapeRasterizer(Raster raster) {
+        rectRasterizer = new RectRasterizer(raster);
+        circleRasterizer = new CircleRasterizer(raster);
+        ellipseRasterizer = new EllipseRasterizer(raster);
+        polylineRasterizer = new PolylineRasterizer(raster);
+    }
+
+    public void rasterize(Shape shape) {
+        if (shape instanceof Rect rect) {
+            rectRasterizer.rasterize(rect);
+        } else if (shape instanceof Circle circle) {
+            circleRasterizer.rasterize(circle);
+        } else if (shape instanceof Ellipse ellipse) {
+            ellipseRasterizer.rasterize(ellipse);
+        } else if (shape instanceof Polyline polyline) {
+            polylineRasterizer.rasterize(polyline);
+        } else {
+            throw new IllegalArgumentException("No rasterizer for " + shape.getClass().getName());
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package rasterizers;
+
+import rasters.Raster;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * Raster view that records the spans written to it instead of drawing them. {@link #flush}
+ * then writes the union of everything recorded, row by row, to the target, so a primitive
+ * drawn in overlapping parts (the edges of a polyline meeting at a joint) touches every pixel
+ * once, which matters when the target blends. Reads, size and clip come from the target, and
+ * the recorded colour is ignored: all spans of one flush share a colour.
+ */
+class SpanUnion implements Raster {
+    private final Raster target;
+    // Recorded spans as (y, x0, x1) triples, already clipped
+    private int[] spans = new int[3 * 64];
+    private int size;
+    // Target clip, read at the first span after a flush
+    private Rectangle clip;
+    // Scratch for the row sort
+    private int[] rowStart = new int[64];
+    private int[] sorted = new int[2 * 64];
+
+    SpanUnion(Raster target) {
+        this.target = target;
+    }
+
+    /**
+     * Write the union of the recorded spans to the target in {@code color} and forget them.
+     */
+    void flush(int color) {
+        clip = null;
+        if (size == 0) {
+            return;
+        }
+        int minY = Integer.MAX_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            minY = Math.min(minY, spans[3 * i]);
+            maxY = Math.max(maxY, spans[3 * i]);
+        }
+        // Counting sort by row; a row holds one span per edge crossing it, so few to sort
+        int rows = maxY - minY + 1;
+        if (rowStart.length < rows + 1) {
+            rowStart = new int[Math.max(rows + 1, rowStart.length * 2)];
+        }
+        Arrays.fill(rowStart, 0, rows + 1, 0);
+        for (int i = 0; i < size; i++) {
+            rowStart[spans[3 * i] - minY + 1]++;
+        }
+        for (int row = 0; row < rows; row++) {
+            rowStart[row + 1] += rowStart[row];
+        }
+        if (sorted.length < 2 * size) {
+            sorted = new int[Math.max(2 * size, sorted.length * 2)];
+        }
+        for (int i = 0; i < size; i++) {
+            int at = rowStart[spans[3 * i] - minY]++;
+            sorted[2 * at] = spans[3 * i + 1];
+            sorted[2 * at + 1] = spans[3 * i + 2];
+        }
+        // rowStart[row] now holds the end of the row
+        int start = 0;
+        for (int row = 0; row < rows; row++) {
+            flushRow(minY + row, start, rowStart[row], color);
+            start = rowStart[row];
+        }
+        size = 0;
+    }
+
+    private void flushRow(int y, int start, int end, int color) {
+        for (int i = start + 1; i < end; i++) {
+            int x0 = sorted[2 * i];
+            int x1 = sorted[2 * i + 1];
+            int j = i - 1;
+            while (j >= start && sorted[2 * j] > x0) {
+                sorted[2 * j + 2] = sorted[2 * j];
+                sorted[2 * j + 3] = sorted[2 * j + 1];
+                j--;
+            }
+            sorted[2 * j + 2] = x0;
+            sorted[2 * j + 3] = x1;
+        }
+        int i = start;
+        while (i < end) {
+            int x0 = sorted[2 * i];
+            int x1 = sorted[2 * i + 1];
+            for (i++; i < end && sorted[2 * i] <= x1 + 1; i++) {
+                x1 = Math.max(x1, sorted[2 * i + 1]);
+            }
+            target.fillSpan(y, x0, x1, color);
+        }
+    }
+
+    @Override
+    public void fillSpan(int y, int x0, int x1, int color) {
+        if (clip == null) {
+            clip = target.getClip();
+        }
+        if (y < clip.y || y >= clip.y + clip.height) {
+            return;
+        }
+        int from = Math.max(clip.x, x0);
+        int to = Math.min(clip.x + clip.width - 1, x1);
+        if (from > to) {
+            return;
+        }
+        if (3 * size == spans.length) {
+            spans = Arrays.copyOf(spans, spans.length * 2);
+        }
+        spans[3 * size] = y;
+        spans[3 * size + 1] = from;
+        spans[3 * size + 2] = to;
+        size++;
+    }
+
+    @Override
+    public void setPixel(int x, int y, int color) {
+        fillSpan(y, x, x, color);
+    }
+
+    @Override
+    public void blendSpan(int y, int x0, int x1, int color) {
+        fillSpan(y, x0, x1, color);
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        clip = null;
+    }
+
+    @Override
+    public void setClearColor(int color) {
+        target.setClearColor(color);
+    }
+
+    @Override
+    public int getWidth() {
+        return target.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return target.getHeight();
+    }
+
+    @Override
+    public Rectangle getClip() {
+        return target.getClip();
+    }
+
+    @Override
+    public int getPixel(int x, int y) {
+        return target.getPixel(x, y);
+    }
+
+    @Override
+    public void repaint(Graphics graphics) {
+        target.repaint(graphics);
+    }
+}
@@ -7,6 +7,11 @@ import java.util.ArrayList;
 
 public class TrivialLineRasterizer implements Rasterizer {
     private Raster raster;
+    private final LineClipper clipper = new LineClipper();
+    // Brush of the line being drawn and the clip rectangle's rows
+    private BrushStamp stamp;
+    private int top;
+    private int bottom;
 
     public TrivialLineRasterizer(Raster raster) {
         this.raster = raster;
@@ -18,32 +23,36 @@ public class TrivialLineRasterizer implements Rasterizer {
         int y1 = line.getPoint1().getY();
         int x2 = line.getPoint2().getX();
         int y2 = line.getPoint2().getY();
+        int color = line.getColor().getRGB();
 
         // Handle thickness <= 1 as single pixel
-        int halfThickness = Math.max(0, (thickness - 1) / 2);
+        stamp = BrushStamp.of(line.getBrush(), thickness);
+        int halfThickness = stamp.getHalfSize();
+
+        // Visit only the points whose brush reaches the clip rectangle
+        clipper.setWindow(raster, halfThickness);
+        top = clipper.getTop() + halfThickness;
+        bottom = clipper.getBottom() - halfThickness;
+        if (clipper.rejects(Math.min(x1, x2), Math.min(y1, y2), Math.max(x1, x2), Math.max(y1, y2))) {
+            return;
+        }
 
         // Handle vertical lines (x1 == x2)
         if (x1 == x2) {
-            if (y1 > y2) {
-                int temp = y1;
-                y1 = y2;
-                y2 = temp;
-            }
-            for (int y = y1; y <= y2; y++) {
-                drawThickPoint(x1, y, halfThickness, line.getColor().getRGB());
+            int from = Math.max(Math.min(y1, y2), clipper.getTop());
+            int to = Math.min(Math.max(y1, y2), clipper.getBottom());
+            for (int y = from; y <= to; y++) {
+                stamp.stamp(raster, x1, y, color, top, bottom);
             }
             return;
         }
 
         // Handle horizontal lines (y1 == y2)
         if (y1 == y2) {
-            if (x1 > x2) {
-                int temp = x1;
-                x1 = x2;
-                x2 = temp;
-            }
-            for (int x = x1; x <= x2; x++) {
-                drawThickPoint(x, y1, halfThickness, line.getColor().getRGB());
+            int from = Math.max(Math.min(x1, x2), clipper.getLeft());
+            int to = Math.min(Math.max(x1, x2), clipper.getRight());
+            for (int x = from; x <= to; x++) {
+                stamp.stamp(raster, x, y1, color, top, bottom);
             }
             return;
         }
@@ -53,36 +62,24 @@ public class TrivialLineRasterizer implements Rasterizer {
         float q = y1 - (k * x1);
 
         if (Math.abs(k) < 1) {
-            if (x1 > x2) {
-                int temp = x1;
-                x1 = x2;
-                x2 = temp;
-            }
-            for (int x = x1; x <= x2; x++) {
+            // Columns where the rounded y can fall within the window, with a pixel to spare
+            double xA = (clipper.getTop() - 1 - q) / k;
+            double xB = (clipper.getBottom() + 1 - q) / k;
+            int from = (int) Math.max(Math.min(x1, x2), Math.max(clipper.getLeft(), Math.floor(Math.min(xA, xB))));
+            int to = (int) Math.min(Math.max(x1, x2), Math.min(clipper.getRight(), Math.ceil(Math.max(xA, xB))));
+            for (int x = from; x <= to; x++) {
                 int y = Math.round(k * x + q);
-                drawThickPoint(x, y, halfThickness, line.getColor().getRGB());
+                stamp.stamp(raster, x, y, color, top, bottom);
             }
         } else {
-            if (y1 > y2) {
-                int temp = y1;
-                y1 = y2;
-                y2 = temp;
-            }
-            for (int y = y1; y <= y2; y++) {
+            // Rows where the rounded x can fall within the window, with a pixel to spare
+            double yA = k * (clipper.getLeft() - 1) + q;
+            double yB = k * (clipper.getRight() + 1) + q;
+            int from = (int) Math.max(Math.min(y1, y2), Math.max(clipper.getTop(), Math.floor(Math.min(yA, yB))));
+            int to = (int) Math.min(Math.max(y1, y2), Math.min(clipper.getBottom(), Math.ceil(Math.max(yA, yB))));
+            for (int y = from; y <= to; y++) {
                 int x = Math.round((y - q) / k);
-                drawThickPoint(x, y, halfThickness, line.getColor().getRGB());
-            }
-        }
-    }
-
-    private void drawThickPoint(int x, int y, int halfThickness, int color) {
-        for (int dx = -halfThickness; dx <= halfThickness; dx++) {
-            for (int dy = -halfThickness; dy <= halfThickness; dy++) {
-                int px = x + dx;
-                int py = y + dy;
-                if (px >= 0 && px < raster.getWidth() && py >= 0 && py < raster.getHeight()) {
-                    raster.setPixel(px, py, color);
-                }
+                stamp.stamp(raster, x, y, color, top, bottom);
             }
         }
     }
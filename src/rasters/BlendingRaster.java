@@ -0,0 +1,91 @@
+package rasters;
+
+import java.awt.*;
+
+/**
+ * View of another raster that draws every write over what is already there (source-over)
+ * instead of replacing it, so rasterizers can draw translucent colours unchanged. Each write
+ * blends once; every rasterizer writes each pixel of a primitive once.
+ */
+public class BlendingRaster implements Raster {
+
+    private final Raster target;
+
+    public BlendingRaster(Raster target) {
+        this.target = target;
+    }
+
+    @Override
+    public void clear() {
+        target.clear();
+    }
+
+    @Override
+    public void setClearColor(int color) {
+        target.setClearColor(color);
+    }
+
+    @Override
+    public int getWidth() {
+        return target.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return target.getHeight();
+    }
+
+    @Override
+    public Rectangle getClip() {
+        return target.getClip();
+    }
+
+    @Override
+    public int getPixel(int x, int y) {
+        return target.getPixel(x, y);
+    }
+
+    @Override
+    public void setPixel(int x, int y, int color) {
+        target.blendSpan(y, x, x, color);
+    }
+
+    @Override
+    public void fillSpan(int y, int x0, int x1, int color) {
+        target.blendSpan(y, x0, x1, color);
+    }
+
+    @Override
+    public void blendSpan(int y, int x0, int x1, int color) {
+        target.blendSpan(y, x0, x1, color);
+    }
+
+    @Override
+    public void fillRect(int x, int y, int width, int height, int color) {
+        int top = Math.max(0, y);
+        int bottom = Math.min(getHeight(), y + height);
+        for (int row = top; row < bottom; row++) {
+            target.blendSpan(row, x, x + width - 1, color);
+        }
+    }
+
+    @Override
+    public void copyFrom(int[] src, int srcOffset, int srcStride, int x, int y, int width, int height) {
+        target.blendFrom(src, srcOffset, srcStride, x, y, width, height);
+    }
+
+    @Override
+    public void blendFrom(int[] src, int srcOffset, int srcStride, int x, int y, int width, int height) {
+        target.blendFrom(src, srcOffset, srcStride, x, y, width, height);
+    }
+
+    @Override
+    public void copyTo(int[] dst, int dstOffset, int dstStride, int x, int y, int width, int height) {
+        target.copyTo(dst, dstOffset, dstStride, x, y, width, height);
+    }
+
+    @Override
+    public void repaint(Graphics graphics) {
+        target.repaint(graphics);
+    }
+}
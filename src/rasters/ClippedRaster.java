@@ -0,0 +1,133 @@
+package rasters;
+
+import java.awt.*;
+
+/**
+ * View of another raster that drops every write outside a clip rectangle.
+ */
+public class ClippedRaster implements Raster {
+
+    private final Raster target;
+    private int clipX0;
+    private int clipY0;
+    private int clipX1;
+    private int clipY1;
+    private int color;
+
+    public ClippedRaster(Raster target) {
+        this.target = target;
+        setClip(new Rectangle(0, 0, target.getWidth(), target.getHeight()));
+    }
+
+    /**
+     * Set the clip rectangle, intersected with the target raster's bounds
+     */
+    public void setClip(Rectangle clip) {
+        clipX0 = Math.max(0, clip.x);
+        clipY0 = Math.max(0, clip.y);
+        clipX1 = Math.min(target.getWidth(), clip.x + clip.width) - 1;
+        clipY1 = Math.min(target.getHeight(), clip.y + clip.height) - 1;
+    }
+
+    @Override
+    public Rectangle getClip() {
+        return new Rectangle(clipX0, clipY0, clipX1 - clipX0 + 1, clipY1 - clipY0 + 1);
+    }
+
+    /**
+     * Clear only the clip rectangle
+     */
+    @Override
+    public void clear() {
+        fillRect(clipX0, clipY0, clipX1 - clipX0 + 1, clipY1 - clipY0 + 1, color);
+    }
+
+    @Override
+    public void setClearColor(int color) {
+        this.color = color;
+    }
+
+    @Override
+    public int getWidth() {
+        return target.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return target.getHeight();
+    }
+
+    @Override
+    public int getPixel(int x, int y) {
+        return target.getPixel(x, y);
+    }
+
+    @Override
+    public void setPixel(int x, int y, int color) {
+        if (x >= clipX0 && x <= clipX1 && y >= clipY0 && y <= clipY1) {
+            target.setPixel(x, y, color);
+        }
+    }
+
+    @Override
+    public void fillSpan(int y, int x0, int x1, int color) {
+        if (y >= clipY0 && y <= clipY1) {
+            int from = Math.max(clipX0, x0);
+            int to = Math.min(clipX1, x1);
+            if (from <= to) {
+                target.fillSpan(y, from, to, color);
+            }
+        }
+    }
+
+    @Override
+    public void blendSpan(int y, int x0, int x1, int color) {
+        if (y >= clipY0 && y <= clipY1) {
+            int from = Math.max(clipX0, x0);
+            int to = Math.min(clipX1, x1);
+            if (from <= to) {
+                target.blendSpan(y, from, to, color);
+            }
+        }
+    }
+
+    @Override
+    public void fillRect(int x, int y, int width, int height, int color) {
+        int left = Math.max(clipX0, x);
+        int top = Math.max(clipY0, y);
+        int right = Math.min(clipX1 + 1, x + width);
+        int bottom = Math.min(clipY1 + 1, y + height);
+        if (left < right && top < bottom) {
+            target.fillRect(left, top, right - left, bottom - top, color);
+        }
+    }
+
+    @Override
+    public void copyFrom(int[] src, int srcOffset, int srcStride, int x, int y, int width, int height) {
+        int left = Math.max(clipX0, x);
+        int top = Math.max(clipY0, y);
+        int right = Math.min(clipX1 + 1, x + width);
+        int bottom = Math.min(clipY1 + 1, y + height);
+        if (left < right && top < bottom) {
+            target.copyFrom(src, srcOffset + (top - y) * srcStride + (left - x), srcStride,
+                    left, top, right - left, bottom - top);
+        }
+    }
+
+    @Override
+    public void blendFrom(int[] src, int srcOffset, int srcStride, int x, int y, int width, int height) {
+        int left = Math.max(clipX0, x);
+        int top = Math.max(clipY0, y);
+        int right = Math.min(clipX1 + 1, x + width);
+        int bottom = Math.min(clipY1 + 1, y + height);
+        if (left < right && top < bottom) {
+            target.blendFrom(src, srcOffset + (top - y) * srcStride + (left - x), srcStride,
+                    left, top, right - left, bottom - top);
+        }
+    }
+
+    @Override
+    public void repaint(Graphics graphics) {
+        target.repaint(graphics);
+    }
+}
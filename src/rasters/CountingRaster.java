@@ -0,0 +1,116 @@
+package rasters;
+
+import java.awt.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * View of another raster that counts the pixels written through it. Safe to write from several
+ * threads at once as long as the target is.
+ */
+public class CountingRaster implements Raster {
+
+    private final Raster target;
+    private final LongAdder written = new LongAdder();
+
+    public CountingRaster(Raster target) {
+        this.target = target;
+    }
+
+    /**
+     * Pixels written so far, overdraw included
+     */
+    public long getPixelsWritten() {
+        return written.sum();
+    }
+
+    @Override
+    public void clear() {
+        target.clear();
+        written.add((long) target.getWidth() * target.getHeight());
+    }
+
+    @Override
+    public void setClearColor(int color) {
+        target.setClearColor(color);
+    }
+
+    @Override
+    public int getWidth() {
+        return target.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return target.getHeight();
+    }
+
+    @Override
+    public Rectangle getClip() {
+        return target.getClip();
+    }
+
+    @Override
+    public int getPixel(int x, int y) {
+        return target.getPixel(x, y);
+    }
+
+    @Override
+    public void setPixel(int x, int y, int color) {
+        if (x >= 0 && x < target.getWidth() && y >= 0 && y < target.getHeight()) {
+            written.increment();
+        }
+        target.setPixel(x, y, color);
+    }
+
+    @Override
+    public void fillSpan(int y, int x0, int x1, int color) {
+        if (y >= 0 && y < target.getHeight()) {
+            int from = Math.max(0, x0);
+            int to = Math.min(target.getWidth() - 1, x1);
+            if (from <= to) {
+                written.add(to - from + 1);
+            }
+        }
+        target.fillSpan(y, x0, x1, color);
+    }
+
+    @Override
+    public void blendSpan(int y, int x0, int x1, int color) {
+        written.add(clippedArea(x0, y, x1 - x0 + 1, 1));
+        target.blendSpan(y, x0, x1, color);
+    }
+
+    @Override
+    public void fillRect(int x, int y, int width, int height, int color) {
+        written.add(clippedArea(x, y, width, height));
+        target.fillRect(x, y, width, height, color);
+    }
+
+    @Override
+    public void copyFrom(int[] src, int srcOffset, int srcStride, int x, int y, int width, int height) {
+        written.add(clippedArea(x, y, width, height));
+        target.copyFrom(src, srcOffset, srcStride, x, y, width, height);
+    }
+
+    @Override
+    public void blendFrom(int[] src, int srcOffset, int srcStride, int x, int y, int width, int height) {
+        written.add(clippedArea(x, y, width, height));
+        target.blendFrom(src, srcOffset, srcStride, x, y, width, height);
+    }
+
+    @Override
+    public void copyTo(int[] dst, int dstOffset, int dstStride, int x, int y, int width, int height) {
+        target.copyTo(dst, dstOffset, dstStride, x, y, width, height);
+    }
+
+    @Override
+    public void repaint(Graphics graphics) {
+        target.repaint(graphics);
+    }
+
+    private long clippedArea(int x, int y, int width, int height) {
+        long w = Math.min(target.getWidth(), x + width) - Math.max(0, x);
+        long h = Math.min(target.getHeight(), y + height) - Math.max(0, y);
+        return w > 0 && h > 0 ? w * h : 0;
+    }
+}
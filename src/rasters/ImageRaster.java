@@ -0,0 +1,27 @@
+package rasters;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Raster whose pixels live in one {@link BufferedImage}, so Swing can draw it and ImageIO can
+ * write it as it is. Rasters without a single image, such as {@link TiledRaster}, are drawn
+ * with {@link #repaint} or read out with {@link #copyTo}.
+ */
+public interface ImageRaster extends Raster {
+
+    /**
+     * Graphics drawing straight into the backing image
+     *
+     * @return new graphics context; dispose it when done
+     */
+    Graphics getGraphics();
+
+    /**
+     * Backing image, sharing the raster's pixels
+     *
+     * @return image
+     */
+    BufferedImage getImg();
+
+}
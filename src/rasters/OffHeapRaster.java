@@ -0,0 +1,303 @@
+package rasters;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * ARGB raster whose pixels live outside the Java heap, in direct buffers or in a memory-mapped
+ * file, so a large canvas neither grows the heap nor lengthens garbage collection. A mapped
+ * raster is paged in by the operating system as it is touched and may be larger than RAM.
+ * <p>
+ * Pixels are row-major with a stride of {@link #getWidth()}, split into chunks of whole rows
+ * because a single buffer holds at most 2 GB; mapped files use the native byte order.
+ * {@link #getImageView()} is a view over the same memory, so drawing it never copies the raster.
+ * Images address pixels with an int, so rasters of more than 2^31 - 1 pixels have no image
+ * view; {@link #repaint}, {@link #getRow} and {@link #copyTo} work at any size, and
+ * {@link PngStripWriter} exports them in strips.
+ */
+public class OffHeapRaster implements Raster {
+    // Largest chunk, in bytes; rows never straddle two chunks
+    private static final long MAX_CHUNK_BYTES = 1L << 30;
+    private static final int STRIP_ROWS = 32;
+
+    private final int width;
+    private final int height;
+    private final int rowsPerChunk;
+    private final IntBuffer[] chunks;
+    private final ByteBuffer[] mappings;
+    private BufferedImage img;
+    // Heap staging rows for repaint
+    private BufferedImage strip;
+    private int color;
+
+    private OffHeapRaster(int width, int height, ByteBuffer[] buffers) {
+        this.width = width;
+        this.height = height;
+        rowsPerChunk = rowsPerChunk(width);
+        mappings = buffers;
+        chunks = new IntBuffer[buffers.length];
+        for (int i = 0; i < buffers.length; i++) {
+            chunks[i] = buffers[i].order(ByteOrder.nativeOrder()).asIntBuffer();
+        }
+    }
+
+    /**
+     * Raster in freshly allocated direct memory, all pixels 0
+     */
+    public OffHeapRaster(int width, int height) {
+        this(width, height, allocate(width, height));
+    }
+
+    /**
+     * Raster backed by a file, created or resized to {@code 4 * width * height} bytes. Pixels
+     * already in the file are kept; new space reads as 0. Writes reach the file when the
+     * operating system flushes them or on {@link #force()}.
+     */
+    public static OffHeapRaster map(Path file, int width, int height) throws IOException {
+        checkSize(width, height);
+        int rows = rowsPerChunk(width);
+        ByteBuffer[] buffers = new ByteBuffer[(height + rows - 1) / rows];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            long size = 4L * width * height;
+            if (channel.size() > size) {
+                channel.truncate(size);
+            }
+            for (int i = 0; i < buffers.length; i++) {
+                long start = 4L * width * rows * i;
+                buffers[i] = channel.map(FileChannel.MapMode.READ_WRITE, start, Math.min(size - start,
+                        4L * width * rows));
+            }
+        }
+        return new OffHeapRaster(width, height, buffers);
+    }
+
+    /**
+     * Write changed pixels of a mapped raster back to its file; does nothing for direct memory.
+     */
+    public void force() {
+        for (ByteBuffer mapping : mappings) {
+            if (mapping instanceof MappedByteBuffer mapped) {
+                mapped.force();
+            }
+        }
+    }
+
+    /**
+     * Row {@code y} as a buffer sharing the raster's memory, positioned at column 0
+     */
+    public IntBuffer getRow(int y) {
+        return chunks[y / rowsPerChunk].slice((y % rowsPerChunk) * width, width);
+    }
+
+    /**
+     * Copy {@code length} pixels of row {@code y}, starting at column {@code x}, into {@code dst}.
+     */
+    public void getRow(int y, int x, int[] dst, int dstOffset, int length) {
+        chunks[y / rowsPerChunk].get((y % rowsPerChunk) * width + x, dst, dstOffset, length);
+    }
+
+    /**
+     * Overwrite {@code length} pixels of row {@code y}, starting at column {@code x}, from {@code src}.
+     */
+    public void setRow(int y, int x, int[] src, int srcOffset, int length) {
+        chunks[y / rowsPerChunk].put((y % rowsPerChunk) * width + x, src, srcOffset, length);
+    }
+
+    @Override
+    public int getPixel(int x, int y) {
+        return chunks[y / rowsPerChunk].get((y % rowsPerChunk) * width + x);
+    }
+
+    @Override
+    public void setPixel(int x, int y, int color) {
+        chunks[y / rowsPerChunk].put((y % rowsPerChunk) * width + x, color);
+    }
+
+    @Override
+    public void fillSpan(int y, int x0, int x1, int color) {
+        if (y < 0 || y >= height) {
+            return;
+        }
+        int from = Math.max(0, x0);
+        int to = Math.min(width - 1, x1);
+        IntBuffer chunk = chunks[y / rowsPerChunk];
+        int row = (y % rowsPerChunk) * width;
+        for (int i = row + from; i <= row + to; i++) {
+            chunk.put(i, color);
+        }
+    }
+
+    @Override
+    public void fillRect(int x, int y, int width, int height, int color) {
+        int left = Math.max(0, x);
+        int right = Math.min(this.width, x + width);
+        int top = Math.max(0, y);
+        int bottom = Math.min(this.height, y + height);
+        if (left >= right) {
+            return;
+        }
+        for (int row = top; row < bottom; row++) {
+            fillSpan(row, left, right - 1, color);
+        }
+    }
+
+    @Override
+    public void copyFrom(int[] src, int srcOffset, int srcStride, int x, int y, int width, int height) {
+        int left = Math.max(0, x);
+        int right = Math.min(this.width, x + width);
+        int top = Math.max(0, y);
+        int bottom = Math.min(this.height, y + height);
+        if (left >= right) {
+            return;
+        }
+        for (int row = top; row < bottom; row++) {
+            setRow(row, left, src, srcOffset + (row - y) * srcStride + (left - x), right - left);
+        }
+    }
+
+    @Override
+    public void copyTo(int[] dst, int dstOffset, int dstStride, int x, int y, int width, int height) {
+        int left = Math.max(0, x);
+        int right = Math.min(this.width, x + width);
+        int top = Math.max(0, y);
+        int bottom = Math.min(this.height, y + height);
+        if (left >= right) {
+            return;
+        }
+        for (int row = top; row < bottom; row++) {
+            getRow(row, left, dst, dstOffset + (row - y) * dstStride + (left - x), right - left);
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (IntBuffer chunk : chunks) {
+            int length = chunk.capacity();
+            int filled = Math.min(width, length);
+            for (int i = 0; i < filled; i++) {
+                chunk.put(i, color);
+            }
+            // Double the cleared prefix with bulk copies instead of storing pixel by pixel
+            while (filled < length) {
+                int count = Math.min(filled, length - filled);
+                chunk.put(filled, chunk, 0, count);
+                filled += count;
+            }
+        }
+    }
+
+    @Override
+    public void setClearColor(int color) {
+        this.color = color;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * {@code TYPE_CUSTOM} ARGB image over the raster's memory; pixels written through either
+     * side are visible to the other.
+     *
+     * @return the view, or empty when the raster has more than 2^31 - 1 pixels
+     */
+    public Optional<BufferedImage> getImageView() {
+        if ((long) width * height > Integer.MAX_VALUE) {
+            return Optional.empty();
+        }
+        if (img == null) {
+            SinglePixelPackedSampleModel model = new SinglePixelPackedSampleModel(DataBuffer.TYPE_INT, width, height,
+                    new int[]{0xff0000, 0xff00, 0xff, 0xff000000});
+            WritableRaster raster = java.awt.image.Raster.createWritableRaster(model, new ChunkDataBuffer(), null);
+            img = new BufferedImage(ColorModel.getRGBdefault(), raster, false, null);
+        }
+        return Optional.of(img);
+    }
+
+    /**
+     * Draw the part of the raster inside the graphics clip. Java2D reads a custom image view a
+     * pixel at a time, so the clip is moved through a small heap strip in bulk row copies and
+     * drawn from there, which is several times faster than drawing {@link #getImageView()}.
+     */
+    @Override
+    public void repaint(Graphics graphics) {
+        Rectangle clip = graphics.getClipBounds();
+        Rectangle region = clip == null ? new Rectangle(0, 0, width, height)
+                : clip.intersection(new Rectangle(0, 0, width, height));
+        if (region.isEmpty()) {
+            return;
+        }
+        if (strip == null || strip.getWidth() < region.width) {
+            strip = new BufferedImage(region.width, STRIP_ROWS, BufferedImage.TYPE_INT_ARGB);
+        }
+        int[] pixels = ((DataBufferInt) strip.getRaster().getDataBuffer()).getData();
+        int stride = strip.getWidth();
+        for (int y = region.y; y < region.y + region.height; y += STRIP_ROWS) {
+            int rows = Math.min(STRIP_ROWS, region.y + region.height - y);
+            copyTo(pixels, 0, stride, region.x, y, region.width, rows);
+            graphics.drawImage(strip, region.x, y, region.x + region.width, y + rows, 0, 0, region.width, rows, null);
+        }
+    }
+
+    private static ByteBuffer[] allocate(int width, int height) {
+        checkSize(width, height);
+        int rows = rowsPerChunk(width);
+        ByteBuffer[] buffers = new ByteBuffer[(height + rows - 1) / rows];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = ByteBuffer.allocateDirect(4 * width * Math.min(rows, height - rows * i));
+        }
+        return buffers;
+    }
+
+    private static void checkSize(int width, int height) {
+        if (width <= 0 || height <= 0 || 4L * width > MAX_CHUNK_BYTES) {
+            throw new IllegalArgumentException("Bad raster size " + width + "x" + height);
+        }
+    }
+
+    private static int rowsPerChunk(int width) {
+        return (int) (MAX_CHUNK_BYTES / (4L * width));
+    }
+
+    /**
+     * Single-bank data buffer over the chunks, indexed like one row-major array
+     */
+    private class ChunkDataBuffer extends DataBuffer {
+        private final int chunkPixels = rowsPerChunk * width;
+
+        ChunkDataBuffer() {
+            super(DataBuffer.TYPE_INT, width * height);
+        }
+
+        @Override
+        public int getElem(int bank, int i) {
+            return chunks[i / chunkPixels].get(i % chunkPixels);
+        }
+
+        @Override
+        public void setElem(int bank, int i, int val) {
+            chunks[i / chunkPixels].put(i % chunkPixels, val);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package rasters;
+
+import java.awt.*;
+
+/**
+ * Transparent raster that remembers the bounding box of everything written since the last
+ * {@link #clearDirty()}, so a preview can be erased without touching the rest of the image.
+ */
+public class OverlayRaster extends RasterDataBuffer {
+
+    private int minX = Integer.MAX_VALUE;
+    private int minY = Integer.MAX_VALUE;
+    private int maxX = Integer.MIN_VALUE;
+    private int maxY = Integer.MIN_VALUE;
+
+    public OverlayRaster(int width, int height) {
+        super(width, height);
+        setClearColor(0);
+    }
+
+    @Override
+    public void setPixel(int x, int y, int color) {
+        super.setPixel(x, y, color);
+        include(x, y, x, y);
+    }
+
+    @Override
+    public void fillSpan(int y, int x0, int x1, int color) {
+        super.fillSpan(y, x0, x1, color);
+        include(x0, y, x1, y);
+    }
+
+    @Override
+    public void blendSpan(int y, int x0, int x1, int color) {
+        super.blendSpan(y, x0, x1, color);
+        include(x0, y, x1, y);
+    }
+
+    @Override
+    public void fillRect(int x, int y, int width, int height, int color) {
+        super.fillRect(x, y, width, height, color);
+        include(x, y, x + width - 1, y + height - 1);
+    }
+
+    @Override
+    public void copyFrom(int[] src, int srcOffset, int srcStride, int x, int y, int width, int height) {
+        super.copyFrom(src, srcOffset, srcStride, x, y, width, height);
+        include(x, y, x + width - 1, y + height - 1);
+    }
+
+    @Override
+    public void blendFrom(int[] src, int srcOffset, int srcStride, int x, int y, int width, int height) {
+        super.blendFrom(src, srcOffset, srcStride, x, y, width, height);
+        include(x, y, x + width - 1, y + height - 1);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        resetDirty();
+    }
+
+    /**
+     * Bounds of the pixels written since the last clear, clipped to the raster, or null if none
+     */
+    public Rectangle getDirtyBounds() {
+        int left = Math.max(0, minX);
+        int top = Math.max(0, minY);
+        int right = Math.min(getWidth() - 1, maxX);
+        int bottom = Math.min(getHeight() - 1, maxY);
+        if (left > right || top > bottom) {
+            return null;
+        }
+        return new Rectangle(left, top, right - left + 1, bottom - top + 1);
+    }
+
+    /**
+     * Reset only the pixels written since the last clear to transparent.
+     */
+    public void clearDirty() {
+        Rectangle dirty = getDirtyBounds();
+        if (dirty != null) {
+            super.fillRect(dirty.x, dirty.y, dirty.width, dirty.height, 0);
+        }
+        resetDirty();
+    }
+
+    private void include(int x0, int y0, int x1, int y1) {
+        if (x0 < minX) minX = x0;
+        if (y0 < minY) minY = y0;
+        if (x1 > maxX) maxX = x1;
+        if (y1 > maxY) maxY = y1;
+    }
+
+    private void resetDirty() {
+        minX = Integer.MAX_VALUE;
+        minY = Integer.MAX_VALUE;
+        maxX = Integer.MIN_VALUE;
+        maxY = Integer.MIN_VALUE;
+    }
+}
@@ -0,0 +1,143 @@
+package rasters;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes any {@link Raster} as an 8-bit RGBA PNG, reading it a strip of rows at a time through
+ * {@link Raster#copyTo}. Nothing the size of the whole image is ever held, so tiled and
+ * off-heap rasters of any size export without an image view.
+ */
+public final class PngStripWriter {
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+    // Pixels read per strip
+    private static final int STRIP_PIXELS = 1 << 16;
+    private static final int IDAT_BYTES = 1 << 16;
+    private static final int FILTER_SUB = 1;
+
+    private PngStripWriter() {
+    }
+
+    public static void write(Raster raster, Path file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            write(raster, out);
+        }
+    }
+
+    public static void write(Raster raster, OutputStream out) throws IOException {
+        int width = raster.getWidth();
+        int height = raster.getHeight();
+        out.write(SIGNATURE);
+        ChunkStream header = new ChunkStream(out, "IHDR", 13);
+        DataOutputStream ihdr = new DataOutputStream(header);
+        ihdr.writeInt(width);
+        ihdr.writeInt(height);
+        // 8 bits per sample, RGBA, deflate, adaptive filtering, no interlace
+        ihdr.write(new byte[]{8, 6, 0, 0, 0});
+        header.close();
+
+        int stripRows = Math.max(1, STRIP_PIXELS / width);
+        int[] pixels = new int[width * stripRows];
+        byte[] line = new byte[1 + 4 * width];
+        line[0] = FILTER_SUB;
+        Deflater deflater = new Deflater();
+        try (DeflaterOutputStream idat = new DeflaterOutputStream(new ChunkStream(out, "IDAT", IDAT_BYTES), deflater,
+                IDAT_BYTES)) {
+            for (int y = 0; y < height; y += stripRows) {
+                int rows = Math.min(stripRows, height - y);
+                raster.copyTo(pixels, 0, width, 0, y, width, rows);
+                for (int row = 0; row < rows; row++) {
+                    encodeRow(pixels, row * width, width, line);
+                    idat.write(line);
+                }
+            }
+        } finally {
+            deflater.end();
+        }
+        new ChunkStream(out, "IEND", 0).close();
+        out.flush();
+    }
+
+    /**
+     * ARGB pixels to Sub-filtered RGBA bytes: each byte minus the same sample one pixel left
+     */
+    private static void encodeRow(int[] pixels, int offset, int width, byte[] line) {
+        int previous = 0;
+        for (int x = 0, i = 1; x < width; x++, i += 4) {
+            int argb = pixels[offset + x];
+            line[i] = (byte) ((argb >>> 16) - (previous >>> 16));
+            line[i + 1] = (byte) ((argb >>> 8) - (previous >>> 8));
+            line[i + 2] = (byte) (argb - previous);
+            line[i + 3] = (byte) ((argb >>> 24) - (previous >>> 24));
+            previous = argb;
+        }
+    }
+
+    /**
+     * Buffers written bytes into PNG chunks of the given type, each at most {@code capacity}
+     * bytes long, with their length and CRC; closing emits the last chunk but not the target.
+     */
+    private static final class ChunkStream extends OutputStream {
+        private final OutputStream target;
+        private final byte[] type;
+        private final byte[] buffer;
+        private int size;
+        private boolean written;
+
+        ChunkStream(OutputStream target, String type, int capacity) {
+            this.target = target;
+            this.type = type.getBytes(StandardCharsets.US_ASCII);
+            buffer = new byte[capacity];
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (size == buffer.length) {
+                emit();
+            }
+            buffer[size++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (size == buffer.length) {
+                    emit();
+                }
+                int count = Math.min(len, buffer.length - size);
+                System.arraycopy(b, off, buffer, size, count);
+                size += count;
+                off += count;
+                len -= count;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (size > 0 || !written) {
+                emit();
+            }
+        }
+
+        private void emit() throws IOException {
+            CRC32 crc = new CRC32();
+            crc.update(type);
+            crc.update(buffer, 0, size);
+            DataOutputStream out = new DataOutputStream(target);
+            out.writeInt(size);
+            out.write(type);
+            out.write(buffer, 0, size);
+            out.writeInt((int) crc.getValue());
+            size = 0;
+            written = true;
+        }
+    }
+}
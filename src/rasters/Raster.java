@@ -1,7 +1,6 @@
 package rasters;
 
 import java.awt.*;
-import java.awt.image.BufferedImage;
 
 public interface Raster {
 
@@ -32,6 +31,16 @@ public interface Raster {
      */
     int getHeight();
 
+    /**
+     * Get the rectangle writes take effect in; rasterizers clip primitives to it before stepping
+     * them
+     *
+     * @return clip rectangle, by default the whole raster
+     */
+    default Rectangle getClip() {
+        return new Rectangle(0, 0, getWidth(), getHeight());
+    }
+
     /**
      * Get pixel color at [x,y] position
      *
@@ -55,10 +64,174 @@ public interface Raster {
      */
     void setPixel(int x, int y, int color);
 
-    Graphics getGraphics();
+    /**
+     * Fill a horizontal run of pixels, clipped to the raster
+     *
+     * @param y
+     *            row
+     * @param x0
+     *            first column (inclusive)
+     * @param x1
+     *            last column (inclusive)
+     * @param color
+     *            pixel color
+     */
+    default void fillSpan(int y, int x0, int x1, int color) {
+        if (y < 0 || y >= getHeight()) {
+            return;
+        }
+        int from = Math.max(0, x0);
+        int to = Math.min(getWidth() - 1, x1);
+        for (int x = from; x <= to; x++) {
+            setPixel(x, y, color);
+        }
+    }
 
-    void repaint(Graphics graphics);
+    /**
+     * Draw a colour over a horizontal run of pixels (source-over), clipped to the raster
+     *
+     * @param y
+     *            row
+     * @param x0
+     *            first column (inclusive)
+     * @param x1
+     *            last column (inclusive)
+     * @param color
+     *            ARGB color, alpha not premultiplied
+     */
+    default void blendSpan(int y, int x0, int x1, int color) {
+        if (y < 0 || y >= getHeight()) {
+            return;
+        }
+        int from = Math.max(0, x0);
+        int to = Math.min(getWidth() - 1, x1);
+        for (int x = from; x <= to; x++) {
+            setPixel(x, y, SpanCompositor.over(getPixel(x, y), color));
+        }
+    }
+
+    /**
+     * Fill a rectangle, clipped to the raster
+     *
+     * @param x
+     *            left column
+     * @param y
+     *            top row
+     * @param width
+     *            rectangle width
+     * @param height
+     *            rectangle height
+     * @param color
+     *            pixel color
+     */
+    default void fillRect(int x, int y, int width, int height, int color) {
+        int top = Math.max(0, y);
+        int bottom = Math.min(getHeight(), y + height);
+        for (int row = top; row < bottom; row++) {
+            fillSpan(row, x, x + width - 1, color);
+        }
+    }
+
+    /**
+     * Copy a block of pixels from a row-major array into the raster, clipped to the raster
+     *
+     * @param src
+     *            source pixels
+     * @param srcOffset
+     *            index of the block's top-left pixel in {@code src}
+     * @param srcStride
+     *            distance between rows in {@code src}
+     * @param x
+     *            destination left column
+     * @param y
+     *            destination top row
+     * @param width
+     *            block width
+     * @param height
+     *            block height
+     */
+    default void copyFrom(int[] src, int srcOffset, int srcStride, int x, int y, int width, int height) {
+        int left = Math.max(0, x);
+        int right = Math.min(getWidth(), x + width);
+        int top = Math.max(0, y);
+        int bottom = Math.min(getHeight(), y + height);
+        for (int row = top; row < bottom; row++) {
+            int srcRow = srcOffset + (row - y) * srcStride - x;
+            for (int col = left; col < right; col++) {
+                setPixel(col, row, src[srcRow + col]);
+            }
+        }
+    }
 
-    BufferedImage getImg();
+    /**
+     * Draw a block of pixels from a row-major array over the raster (source-over, each pixel
+     * with its own alpha), clipped to the raster
+     *
+     * @param src
+     *            source pixels
+     * @param srcOffset
+     *            index of the block's top-left pixel in {@code src}
+     * @param srcStride
+     *            distance between rows in {@code src}
+     * @param x
+     *            destination left column
+     * @param y
+     *            destination top row
+     * @param width
+     *            block width
+     * @param height
+     *            block height
+     */
+    default void blendFrom(int[] src, int srcOffset, int srcStride, int x, int y, int width, int height) {
+        int left = Math.max(0, x);
+        int right = Math.min(getWidth(), x + width);
+        int top = Math.max(0, y);
+        int bottom = Math.min(getHeight(), y + height);
+        for (int row = top; row < bottom; row++) {
+            int srcRow = srcOffset + (row - y) * srcStride - x;
+            for (int col = left; col < right; col++) {
+                setPixel(col, row, SpanCompositor.over(getPixel(col, row), src[srcRow + col]));
+            }
+        }
+    }
+
+    /**
+     * Copy a block of pixels out of the raster into a row-major array, clipped to the raster
+     *
+     * @param dst
+     *            destination pixels
+     * @param dstOffset
+     *            index of the block's top-left pixel in {@code dst}
+     * @param dstStride
+     *            distance between rows in {@code dst}
+     * @param x
+     *            source left column
+     * @param y
+     *            source top row
+     * @param width
+     *            block width
+     * @param height
+     *            block height
+     */
+    default void copyTo(int[] dst, int dstOffset, int dstStride, int x, int y, int width, int height) {
+        int left = Math.max(0, x);
+        int right = Math.min(getWidth(), x + width);
+        int top = Math.max(0, y);
+        int bottom = Math.min(getHeight(), y + height);
+        for (int row = top; row < bottom; row++) {
+            int dstRow = dstOffset + (row - y) * dstStride - x;
+            for (int col = left; col < right; col++) {
+                dst[dstRow + col] = getPixel(col, row);
+            }
+        }
+    }
+
+    /**
+     * Draw the raster onto {@code graphics} at the origin
+     *
+     * @param graphics
+     *            target, e.g. a Swing component's
+     */
+    void repaint(Graphics graphics);
 
 }
@@ -3,7 +3,7 @@ package rasters;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 
-public class RasterBufferedImage implements Raster {
+public class RasterBufferedImage implements ImageRaster {
 
     private final BufferedImage img;
     private int color;
@@ -31,7 +31,6 @@ public class RasterBufferedImage implements Raster {
 
     @Override
     public void setPixel(int x, int y, int color) {
-        System.out.println("Setting pixel at (" + x + ", " + y + ") to color: 0x" + Integer.toHexString(color));
         img.setRGB(x, y, color);
     }
 
@@ -0,0 +1,175 @@
+package rasters;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * Raster that reads and writes the {@link DataBufferInt} backing array of an int-packed image directly.
+ * Blending runs through the {@link SpanCompositor} kernels.
+ */
+public class RasterDataBuffer implements ImageRaster {
+    private static final SpanCompositor COMPOSITOR = SpanCompositor.get();
+
+    private final BufferedImage img;
+    private final int[] pixels;
+    private final int width;
+    private final int height;
+    private int color;
+
+    public RasterDataBuffer(int width, int height) {
+        this(width, height, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    public RasterDataBuffer(int width, int height, int imageType) {
+        if (imageType != BufferedImage.TYPE_INT_ARGB && imageType != BufferedImage.TYPE_INT_RGB
+                && imageType != BufferedImage.TYPE_INT_ARGB_PRE) {
+            throw new IllegalArgumentException("Unsupported image type: " + imageType);
+        }
+        img = new BufferedImage(width, height, imageType);
+        pixels = ((DataBufferInt) img.getRaster().getDataBuffer()).getData();
+        this.width = width;
+        this.height = height;
+    }
+
+    public BufferedImage getImg() {
+        return img;
+    }
+
+    /**
+     * Backing array, row-major with a stride of {@link #getWidth()}
+     */
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    public void repaint(Graphics graphics) {
+        graphics.drawImage(img, 0, 0, null);
+    }
+
+    public Graphics getGraphics() {
+        return img.getGraphics();
+    }
+
+    @Override
+    public int getPixel(int x, int y) {
+        return pixels[y * width + x];
+    }
+
+    @Override
+    public void setPixel(int x, int y, int color) {
+        pixels[y * width + x] = color;
+    }
+
+    @Override
+    public void fillSpan(int y, int x0, int x1, int color) {
+        if (y < 0 || y >= height) {
+            return;
+        }
+        int from = Math.max(0, x0);
+        int to = Math.min(width - 1, x1);
+        int row = y * width;
+        if (to - from < 16) {
+            // Short runs are the common case for lines; skip Arrays.fill's range checks
+            for (int i = row + from; i <= row + to; i++) {
+                pixels[i] = color;
+            }
+        } else {
+            Arrays.fill(pixels, row + from, row + to + 1, color);
+        }
+    }
+
+    @Override
+    public void blendSpan(int y, int x0, int x1, int color) {
+        if (y < 0 || y >= height) {
+            return;
+        }
+        int from = Math.max(0, x0);
+        int to = Math.min(width - 1, x1);
+        if (from <= to) {
+            COMPOSITOR.blend(pixels, y * width + from, y * width + to + 1, color);
+        }
+    }
+
+    @Override
+    public void fillRect(int x, int y, int width, int height, int color) {
+        int left = Math.max(0, x);
+        int right = Math.min(this.width, x + width);
+        int top = Math.max(0, y);
+        int bottom = Math.min(this.height, y + height);
+        if (left >= right) {
+            return;
+        }
+        for (int row = top; row < bottom; row++) {
+            int offset = row * this.width;
+            Arrays.fill(pixels, offset + left, offset + right, color);
+        }
+    }
+
+    @Override
+    public void copyFrom(int[] src, int srcOffset, int srcStride, int x, int y, int width, int height) {
+        int left = Math.max(0, x);
+        int right = Math.min(this.width, x + width);
+        int top = Math.max(0, y);
+        int bottom = Math.min(this.height, y + height);
+        if (left >= right) {
+            return;
+        }
+        for (int row = top; row < bottom; row++) {
+            System.arraycopy(src, srcOffset + (row - y) * srcStride + (left - x),
+                    pixels, row * this.width + left, right - left);
+        }
+    }
+
+    @Override
+    public void blendFrom(int[] src, int srcOffset, int srcStride, int x, int y, int width, int height) {
+        int left = Math.max(0, x);
+        int right = Math.min(this.width, x + width);
+        int top = Math.max(0, y);
+        int bottom = Math.min(this.height, y + height);
+        if (left >= right) {
+            return;
+        }
+        for (int row = top; row < bottom; row++) {
+            COMPOSITOR.blend(pixels, row * this.width + left, src, srcOffset + (row - y) * srcStride + (left - x),
+                    right - left);
+        }
+    }
+
+    @Override
+    public void copyTo(int[] dst, int dstOffset, int dstStride, int x, int y, int width, int height) {
+        int left = Math.max(0, x);
+        int right = Math.min(this.width, x + width);
+        int top = Math.max(0, y);
+        int bottom = Math.min(this.height, y + height);
+        if (left >= right) {
+            return;
+        }
+        for (int row = top; row < bottom; row++) {
+            System.arraycopy(pixels, row * this.width + left,
+                    dst, dstOffset + (row - y) * dstStride + (left - x), right - left);
+        }
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(pixels, color);
+    }
+
+    @Override
+    public void setClearColor(int color) {
+        this.color = color;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+}
@@ -0,0 +1,77 @@
+package rasters;
+
+import java.util.Arrays;
+
+/**
+ * Run-length compressed copy of a {@link RasterDataBuffer}. Drawings are mostly long runs of
+ * background and fill colour, so a snapshot is usually a small fraction of the raw pixels;
+ * noisy images that would not compress are kept raw.
+ */
+public final class RasterSnapshot {
+    private final int width;
+    private final int height;
+    // (length, colour) pairs, or null when the raw copy below is smaller
+    private final int[] runs;
+    private final int[] raw;
+
+    private RasterSnapshot(int width, int height, int[] runs, int[] raw) {
+        this.width = width;
+        this.height = height;
+        this.runs = runs;
+        this.raw = raw;
+    }
+
+    public static RasterSnapshot capture(RasterDataBuffer raster) {
+        int[] pixels = raster.getPixels();
+        int length = raster.getWidth() * raster.getHeight();
+        int[] runs = new int[64];
+        int count = 0;
+        int i = 0;
+        while (i < length) {
+            int color = pixels[i];
+            int end = i + 1;
+            while (end < length && pixels[end] == color) {
+                end++;
+            }
+            if (count + 2 > runs.length) {
+                if (runs.length >= length) {
+                    return new RasterSnapshot(raster.getWidth(), raster.getHeight(), null,
+                            Arrays.copyOf(pixels, length));
+                }
+                runs = Arrays.copyOf(runs, Math.min(runs.length * 2, length + 2));
+            }
+            runs[count++] = end - i;
+            runs[count++] = color;
+            i = end;
+        }
+        return new RasterSnapshot(raster.getWidth(), raster.getHeight(), Arrays.copyOf(runs, count), null);
+    }
+
+    /**
+     * Write the snapshot back into a raster of the same size.
+     */
+    public void restore(RasterDataBuffer raster) {
+        if (raster.getWidth() != width || raster.getHeight() != height) {
+            throw new IllegalArgumentException("Snapshot is " + width + "x" + height + ", raster is "
+                    + raster.getWidth() + "x" + raster.getHeight());
+        }
+        int[] pixels = raster.getPixels();
+        if (raw != null) {
+            System.arraycopy(raw, 0, pixels, 0, raw.length);
+            return;
+        }
+        int offset = 0;
+        for (int i = 0; i < runs.length; i += 2) {
+            int end = offset + runs[i];
+            Arrays.fill(pixels, offset, end, runs[i + 1]);
+            offset = end;
+        }
+    }
+
+    /**
+     * Approximate heap footprint in bytes.
+     */
+    public long getMemoryFootprint() {
+        return 32 + 16 + 4L * (raw != null ? raw.length : runs.length);
+    }
+}
@@ -0,0 +1,33 @@
+package rasters;
+
+/**
+ * One pixel at a time; the fallback when {@code jdk.incubator.vector} is not available.
+ */
+final class ScalarSpanCompositor implements SpanCompositor {
+
+    @Override
+    public void fill(int[] pixels, int from, int to, int color) {
+        for (int i = from; i < to; i++) {
+            pixels[i] = color;
+        }
+    }
+
+    @Override
+    public void blend(int[] pixels, int from, int to, int color) {
+        int alpha = color >>> 24;
+        if (alpha == 255) {
+            fill(pixels, from, to, color);
+        } else if (alpha != 0) {
+            for (int i = from; i < to; i++) {
+                pixels[i] = SpanCompositor.over(pixels[i], color);
+            }
+        }
+    }
+
+    @Override
+    public void blend(int[] dst, int dstOffset, int[] src, int srcOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            dst[dstOffset + i] = SpanCompositor.over(dst[dstOffset + i], src[srcOffset + i]);
+        }
+    }
+}
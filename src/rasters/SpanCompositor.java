@@ -0,0 +1,84 @@
+package rasters;
+
+/**
+ * Kernels that write runs of non-premultiplied ARGB pixels in an int array: solid fills and
+ * source-over blending of a colour or of another row of pixels. {@link #get()} is the SIMD
+ * implementation on {@code jdk.incubator.vector} when the JVM runs with
+ * {@code --add-modules jdk.incubator.vector}, and a scalar loop otherwise; both produce the
+ * same pixels. Run with {@code -Draster.vector=false} to force the scalar loop.
+ */
+public interface SpanCompositor {
+
+    /**
+     * Set {@code pixels[from, to)} to {@code color}
+     */
+    void fill(int[] pixels, int from, int to, int color);
+
+    /**
+     * Draw {@code color} over {@code pixels[from, to)}
+     */
+    void blend(int[] pixels, int from, int to, int color);
+
+    /**
+     * Draw {@code length} pixels of {@code src} over {@code dst}, each with its own alpha
+     */
+    void blend(int[] dst, int dstOffset, int[] src, int srcOffset, int length);
+
+    /**
+     * Implementation the rasters use
+     */
+    static SpanCompositor get() {
+        return SpanCompositors.DEFAULT;
+    }
+
+    static SpanCompositor scalar() {
+        return SpanCompositors.SCALAR;
+    }
+
+    /**
+     * SIMD implementation, or null if {@code jdk.incubator.vector} is not available
+     */
+    static SpanCompositor vector() {
+        return SpanCompositors.VECTOR;
+    }
+
+    /**
+     * Source-over of one pixel: {@code src} drawn over {@code dst}, rounded to nearest. Over an
+     * opaque destination the division is by 255, done in integers as the SIMD kernel does; a
+     * translucent destination divides by the output alpha in float.
+     */
+    static int over(int dst, int src) {
+        int sa = src >>> 24;
+        if (sa == 255) {
+            return src;
+        }
+        if (sa == 0) {
+            return dst;
+        }
+        if (dst >>> 24 == 255) {
+            return overOpaque(dst, src, sa);
+        }
+        // Destination weight and output alpha, both scaled by 255
+        int dw = (dst >>> 24) * (255 - sa);
+        float outA = sa * 255 + dw;
+        int s = sa * 255;
+        int r = (int) ((((src >>> 16) & 0xff) * s + ((dst >>> 16) & 0xff) * dw) / outA + 0.5f);
+        int g = (int) ((((src >>> 8) & 0xff) * s + ((dst >>> 8) & 0xff) * dw) / outA + 0.5f);
+        int b = (int) (((src & 0xff) * s + (dst & 0xff) * dw) / outA + 0.5f);
+        int a = (int) (outA / 255f + 0.5f);
+        return a << 24 | r << 16 | g << 8 | b;
+    }
+
+    /**
+     * {@link #over} when {@code dst} is opaque. Red and blue are weighted together in the two
+     * halves of one int, and x / 255 is rounded exactly as (x + 128 + ((x + 128) >> 8)) >> 8.
+     */
+    private static int overOpaque(int dst, int src, int sa) {
+        int inverse = 255 - sa;
+        int rb = (src & 0xff00ff) * sa + (dst & 0xff00ff) * inverse + 0x800080;
+        int g = ((src >>> 8) & 0xff) * sa + ((dst >>> 8) & 0xff) * inverse + 0x80;
+        rb = ((rb + ((rb >>> 8) & 0xff00ff)) >>> 8) & 0xff00ff;
+        g = ((g + (g >>> 8)) >>> 8) & 0xff;
+        return 0xff000000 | rb | g << 8;
+    }
+}
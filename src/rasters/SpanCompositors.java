@@ -0,0 +1,27 @@
+package rasters;
+
+/**
+ * Picks the {@link SpanCompositor} implementations once. The SIMD one is loaded reflectively,
+ * so nothing touches {@code jdk.incubator.vector} when the module is missing.
+ */
+final class SpanCompositors {
+    static final SpanCompositor SCALAR = new ScalarSpanCompositor();
+    static final SpanCompositor VECTOR = loadVector();
+    static final SpanCompositor DEFAULT = VECTOR != null && !"false".equals(System.getProperty("raster.vector"))
+            ? VECTOR : SCALAR;
+
+    private SpanCompositors() {
+    }
+
+    private static SpanCompositor loadVector() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return (SpanCompositor) Class.forName("rasters.VectorSpanCompositor").getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package rasters;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBufferInt;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+
+/**
+ * Sparse raster for canvases far larger than the screen. Pixels live in fixed-size square tiles
+ * that are allocated on the first write that changes them; every other tile is a single colour
+ * held without storage, so memory grows with what is drawn rather than with the canvas area.
+ * <p>
+ * Clearing turns every tile back into the clear colour, keeping its storage aside for the next
+ * render. A fill covering a whole tile drops its storage, and a tile whose last row is completed by a full-width span is checked and collapsed
+ * if it became a single colour; {@link #compact()} collapses the rest, e.g. after a render.
+ * <p>
+ * It is not an {@link ImageRaster}, since one dense image would defeat the tiling:
+ * {@link #repaint(Graphics)} draws the tiles inside the graphics clip and {@link #copyTo} reads
+ * any block out. Writes to different tiles may run on different threads, so the 128 pixel tiles
+ * of the parallel rasterizer never share storage.
+ */
+public class TiledRaster implements Raster {
+    public static final int TILE_SHIFT = 6;
+    public static final int TILE_SIZE = 1 << TILE_SHIFT;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+    private static final int TILE_PIXELS = TILE_SIZE * TILE_SIZE;
+    private static final SpanCompositor COMPOSITOR = SpanCompositor.get();
+
+    private final int width;
+    private final int height;
+    private final int tilesX;
+    // Row-major tile storage, null for a tile that is entirely constants[tile]
+    private final int[][] tiles;
+    private final int[] constants;
+    // Storage a tile had before the last clear, reused when it is drawn again
+    private final int[][] spares;
+    // Images wrapping a tile's storage (current or spare) for repaint, created on demand
+    private final BufferedImage[] images;
+    private int color;
+
+    public TiledRaster(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Bad raster size " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        tilesX = (width + TILE_MASK) >> TILE_SHIFT;
+        int count = Math.multiplyExact(tilesX, (height + TILE_MASK) >> TILE_SHIFT);
+        tiles = new int[count][];
+        constants = new int[count];
+        spares = new int[count][];
+        images = new BufferedImage[count];
+    }
+
+    @Override
+    public int getPixel(int x, int y) {
+        int t = (y >> TILE_SHIFT) * tilesX + (x >> TILE_SHIFT);
+        int[] tile = tiles[t];
+        return tile == null ? constants[t] : tile[((y & TILE_MASK) << TILE_SHIFT) | (x & TILE_MASK)];
+    }
+
+    @Override
+    public void setPixel(int x, int y, int color) {
+        int t = (y >> TILE_SHIFT) * tilesX + (x >> TILE_SHIFT);
+        int[] tile = tiles[t];
+        if (tile == null) {
+            if (constants[t] == color) {
+                return;
+            }
+            tile = allocate(t);
+        }
+        tile[((y & TILE_MASK) << TILE_SHIFT) | (x & TILE_MASK)] = color;
+    }
+
+    @Override
+    public void fillSpan(int y, int x0, int x1, int color) {
+        if (y < 0 || y >= height) {
+            return;
+        }
+        int from = Math.max(0, x0);
+        int to = Math.min(width - 1, x1);
+        if (from > to || from >> TILE_SHIFT != to >> TILE_SHIFT || to - from == TILE_MASK
+                || to == width - 1 && (from & TILE_MASK) == 0) {
+            fill(from, y, to + 1, y + 1, color);
+            return;
+        }
+        // Short line spans stay inside one tile and never cover a whole tile row
+        int t = (y >> TILE_SHIFT) * tilesX + (from >> TILE_SHIFT);
+        int[] tile = tiles[t];
+        if (tile == null) {
+            if (constants[t] == color) {
+                return;
+            }
+            tile = allocate(t);
+        }
+        int row = (y & TILE_MASK) << TILE_SHIFT;
+        for (int i = row + (from & TILE_MASK); i <= row + (to & TILE_MASK); i++) {
+            tile[i] = color;
+        }
+    }
+
+    @Override
+    public void blendSpan(int y, int x0, int x1, int color) {
+        int from = Math.max(0, x0);
+        int to = Math.min(width - 1, x1);
+        if (y < 0 || y >= height || from > to || color >>> 24 == 0) {
+            return;
+        }
+        if (color >>> 24 == 255) {
+            fillSpan(y, from, to, color);
+            return;
+        }
+        int row = (y & TILE_MASK) << TILE_SHIFT;
+        for (int tx = from >> TILE_SHIFT; tx <= to >> TILE_SHIFT; tx++) {
+            int t = (y >> TILE_SHIFT) * tilesX + tx;
+            int colFrom = Math.max(from, tx << TILE_SHIFT) & TILE_MASK;
+            int colTo = Math.min(to, (tx << TILE_SHIFT) + TILE_MASK) & TILE_MASK;
+            int[] tile = tiles[t] != null ? tiles[t] : allocate(t);
+            COMPOSITOR.blend(tile, row + colFrom, row + colTo + 1, color);
+        }
+    }
+
+    @Override
+    public void fillRect(int x, int y, int width, int height, int color) {
+        fill(Math.max(0, x), Math.max(0, y), Math.min(this.width, x + width), Math.min(this.height, y + height),
+                color);
+    }
+
+    @Override
+    public void copyFrom(int[] src, int srcOffset, int srcStride, int x, int y, int width, int height) {
+        int left = Math.max(0, x);
+        int right = Math.min(this.width, x + width);
+        int top = Math.max(0, y);
+        int bottom = Math.min(this.height, y + height);
+        for (int ty = top >> TILE_SHIFT; left < right && ty <= (bottom - 1) >> TILE_SHIFT; ty++) {
+            int rowFrom = Math.max(top, ty << TILE_SHIFT);
+            int rowTo = Math.min(bottom, (ty + 1) << TILE_SHIFT);
+            for (int tx = left >> TILE_SHIFT; tx <= (right - 1) >> TILE_SHIFT; tx++) {
+                int colFrom = Math.max(left, tx << TILE_SHIFT);
+                int colTo = Math.min(right, (tx + 1) << TILE_SHIFT);
+                int t = ty * tilesX + tx;
+                int[] tile = tiles[t] != null ? tiles[t] : allocate(t);
+                for (int row = rowFrom; row < rowTo; row++) {
+                    System.arraycopy(src, srcOffset + (row - y) * srcStride + (colFrom - x),
+                            tile, ((row & TILE_MASK) << TILE_SHIFT) | (colFrom & TILE_MASK), colTo - colFrom);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void copyTo(int[] dst, int dstOffset, int dstStride, int x, int y, int width, int height) {
+        int left = Math.max(0, x);
+        int right = Math.min(this.width, x + width);
+        int top = Math.max(0, y);
+        int bottom = Math.min(this.height, y + height);
+        for (int ty = top >> TILE_SHIFT; left < right && ty <= (bottom - 1) >> TILE_SHIFT; ty++) {
+            int rowFrom = Math.max(top, ty << TILE_SHIFT);
+            int rowTo = Math.min(bottom, (ty + 1) << TILE_SHIFT);
+            for (int tx = left >> TILE_SHIFT; tx <= (right - 1) >> TILE_SHIFT; tx++) {
+                int colFrom = Math.max(left, tx << TILE_SHIFT);
+                int colTo = Math.min(right, (tx + 1) << TILE_SHIFT);
+                int t = ty * tilesX + tx;
+                int[] tile = tiles[t];
+                for (int row = rowFrom; row < rowTo; row++) {
+                    int d = dstOffset + (row - y) * dstStride + (colFrom - x);
+                    if (tile == null) {
+                        Arrays.fill(dst, d, d + colTo - colFrom, constants[t]);
+                    } else {
+                        System.arraycopy(tile, ((row & TILE_MASK) << TILE_SHIFT) | (colFrom & TILE_MASK),
+                                dst, d, colTo - colFrom);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Turn every tile into the clear colour. Their storage is kept aside for the next render,
+     * which usually draws the same tiles again, until {@link #compact()}.
+     */
+    @Override
+    public void clear() {
+        for (int t = 0; t < tiles.length; t++) {
+            if (tiles[t] != null) {
+                spares[t] = tiles[t];
+                tiles[t] = null;
+            }
+        }
+        Arrays.fill(constants, color);
+    }
+
+    @Override
+    public void setClearColor(int color) {
+        this.color = color;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Collapse every allocated tile that holds a single colour and free the storage kept by
+     * {@link #clear()} for tiles that were not drawn again.
+     *
+     * @return number of tiles released
+     */
+    public int compact() {
+        int released = 0;
+        for (int t = 0; t < tiles.length; t++) {
+            if (spares[t] != null) {
+                spares[t] = null;
+                images[t] = null;
+                released++;
+            }
+            int[] tile = tiles[t];
+            if (tile != null && isUniform(t, tile, tile[0])) {
+                release(t, tile[0]);
+                released++;
+            }
+        }
+        return released;
+    }
+
+    /**
+     * Number of tiles with their own pixel storage
+     */
+    public int getAllocatedTiles() {
+        int count = 0;
+        for (int[] tile : tiles) {
+            if (tile != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Approximate heap footprint in bytes: the tile index plus allocated and kept-aside tiles.
+     */
+    public long getMemoryFootprint() {
+        int stored = 0;
+        for (int t = 0; t < tiles.length; t++) {
+            if (tiles[t] != null || spares[t] != null) {
+                stored++;
+            }
+        }
+        return 24L * tiles.length + (16 + 4L * TILE_PIXELS) * stored;
+    }
+
+    /**
+     * Draw the tiles that intersect the graphics clip, constant tiles as plain rectangles.
+     */
+    @Override
+    public void repaint(Graphics graphics) {
+        Rectangle clip = graphics.getClipBounds();
+        int left = clip == null ? 0 : Math.max(0, clip.x);
+        int top = clip == null ? 0 : Math.max(0, clip.y);
+        int right = clip == null ? width : Math.min(width, clip.x + clip.width);
+        int bottom = clip == null ? height : Math.min(height, clip.y + clip.height);
+        for (int ty = top >> TILE_SHIFT; left < right && ty <= (bottom - 1) >> TILE_SHIFT; ty++) {
+            for (int tx = left >> TILE_SHIFT; tx <= (right - 1) >> TILE_SHIFT; tx++) {
+                int t = ty * tilesX + tx;
+                int x0 = tx << TILE_SHIFT;
+                int y0 = ty << TILE_SHIFT;
+                int x1 = Math.min(width, x0 + TILE_SIZE);
+                int y1 = Math.min(height, y0 + TILE_SIZE);
+                if (tiles[t] == null) {
+                    graphics.setColor(new Color(constants[t], true));
+                    graphics.fillRect(x0, y0, x1 - x0, y1 - y0);
+                } else {
+                    graphics.drawImage(image(t), x0, y0, x1, y1, 0, 0, x1 - x0, y1 - y0, null);
+                }
+            }
+        }
+    }
+
+    /**
+     * Fill [left, right) x [top, bottom), already clipped to the raster
+     */
+    private void fill(int left, int top, int right, int bottom, int color) {
+        for (int ty = top >> TILE_SHIFT; left < right && top < bottom && ty <= (bottom - 1) >> TILE_SHIFT; ty++) {
+            int tileTop = ty << TILE_SHIFT;
+            int tileBottom = Math.min(height, tileTop + TILE_SIZE);
+            int rowFrom = Math.max(top, tileTop);
+            int rowTo = Math.min(bottom, tileBottom);
+            for (int tx = left >> TILE_SHIFT; tx <= (right - 1) >> TILE_SHIFT; tx++) {
+                int tileLeft = tx << TILE_SHIFT;
+                int tileRight = Math.min(width, tileLeft + TILE_SIZE);
+                int colFrom = Math.max(left, tileLeft);
+                int colTo = Math.min(right, tileRight);
+                int t = ty * tilesX + tx;
+                int[] tile = tiles[t];
+                boolean fullWidth = colFrom == tileLeft && colTo == tileRight;
+                if (fullWidth && rowFrom == tileTop && rowTo == tileBottom) {
+                    release(t, color);
+                    continue;
+                }
+                if (tile == null) {
+                    if (constants[t] == color) {
+                        continue;
+                    }
+                    tile = allocate(t);
+                }
+                for (int row = rowFrom; row < rowTo; row++) {
+                    int offset = ((row & TILE_MASK) << TILE_SHIFT) | (colFrom & TILE_MASK);
+                    Arrays.fill(tile, offset, offset + colTo - colFrom, color);
+                }
+                // Flood fills and stamps finish a tile row by row; check once its last row is done
+                if (fullWidth && rowTo == tileBottom && isUniform(t, tile, color)) {
+                    release(t, color);
+                }
+            }
+        }
+    }
+
+    private int[] allocate(int t) {
+        int[] tile = spares[t];
+        if (tile == null) {
+            tile = new int[TILE_PIXELS];
+        }
+        spares[t] = null;
+        Arrays.fill(tile, constants[t]);
+        tiles[t] = tile;
+        return tile;
+    }
+
+    private void release(int t, int color) {
+        tiles[t] = null;
+        spares[t] = null;
+        images[t] = null;
+        constants[t] = color;
+    }
+
+    /**
+     * Whether the part of a tile inside the raster is all {@code color}
+     */
+    private boolean isUniform(int t, int[] tile, int color) {
+        int columns = Math.min(TILE_SIZE, width - ((t % tilesX) << TILE_SHIFT));
+        int rows = Math.min(TILE_SIZE, height - ((t / tilesX) << TILE_SHIFT));
+        for (int row = 0; row < rows; row++) {
+            int offset = row << TILE_SHIFT;
+            for (int i = offset; i < offset + columns; i++) {
+                if (tile[i] != color) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private BufferedImage image(int t) {
+        BufferedImage image = images[t];
+        if (image == null) {
+            // Wraps the tile array itself, so later writes show up without copying
+            WritableRaster raster = java.awt.image.Raster.createPackedRaster(
+                    new DataBufferInt(tiles[t], TILE_PIXELS), TILE_SIZE, TILE_SIZE, TILE_SIZE,
+                    new int[]{0xff0000, 0xff00, 0xff, 0xff000000}, null);
+            image = new BufferedImage(ColorModel.getRGBdefault(), raster, false, null);
+            images[t] = image;
+        }
+        return image;
+    }
+}
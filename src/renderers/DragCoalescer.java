@@ -0,0 +1,64 @@
+package renderers;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Collapses pointer drags reported faster than frames are produced. Positions collect until the
+ * thread that owns the scene takes them; only the first position after a take schedules a task,
+ * so however fast the mouse polls, a drag costs one handler call per scheduled run. The handler
+ * gets every position in order and decides whether it needs the whole path or just the newest.
+ */
+public class DragCoalescer {
+    private final Executor scheduler;
+    private final Consumer<int[]> handler;
+    // Packed (x, y) pairs
+    private int[] path = new int[32];
+    private int size;
+    private boolean scheduled;
+
+    /**
+     * @param handler receives the pending positions as packed (x, y) pairs, oldest first
+     */
+    public DragCoalescer(Executor scheduler, Consumer<int[]> handler) {
+        this.scheduler = scheduler;
+        this.handler = handler;
+    }
+
+    /**
+     * Record a position; safe to call from any thread.
+     */
+    public void add(int x, int y) {
+        boolean schedule;
+        synchronized (this) {
+            if (size + 2 > path.length) {
+                path = Arrays.copyOf(path, path.length * 2);
+            }
+            path[size++] = x;
+            path[size++] = y;
+            schedule = !scheduled;
+            scheduled = true;
+        }
+        if (schedule) {
+            scheduler.execute(this::flush);
+        }
+    }
+
+    /**
+     * Hand the pending positions to the handler now, e.g. before a button release is handled.
+     * Must run where the handler may run.
+     */
+    public void flush() {
+        int[] taken;
+        synchronized (this) {
+            scheduled = false;
+            if (size == 0) {
+                return;
+            }
+            taken = Arrays.copyOf(path, size);
+            size = 0;
+        }
+        handler.accept(taken);
+    }
+}
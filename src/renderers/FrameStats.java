@@ -0,0 +1,117 @@
+package renderers;
+
+import java.util.Arrays;
+
+/**
+ * Frame rate and input latency of the frames presented in the last second. Latency is the time
+ * from the oldest input event a frame answers to the moment the frame is handed to the screen;
+ * busy time is how long the render thread worked on that frame.
+ */
+public class FrameStats {
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+    private static final int CAPACITY = 1024;
+
+    // Ring buffers of the most recent frames
+    private final long[] presented = new long[CAPACITY];
+    private final long[] latency = new long[CAPACITY];
+    private final long[] busy = new long[CAPACITY];
+    private int next;
+    private int size;
+    private long frameCount;
+
+    public synchronized void record(long presentedAt, long latencyNanos, long busyNanos) {
+        presented[next] = presentedAt;
+        latency[next] = latencyNanos;
+        busy[next] = busyNanos;
+        next = (next + 1) % CAPACITY;
+        size = Math.min(size + 1, CAPACITY);
+        frameCount++;
+    }
+
+    public synchronized long getFrameCount() {
+        return frameCount;
+    }
+
+    public synchronized double getFramesPerSecond() {
+        return recentFrames(System.nanoTime());
+    }
+
+    public synchronized double getMeanLatencyMillis() {
+        return mean(latency, recentFrames(System.nanoTime()));
+    }
+
+    public synchronized double getMaxLatencyMillis() {
+        int count = recentFrames(System.nanoTime());
+        long max = 0;
+        for (int i = 0; i < count; i++) {
+            max = Math.max(max, latency[index(i)]);
+        }
+        return max / 1e6;
+    }
+
+    public synchronized double getMeanBusyMillis() {
+        return mean(busy, recentFrames(System.nanoTime()));
+    }
+
+    /**
+     * Busy time per frame that {@code percentile} percent of the last second's frames stayed within
+     */
+    public synchronized double getBusyPercentileMillis(double percentile) {
+        return percentile(busy, recentFrames(System.nanoTime()), percentile);
+    }
+
+    /**
+     * Input latency that {@code percentile} percent of the last second's frames stayed within
+     */
+    public synchronized double getLatencyPercentileMillis(double percentile) {
+        return percentile(latency, recentFrames(System.nanoTime()), percentile);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%.0f fps, latency %.1f ms mean / %.1f ms max, busy %.1f ms per frame, %d frames",
+                getFramesPerSecond(), getMeanLatencyMillis(), getMaxLatencyMillis(), getMeanBusyMillis(),
+                frameCount);
+    }
+
+    /**
+     * Number of frames presented within the last second, counted back from the newest.
+     */
+    private int recentFrames(long now) {
+        int count = 0;
+        while (count < size && now - presented[index(count)] <= WINDOW_NANOS) {
+            count++;
+        }
+        return count;
+    }
+
+    private double mean(long[] values, int count) {
+        if (count == 0) {
+            return 0;
+        }
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += values[index(i)];
+        }
+        return sum / 1e6 / count;
+    }
+
+    // Nearest-rank percentile of the newest count values
+    private double percentile(long[] values, int count, double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = new long[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = values[index(i)];
+        }
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * count);
+        return sorted[Math.max(0, Math.min(count, rank) - 1)] / 1e6;
+    }
+
+    // i-th most recent frame
+    private int index(int i) {
+        return (next - 1 - i + CAPACITY) % CAPACITY;
+    }
+}
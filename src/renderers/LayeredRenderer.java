@@ -0,0 +1,207 @@
+package renderers;
+
+import Fillers.FillOperation;
+import models.Line;
+import models.LineCanvas;
+import models.Shape;
+import rasterizers.LineCanvasRasterizer;
+import rasterizers.SceneRasterizer;
+import rasters.OverlayRaster;
+import rasters.RasterDataBuffer;
+import rasters.RasterSnapshot;
+
+import java.awt.*;
+import java.util.List;
+
+/**
+ * Two-layer renderer. Committed content is rasterized into a cached base layer that is only
+ * rebuilt where it was invalidated; live previews are drawn into a transparent overlay
+ * composited on top, so a preview frame costs about as much as the preview itself.
+ */
+public class LayeredRenderer {
+    private final RasterDataBuffer base;
+    private final OverlayRaster overlay;
+    private final SceneRasterizer sceneRasterizer;
+    private final LineCanvasRasterizer appendRasterizer;
+    private final LineCanvas canvas;
+    private final List<FillOperation> fillOperations;
+    private final Rectangle bounds;
+    private boolean baseValid;
+    private Rectangle dirtyRegion;
+    private Rectangle repaintRegion;
+
+    public LayeredRenderer(int width, int height, LineCanvas canvas, List<FillOperation> fillOperations) {
+        base = new RasterDataBuffer(width, height);
+        overlay = new OverlayRaster(width, height);
+        sceneRasterizer = new SceneRasterizer(base);
+        appendRasterizer = new LineCanvasRasterizer(base);
+        this.canvas = canvas;
+        this.fillOperations = fillOperations;
+        bounds = new Rectangle(0, 0, width, height);
+    }
+
+    public RasterDataBuffer getBase() {
+        return base;
+    }
+
+    public OverlayRaster getOverlay() {
+        return overlay;
+    }
+
+    public void setClearColor(int color) {
+        sceneRasterizer.setClearColor(color);
+        baseValid = false;
+    }
+
+    /**
+     * Rasterize full re-renders of the base layer tile-parallel.
+     */
+    public void setParallel(boolean parallel) {
+        sceneRasterizer.setParallel(parallel);
+    }
+
+    /**
+     * Mark the whole base layer stale.
+     */
+    public void invalidate() {
+        baseValid = false;
+        dirtyRegion = null;
+    }
+
+    /**
+     * Mark part of the base layer stale, e.g. the union of the old and new bounds of an edited primitive.
+     */
+    public void invalidate(Rectangle region) {
+        if (!baseValid || region.isEmpty()) {
+            return;
+        }
+        dirtyRegion = dirtyRegion == null ? new Rectangle(region) : dirtyRegion.union(region);
+    }
+
+    /**
+     * Bring the base layer up to date, rasterizing only what was invalidated.
+     */
+    public void render() {
+        if (!baseValid) {
+            sceneRasterizer.rasterize(canvas, fillOperations);
+            baseValid = true;
+            dirtyRegion = null;
+            addRepaint(bounds);
+        } else if (dirtyRegion != null) {
+            Rectangle clip = dirtyRegion.intersection(bounds);
+            dirtyRegion = null;
+            if (!clip.isEmpty()) {
+                sceneRasterizer.rasterize(canvas, fillOperations, clip);
+                addRepaint(clip);
+            }
+        }
+    }
+
+    /**
+     * Replace the base layer with a snapshot of an earlier render. The caller invalidates
+     * whatever differs between that scene and the current one.
+     */
+    public void restoreBase(RasterSnapshot snapshot) {
+        snapshot.restore(base);
+        baseValid = true;
+        dirtyRegion = null;
+        addRepaint(bounds);
+    }
+
+    /**
+     * Draw lines and shapes just appended to the scene straight into the base layer, without
+     * re-rendering what is under them: appended primitives are drawn above everything else.
+     */
+    public void drawAppended(LineCanvas appended) {
+        Rectangle region = boundsOf(appended.getLines(), boundsOf(appended.getDottedLines(), null));
+        for (Shape shape : appended.getShapes()) {
+            region = region == null ? shape.getBounds() : region.union(shape.getBounds());
+        }
+        if (region == null) {
+            return;
+        }
+        if (baseValid) {
+            appendRasterizer.rasterizeCanvas(appended);
+            addRepaint(region);
+        } else {
+            addRepaint(region);
+        }
+    }
+
+    /**
+     * Erase the previous preview from the overlay.
+     */
+    public void clearOverlay() {
+        Rectangle previous = overlay.getDirtyBounds();
+        if (previous != null) {
+            addRepaint(previous);
+        }
+        overlay.clearDirty();
+    }
+
+    /**
+     * Request a repaint of a base layer area that was drawn into directly.
+     */
+    public void addRepaint(Rectangle region) {
+        if (region.isEmpty()) {
+            return;
+        }
+        repaintRegion = repaintRegion == null ? new Rectangle(region) : repaintRegion.union(region);
+    }
+
+    /**
+     * Everything that changed on screen since the last call, or null if nothing did.
+     */
+    public Rectangle takeRepaintRegion() {
+        Rectangle region = repaintRegion;
+        Rectangle preview = overlay.getDirtyBounds();
+        if (preview != null) {
+            region = region == null ? preview : region.union(preview);
+        }
+        repaintRegion = null;
+        return region == null ? null : region.intersection(bounds);
+    }
+
+    /**
+     * Compose {@code region} of the base layer and the overlay into a raster of the same size:
+     * the base is copied, then the overlay is blended over it with the {@code SpanCompositor}
+     * kernels.
+     */
+    public void compose(RasterDataBuffer target, Rectangle region) {
+        Rectangle area = region.intersection(bounds);
+        if (area.isEmpty()) {
+            return;
+        }
+        int stride = base.getWidth();
+        target.copyFrom(base.getPixels(), area.y * stride + area.x, stride, area.x, area.y, area.width, area.height);
+        Rectangle dirty = overlay.getDirtyBounds();
+        if (dirty != null) {
+            Rectangle top = dirty.intersection(area);
+            if (!top.isEmpty()) {
+                target.blendFrom(overlay.getPixels(), top.y * stride + top.x, stride, top.x, top.y, top.width,
+                        top.height);
+            }
+        }
+    }
+
+    public void paint(Graphics g) {
+        g.drawImage(base.getImg(), 0, 0, null);
+        Rectangle dirty = overlay.getDirtyBounds();
+        if (dirty != null) {
+            int x2 = dirty.x + dirty.width;
+            int y2 = dirty.y + dirty.height;
+            g.drawImage(overlay.getImg(), dirty.x, dirty.y, x2, y2, dirty.x, dirty.y, x2, y2, null);
+        }
+    }
+
+    private static Rectangle boundsOf(List<Line> lines, Rectangle bounds) {
+        for (Line line : lines) {
+            if (bounds == null) {
+                bounds = line.getBounds();
+            } else {
+                bounds.add(line.getBounds());
+            }
+        }
+        return bounds;
+    }
+}
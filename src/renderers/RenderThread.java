@@ -0,0 +1,189 @@
+package renderers;
+
+import diagnostics.FrameEvent;
+import rasters.RasterDataBuffer;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Owns a {@link LayeredRenderer} and everything it reads on one dedicated thread, and presents
+ * its output double buffered. Other threads only post tasks, which run in posting order; after
+ * each batch of queued tasks that asked for a frame, the changed area is composed into the back
+ * buffer and the buffers are swapped. The event dispatch thread just blits the front buffer, so
+ * it never waits for rasterization. Each presented frame is reported as a {@link FrameEvent}.
+ */
+public class RenderThread implements Executor {
+    public static final long FRAME_INTERVAL_NANOS = 1_000_000_000L / 60;
+
+    private static final class Task {
+        private final Runnable action;
+        private final long posted;
+
+        private Task(Runnable action, long posted) {
+            this.action = action;
+            this.posted = posted;
+        }
+    }
+
+    private static final class FrameBuffer {
+        private final RasterDataBuffer raster;
+
+        private FrameBuffer(int width, int height) {
+            raster = new RasterDataBuffer(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+    }
+
+    private final LayeredRenderer renderer;
+    private final Consumer<Rectangle> repaint;
+    private final BlockingQueue<Task> tasks = new LinkedBlockingQueue<>();
+    // Paced tasks waiting for their frame; render thread only
+    private final ArrayDeque<Task> paced = new ArrayDeque<>();
+    private final FrameStats stats = new FrameStats();
+    private final Thread thread;
+    private volatile FrameBuffer front;
+    private FrameBuffer back;
+    // What the back buffer is missing besides the next frame's own changes
+    private Rectangle previousDamage;
+    private boolean frameRequested;
+    // Earliest start of the next paced task
+    private long nextFrameAt;
+
+    /**
+     * @param repaint called on the render thread with the screen area of each new frame
+     */
+    public RenderThread(LayeredRenderer renderer, Consumer<Rectangle> repaint) {
+        this.renderer = renderer;
+        this.repaint = repaint;
+        int width = renderer.getBase().getWidth();
+        int height = renderer.getBase().getHeight();
+        front = new FrameBuffer(width, height);
+        back = new FrameBuffer(width, height);
+        thread = new Thread(this::run, "render");
+        thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Queue a task for the render thread. Tasks may freely use the renderer and the scene it draws.
+     */
+    @Override
+    public void execute(Runnable task) {
+        tasks.add(new Task(task, System.nanoTime()));
+    }
+
+    /**
+     * Queue a task that starts no sooner than one frame interval after the previous such task, so
+     * repeated requests such as drag previews render at most once per display refresh. Input
+     * arriving meanwhile can still be folded into what the task does. The render thread keeps
+     * running other tasks while a paced task waits, so paced tasks may run after tasks posted
+     * later and must not depend on that order.
+     */
+    public void executeNextFrame(Runnable task) {
+        long posted = System.nanoTime();
+        tasks.add(new Task(() -> paced.add(new Task(task, posted)), posted));
+    }
+
+    /**
+     * Present the renderer's changes once the tasks queued so far have run. Only call from a task.
+     */
+    public void requestFrame() {
+        frameRequested = true;
+    }
+
+    public FrameStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Blit the newest finished frame; safe to call from the event dispatch thread.
+     */
+    public void paint(Graphics g) {
+        FrameBuffer frame = front;
+        synchronized (frame) {
+            g.drawImage(frame.raster.getImg(), 0, 0, null);
+        }
+    }
+
+    private void run() {
+        while (true) {
+            Task task;
+            try {
+                // Sleep only in the queue itself, until the next paced task is due
+                long wait = paced.isEmpty() ? Long.MAX_VALUE : nextFrameAt - System.nanoTime();
+                task = wait == Long.MAX_VALUE ? tasks.take() : tasks.poll(Math.max(0, wait), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long started = System.nanoTime();
+            long oldest = Long.MAX_VALUE;
+            if (task != null) {
+                oldest = task.posted;
+                // Only what was already queued joins this frame, so a steady stream of input cannot
+                // hold frames back
+                int queued = tasks.size();
+                runTask(task);
+                for (; queued > 0 && (task = tasks.poll()) != null; queued--) {
+                    runTask(task);
+                }
+            }
+            long now = System.nanoTime();
+            if (!paced.isEmpty() && now >= nextFrameAt) {
+                task = paced.poll();
+                oldest = Math.min(oldest, task.posted);
+                nextFrameAt = now + FRAME_INTERVAL_NANOS;
+                runTask(task);
+            }
+            if (frameRequested) {
+                frameRequested = false;
+                present(oldest, started);
+            }
+        }
+    }
+
+    private void runTask(Task task) {
+        try {
+            task.action.run();
+        } catch (RuntimeException e) {
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+    }
+
+    private void present(long oldest, long started) {
+        Rectangle damage = renderer.takeRepaintRegion();
+        if (damage == null || damage.isEmpty()) {
+            return;
+        }
+        FrameEvent event = new FrameEvent();
+        event.begin();
+        // The back buffer last showed the frame before the current front one
+        Rectangle region = previousDamage == null ? damage : previousDamage.union(damage);
+        FrameBuffer target = back;
+        synchronized (target) {
+            renderer.compose(target.raster, region);
+        }
+        back = front;
+        front = target;
+        previousDamage = damage;
+        repaint.accept(damage);
+        long now = System.nanoTime();
+        stats.record(now, now - oldest, now - started);
+        event.end();
+        if (event.shouldCommit()) {
+            event.damageWidth = damage.width;
+            event.damageHeight = damage.height;
+            event.busy = now - started;
+            event.latency = now - oldest;
+            event.commit();
+        }
+    }
+}
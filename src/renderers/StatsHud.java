@@ -0,0 +1,67 @@
+package renderers;
+
+import java.awt.*;
+
+/**
+ * Heads-up display drawn over the top-left corner of the canvas: frame rate, frame time and input
+ * latency percentiles, and the size of the scene. Scene size is published by whoever owns the
+ * scene; painting only reads it, so it is safe from the event dispatch thread.
+ */
+public class StatsHud {
+    private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    private static final Color BACKGROUND = new Color(0, 0, 0, 170);
+    private static final Color FOREGROUND = Color.WHITE;
+    private static final int PADDING = 6;
+    private static final int LINE_HEIGHT = 15;
+    private static final int WIDTH = 340;
+    private static final int LINES = 4;
+
+    private final FrameStats stats;
+    private volatile boolean visible;
+    private volatile String sceneSize = "";
+
+    public StatsHud(FrameStats stats) {
+        this.stats = stats;
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    public void setVisible(boolean visible) {
+        this.visible = visible;
+    }
+
+    /**
+     * Screen area the display covers, to repaint when it changes
+     */
+    public Rectangle getBounds() {
+        return new Rectangle(0, 0, WIDTH, LINES * LINE_HEIGHT + 2 * PADDING);
+    }
+
+    public void setSceneSize(int lines, int dottedLines, int shapes, int fills) {
+        sceneSize = String.format("%d lines, %d dotted, %d shapes, %d fills", lines, dottedLines, shapes, fills);
+    }
+
+    public void paint(Graphics g) {
+        if (!visible) {
+            return;
+        }
+        String[] text = {
+                String.format("%.0f fps, %d frames", stats.getFramesPerSecond(), stats.getFrameCount()),
+                String.format("frame p50 %.1f  p95 %.1f  p99 %.1f ms", stats.getBusyPercentileMillis(50),
+                        stats.getBusyPercentileMillis(95), stats.getBusyPercentileMillis(99)),
+                String.format("input p50 %.1f  p95 %.1f  p99 %.1f ms", stats.getLatencyPercentileMillis(50),
+                        stats.getLatencyPercentileMillis(95), stats.getLatencyPercentileMillis(99)),
+                sceneSize
+        };
+        Rectangle bounds = getBounds();
+        g.setColor(BACKGROUND);
+        g.fillRect(bounds.x, bounds.y, bounds.width, bounds.height);
+        g.setColor(FOREGROUND);
+        g.setFont(FONT);
+        for (int i = 0; i < text.length; i++) {
+            g.drawString(text[i], PADDING, PADDING + (i + 1) * LINE_HEIGHT - 3);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package scenes;
+
+import Fillers.FillOperation;
+import Fillers.SpanList;
+import models.BrushShape;
+import models.Circle;
+import models.DrawingOrder;
+import models.Ellipse;
+import models.Line;
+import models.Point;
+import models.Polygon;
+import models.Polyline;
+import models.Rect;
+import models.Scene;
+import models.Shape;
+import rasterizers.PolygonFillOperation;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Versioned little-endian binary scene file, written and read through memory-mapped buffers.
+ * <pre>
+ * header   magic "DDDS", version, width, height, clearColor,
+ *          fillCount, vertexCount, lineCount, shapeCount          (9 ints)
+ * fills    per fill: argb, spanCount, spanCount x (y, x0, x1), or for a polygon fill
+ *          argb, -1, rule (0 even-odd, 1 non-zero), vertexCount, vertexCount x vertex
+ * vertices per vertex: x, y                                       (8 bytes each)
+ * lines    per line: vertex1, vertex2, argb, thickness (short),
+ *          flags (short, bit 0 = dotted, bit 1 = round brush)     (16 bytes each)
+ * shapes   per shape: kind (short), thickness (short), argb, linesBefore,
+ *          paramCount, paramCount ints                            (16 + 4 x paramCount bytes)
+ *            rect      corner vertex, corner vertex
+ *            ellipse   centre vertex, radiusX, radiusY
+ *            circle    centre vertex, radius
+ *            polyline  vertex, vertex, ...
+ *            polygon   vertex, vertex, ...
+ * </pre>
+ * Line endpoints, shape vertices and polygon fill vertices are indices into the vertex table,
+ * so points shared in the editor (polygon corners, line chains) are still shared after loading.
+ * Lines, solid and dotted, are stored in drawing order, and so are shapes; a shape is drawn
+ * after the first {@code linesBefore} lines, which interleaves the two into the editor's drawing
+ * order. Version 1 files (no shapes), version 2 files (16-byte circle records in place of shapes),
+ * version 3 files (12-byte shape headers without linesBefore; polygon fills stored as filled
+ * polygon shapes, kind 6: fill argb, fill rule, vertex, vertex, ...) and version 4 files
+ * (12-byte shape headers) are still read; before version 5 solid lines come before dotted lines
+ * and shapes are drawn after all lines.
+ */
+public final class SceneBinaryFormat {
+    public static final int MAGIC = 0x53444444; // "DDDS" little-endian
+    public static final int VERSION = 5;
+    public static final int HEADER_BYTES = 9 * 4;
+    public static final int V1_HEADER_BYTES = 8 * 4;
+    public static final int VERTEX_BYTES = 8;
+    public static final int LINE_BYTES = 16;
+    public static final int V2_CIRCLE_BYTES = 16;
+    public static final int SHAPE_HEADER_BYTES = 16;
+    public static final int V3_SHAPE_HEADER_BYTES = 12;
+    public static final int FLAG_DOTTED = 1;
+    public static final int FLAG_ROUND = 2;
+    public static final int SHAPE_RECT = 1;
+    public static final int SHAPE_ELLIPSE = 2;
+    public static final int SHAPE_CIRCLE = 3;
+    public static final int SHAPE_POLYLINE = 4;
+    public static final int SHAPE_POLYGON = 5;
+    // Version 3 only; since version 4 polygon fills are fill records
+    public static final int SHAPE_FILLED_POLYGON = 6;
+    public static final int POLYGON_FILL = -1;
+
+    private SceneBinaryFormat() {
+    }
+
+    public static void save(Path path, Scene scene) throws IOException {
+        List<Line> lines = scene.getCanvas().getLines();
+        List<Line> dottedLines = scene.getCanvas().getDottedLines();
+        List<Shape> shapes = scene.getCanvas().getShapes();
+        List<FillOperation> fills = scene.getFillOperations();
+
+        int shapeVertices = 0;
+        long shapeBytes = 0;
+        for (Shape shape : shapes) {
+            shapeVertices += shape.getVertices().size();
+            shapeBytes += SHAPE_HEADER_BYTES + 4L * paramCount(shape);
+        }
+        int fillVertices = 0;
+        for (FillOperation fill : fills) {
+            if (fill instanceof PolygonFillOperation polygonFill) {
+                fillVertices += polygonFill.getPolygon().getVertexCount();
+            }
+        }
+        VertexTable vertices = new VertexTable(2 * (lines.size() + dottedLines.size()) + shapeVertices + fillVertices);
+        for (List<Line> list : List.of(lines, dottedLines)) {
+            for (Line line : list) {
+                vertices.add(line.getPoint1());
+                vertices.add(line.getPoint2());
+            }
+        }
+        for (Shape shape : shapes) {
+            for (Point vertex : shape.getVertices()) {
+                vertices.add(vertex);
+            }
+        }
+        for (FillOperation fill : fills) {
+            if (fill instanceof PolygonFillOperation polygonFill) {
+                for (Point vertex : polygonFill.getPolygon().getVertices()) {
+                    vertices.add(vertex);
+                }
+            }
+        }
+
+        long size = HEADER_BYTES + (long) vertices.size() * VERTEX_BYTES
+                + (long) (lines.size() + dottedLines.size()) * LINE_BYTES + shapeBytes;
+        for (FillOperation fill : fills) {
+            size += fill instanceof PolygonFillOperation polygonFill
+                    ? 16 + 4L * polygonFill.getPolygon().getVertexCount()
+                    : 8 + 12L * fill.getSpans().size();
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Scene too large for a single mapping: " + size + " bytes");
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION)
+                    .putInt(scene.getWidth()).putInt(scene.getHeight()).putInt(scene.getClearColor())
+                    .putInt(fills.size()).putInt(vertices.size()).putInt(lines.size() + dottedLines.size())
+                    .putInt(shapes.size());
+
+            int[] spans = new int[0];
+            for (FillOperation fill : fills) {
+                if (fill instanceof PolygonFillOperation polygonFill) {
+                    Polygon polygon = polygonFill.getPolygon();
+                    buffer.putInt(fill.getColor().getRGB()).putInt(POLYGON_FILL)
+                            .putInt(polygonFill.getRule().ordinal()).putInt(polygon.getVertexCount());
+                    for (Point vertex : polygon.getVertices()) {
+                        buffer.putInt(vertices.indexOf(vertex));
+                    }
+                    continue;
+                }
+                SpanList list = fill.getSpans();
+                buffer.putInt(fill.getColor().getRGB()).putInt(list.size());
+                if (spans.length < list.size() * 3) {
+                    spans = new int[list.size() * 3];
+                }
+                list.copyTo(spans, 0);
+                IntBuffer ints = buffer.asIntBuffer();
+                ints.put(spans, 0, list.size() * 3);
+                buffer.position(buffer.position() + list.size() * 12);
+            }
+            for (int i = 0; i < vertices.size(); i++) {
+                Point p = vertices.get(i);
+                buffer.putInt(p.getX()).putInt(p.getY());
+            }
+            DrawingOrder order = scene.getCanvas().drawingOrder();
+            while (order.next()) {
+                if (order.getKind() != DrawingOrder.Kind.SHAPE) {
+                    putLine(buffer, order.getLine(), vertices, order.getKind() == DrawingOrder.Kind.DOTTED ? FLAG_DOTTED : 0);
+                }
+            }
+            int linesBefore = 0;
+            order = scene.getCanvas().drawingOrder();
+            while (order.next()) {
+                if (order.getKind() == DrawingOrder.Kind.SHAPE) {
+                    putShape(buffer, order.getShape(), linesBefore, vertices);
+                } else {
+                    linesBefore++;
+                }
+            }
+            buffer.force();
+        }
+    }
+
+    private static void putLine(MappedByteBuffer buffer, Line line, VertexTable vertices, int flags) {
+        buffer.putInt(vertices.indexOf(line.getPoint1()))
+                .putInt(vertices.indexOf(line.getPoint2()))
+                .putInt(line.getColor().getRGB())
+                .putShort((short) line.getThickness())
+                .putShort((short) (line.getBrush() == BrushShape.ROUND ? flags | FLAG_ROUND : flags));
+    }
+
+    private static void putShape(MappedByteBuffer buffer, Shape shape, int linesBefore, VertexTable vertices) {
+        buffer.putShort((short) kindOf(shape))
+                .putShort((short) shape.getThickness())
+                .putInt(shape.getColor().getRGB())
+                .putInt(linesBefore)
+                .putInt(paramCount(shape));
+        if (shape instanceof Rect rect) {
+            buffer.putInt(vertices.indexOf(rect.getCorner1())).putInt(vertices.indexOf(rect.getCorner2()));
+        } else if (shape instanceof Circle circle) {
+            buffer.putInt(vertices.indexOf(circle.getCenter())).putInt(circle.getRadius());
+        } else if (shape instanceof Ellipse ellipse) {
+            buffer.putInt(vertices.indexOf(ellipse.getCenter()))
+                    .putInt(ellipse.getRadiusX())
+                    .putInt(ellipse.getRadiusY());
+        } else {
+            for (Point vertex : shape.getVertices()) {
+                buffer.putInt(vertices.indexOf(vertex));
+            }
+        }
+    }
+
+    private static int kindOf(Shape shape) {
+        if (shape instanceof Rect) {
+            return SHAPE_RECT;
+        } else if (shape instanceof Circle) {
+            return SHAPE_CIRCLE;
+        } else if (shape instanceof Ellipse) {
+            return SHAPE_ELLIPSE;
+        } else if (shape instanceof Polygon) {
+            return SHAPE_POLYGON;
+        } else if (shape instanceof Polyline) {
+            return SHAPE_POLYLINE;
+        }
+        throw new IllegalArgumentException("Cannot save " + shape.getClass().getName());
+    }
+
+    private static int paramCount(Shape shape) {
+        if (shape instanceof Circle) {
+            return 2;
+        } else if (shape instanceof Ellipse) {
+            return 3;
+        }
+        return shape.getVertices().size();
+    }
+
+    public static Scene load(Path path) throws IOException {
+        try (SceneBinaryReader reader = SceneBinaryReader.open(path)) {
+            Scene scene = new Scene(reader.getWidth(), reader.getHeight(), reader.getClearColor());
+            reader.readFills(scene.getFillOperations());
+            reader.read(Integer.MAX_VALUE, scene.getCanvas(), scene.getFillOperations());
+            return scene;
+        }
+    }
+
+    /**
+     * Identity-keyed point numbering in open-addressed arrays; avoids a boxed map entry per vertex.
+     */
+    private static final class VertexTable {
+        private final Point[] keys;
+        private final int[] indices;
+        private final Point[] points;
+        private final int mask;
+        private int size;
+
+        VertexTable(int maxPoints) {
+            int capacity = Integer.highestOneBit(Math.max(8, maxPoints * 2 - 1)) << 1;
+            keys = new Point[capacity];
+            indices = new int[capacity];
+            points = new Point[maxPoints];
+            mask = capacity - 1;
+        }
+
+        void add(Point p) {
+            int slot = slot(p);
+            if (keys[slot] == null) {
+                keys[slot] = p;
+                indices[slot] = size;
+                points[size++] = p;
+            }
+        }
+
+        int indexOf(Point p) {
+            return indices[slot(p)];
+        }
+
+        int size() {
+            return size;
+        }
+
+        Point get(int index) {
+            return points[index];
+        }
+
+        private int slot(Point p) {
+            int slot = (System.identityHashCode(p) * 0x9e3779b9) & mask;
+            while (keys[slot] != null && keys[slot] != p) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+}
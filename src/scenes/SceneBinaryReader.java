@@ -0,0 +1,353 @@
+package scenes;
+
+import Fillers.FillOperation;
+import Fillers.SpanList;
+import models.BrushShape;
+import models.Circle;
+import models.Ellipse;
+import models.FillRule;
+import models.Line;
+import models.LineCanvas;
+import models.Point;
+import models.Polygon;
+import models.Polyline;
+import models.Rect;
+import models.Shape;
+import rasterizers.PolygonFillOperation;
+
+import java.awt.*;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental reader for {@link SceneBinaryFormat} files. The file is mapped once; fills and
+ * vertices are read up front and lines and shapes can then be pulled in drawing order in
+ * batches of any size.
+ */
+public class SceneBinaryReader implements Closeable {
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int width;
+    private final int height;
+    private final int clearColor;
+    private final int fillCount;
+    private final int lineCount;
+    private final int version;
+    private final int shapeCount;
+    private final ColorCache colors = new ColorCache();
+    private Point[] vertices;
+    private ByteBuffer shapeBuffer;
+    private int linesRead;
+    private int shapesRead;
+
+    private SceneBinaryReader(FileChannel channel, MappedByteBuffer buffer) throws IOException {
+        this.channel = channel;
+        this.buffer = buffer;
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < SceneBinaryFormat.V1_HEADER_BYTES || buffer.getInt() != SceneBinaryFormat.MAGIC) {
+            throw new IOException("Not a scene file");
+        }
+        version = buffer.getInt();
+        if (version < 1 || version > SceneBinaryFormat.VERSION) {
+            throw new IOException("Unsupported scene file version " + version);
+        }
+        width = buffer.getInt();
+        height = buffer.getInt();
+        clearColor = buffer.getInt();
+        fillCount = buffer.getInt();
+        int vertexCount = buffer.getInt();
+        lineCount = buffer.getInt();
+        try {
+            shapeCount = version >= 2 ? buffer.getInt() : 0;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated scene file", e);
+        }
+        if (fillCount < 0 || vertexCount < 0 || lineCount < 0 || shapeCount < 0) {
+            throw new IOException("Corrupt scene header");
+        }
+        vertices = new Point[vertexCount];
+    }
+
+    public static SceneBinaryReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Scene file too large for a single mapping: " + size + " bytes");
+            }
+            return new SceneBinaryReader(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getClearColor() {
+        return clearColor;
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    public int getLinesRead() {
+        return linesRead;
+    }
+
+    public int getShapeCount() {
+        return shapeCount;
+    }
+
+    public int getShapesRead() {
+        return shapesRead;
+    }
+
+    /**
+     * Read every fill operation, then the vertex table. Must be called once, before {@link #read}.
+     */
+    public void readFills(List<FillOperation> out) throws IOException {
+        try {
+            // Polygon fills name vertices, which follow the fills; resolved once the table is read
+            List<int[]> polygonFills = new ArrayList<>();
+            List<Integer> polygonFillIndices = new ArrayList<>();
+            int first = out.size();
+            for (int i = 0; i < fillCount; i++) {
+                Color color = colors.get(buffer.getInt());
+                int spanCount = buffer.getInt();
+                if (spanCount == SceneBinaryFormat.POLYGON_FILL && version >= 4) {
+                    int rule = buffer.getInt();
+                    int vertexCount = buffer.getInt();
+                    if (rule < 0 || rule >= FillRule.values().length || vertexCount < 0
+                            || (long) vertexCount * 4 > buffer.remaining()) {
+                        throw new IOException("Corrupt fill record " + i);
+                    }
+                    int[] record = new int[2 + vertexCount];
+                    record[0] = color.getRGB();
+                    record[1] = rule;
+                    buffer.asIntBuffer().get(record, 2, vertexCount);
+                    buffer.position(buffer.position() + vertexCount * 4);
+                    polygonFills.add(record);
+                    polygonFillIndices.add(i);
+                    out.add(null);
+                    continue;
+                }
+                if (spanCount < 0 || (long) spanCount * 12 > buffer.remaining()) {
+                    throw new IOException("Corrupt fill record " + i);
+                }
+                int[] spans = new int[spanCount * 3];
+                buffer.asIntBuffer().get(spans);
+                buffer.position(buffer.position() + spanCount * 12);
+                out.add(new FillOperation(new SpanList(spans, spanCount), color));
+            }
+            for (int i = 0; i < vertices.length; i++) {
+                vertices[i] = new Point(buffer.getInt(), buffer.getInt());
+            }
+            for (int i = 0; i < polygonFills.size(); i++) {
+                int[] record = polygonFills.get(i);
+                int index = polygonFillIndices.get(i);
+                List<Point> points = new ArrayList<>(record.length - 2);
+                for (int j = 2; j < record.length; j++) {
+                    if (record[j] < 0 || record[j] >= vertices.length) {
+                        throw new IOException("Corrupt fill record " + index);
+                    }
+                    points.add(vertices[record[j]]);
+                }
+                out.set(first + index, polygonFill(points, colors.get(record[0]), FillRule.values()[record[1]]));
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated scene file", e);
+        }
+    }
+
+    /**
+     * Append up to {@code max} further lines and shapes to {@code canvas}, in drawing order. The
+     * fill of a version 3 filled polygon is appended to {@code fills}.
+     *
+     * @return number of lines and shapes read, 0 once the file is exhausted
+     */
+    public int read(int max, LineCanvas canvas, List<FillOperation> fills) throws IOException {
+        if (shapeBuffer == null) {
+            // Shapes follow all lines in the file; read them through a second cursor
+            long shapeStart = buffer.position() + (long) lineCount * SceneBinaryFormat.LINE_BYTES;
+            if (shapeStart > buffer.limit()) {
+                throw new IOException("Truncated scene file");
+            }
+            shapeBuffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN).position((int) shapeStart);
+        }
+        int count = 0;
+        try {
+            while (count < max) {
+                if (shapesRead < shapeCount && nextShapeLinesBefore() <= linesRead) {
+                    canvas.addShape(version >= 3 ? readShape(shapesRead, fills) : readV2Circle(shapesRead));
+                    shapesRead++;
+                } else if (linesRead < lineCount) {
+                    readLine(canvas);
+                    linesRead++;
+                } else if (shapesRead < shapeCount) {
+                    throw new IOException("Corrupt shape record " + shapesRead);
+                } else {
+                    break;
+                }
+                count++;
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated scene file", e);
+        }
+        return count;
+    }
+
+    /**
+     * Lines to draw before the next shape; before version 5, all of them
+     */
+    private int nextShapeLinesBefore() {
+        return version >= 5 ? shapeBuffer.getInt(shapeBuffer.position() + 8) : lineCount;
+    }
+
+    private void readLine(LineCanvas canvas) throws IOException {
+        int v1 = buffer.getInt();
+        int v2 = buffer.getInt();
+        Color color = colors.get(buffer.getInt());
+        int thickness = buffer.getShort();
+        int flags = buffer.getShort();
+        if (v1 < 0 || v1 >= vertices.length || v2 < 0 || v2 >= vertices.length) {
+            throw new IOException("Corrupt line record " + linesRead);
+        }
+        Line line = new Line(vertices[v1], vertices[v2], color, thickness,
+                (flags & SceneBinaryFormat.FLAG_ROUND) != 0 ? BrushShape.ROUND : BrushShape.SQUARE);
+        if ((flags & SceneBinaryFormat.FLAG_DOTTED) != 0) {
+            canvas.addDottedLine(line);
+        } else {
+            canvas.add(line);
+        }
+    }
+
+    private Shape readShape(int index, List<FillOperation> fills) throws IOException {
+        int kind = shapeBuffer.getShort();
+        int thickness = shapeBuffer.getShort();
+        Color color = colors.get(shapeBuffer.getInt());
+        if (version >= 5) {
+            shapeBuffer.getInt();
+        }
+        int paramCount = shapeBuffer.getInt();
+        if (paramCount < 0 || (long) paramCount * 4 > shapeBuffer.remaining()) {
+            throw new IOException("Corrupt shape record " + index);
+        }
+        int[] params = new int[paramCount];
+        shapeBuffer.asIntBuffer().get(params);
+        shapeBuffer.position(shapeBuffer.position() + paramCount * 4);
+        switch (kind) {
+            case SceneBinaryFormat.SHAPE_RECT -> {
+                expectParams(params, 2, index);
+                return new Rect(vertex(params[0], index), vertex(params[1], index), color, thickness);
+            }
+            case SceneBinaryFormat.SHAPE_CIRCLE -> {
+                expectParams(params, 2, index);
+                return new Circle(vertex(params[0], index), radius(params[1], index), color, thickness);
+            }
+            case SceneBinaryFormat.SHAPE_ELLIPSE -> {
+                expectParams(params, 3, index);
+                return new Ellipse(vertex(params[0], index), radius(params[1], index), radius(params[2], index),
+                        color, thickness);
+            }
+            case SceneBinaryFormat.SHAPE_POLYLINE, SceneBinaryFormat.SHAPE_POLYGON -> {
+                List<Point> points = new ArrayList<>(paramCount);
+                for (int param : params) {
+                    points.add(vertex(param, index));
+                }
+                return kind == SceneBinaryFormat.SHAPE_POLYGON
+                        ? new Polygon(points, color, thickness)
+                        : new Polyline(points, color, thickness);
+            }
+            case SceneBinaryFormat.SHAPE_FILLED_POLYGON -> {
+                if (version != 3 || paramCount < 2 || params[1] < 0 || params[1] >= FillRule.values().length) {
+                    throw new IOException("Corrupt shape record " + index);
+                }
+                List<Point> points = new ArrayList<>(paramCount - 2);
+                for (int i = 2; i < paramCount; i++) {
+                    points.add(vertex(params[i], index));
+                }
+                Polygon polygon = new Polygon(points, color, thickness);
+                fills.add(new PolygonFillOperation(polygon, colors.get(params[0]), FillRule.values()[params[1]]));
+                return polygon;
+            }
+            default -> throw new IOException("Unknown shape kind " + kind + " in record " + index);
+        }
+    }
+
+    /**
+     * Fill of a polygon only the fill history holds; its outline is never drawn
+     */
+    private static FillOperation polygonFill(List<Point> points, Color color, FillRule rule) {
+        return new PolygonFillOperation(new Polygon(points, color, 1), color, rule);
+    }
+
+    private Shape readV2Circle(int index) throws IOException {
+        int center = shapeBuffer.getInt();
+        int radius = shapeBuffer.getInt();
+        Color color = colors.get(shapeBuffer.getInt());
+        int thickness = shapeBuffer.getShort();
+        shapeBuffer.getShort();
+        return new Circle(vertex(center, index), radius(radius, index), color, thickness);
+    }
+
+    private Point vertex(int vertex, int index) throws IOException {
+        if (vertex < 0 || vertex >= vertices.length) {
+            throw new IOException("Corrupt shape record " + index);
+        }
+        return vertices[vertex];
+    }
+
+    private static int radius(int radius, int index) throws IOException {
+        if (radius < 0) {
+            throw new IOException("Corrupt shape record " + index);
+        }
+        return radius;
+    }
+
+    private static void expectParams(int[] params, int count, int index) throws IOException {
+        if (params.length != count) {
+            throw new IOException("Corrupt shape record " + index);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Direct-mapped cache so repeated colours share one {@link Color} instance without boxing keys.
+     */
+    private static class ColorCache {
+        private final int[] keys = new int[256];
+        private final Color[] values = new Color[256];
+
+        Color get(int argb) {
+            int slot = (argb ^ (argb >>> 8) ^ (argb >>> 16)) & 0xff;
+            Color color = values[slot];
+            if (color == null || keys[slot] != argb) {
+                color = new Color(argb, true);
+                keys[slot] = argb;
+                values[slot] = color;
+            }
+            return color;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package scenes;
+
+import Fillers.FillOperation;
+import models.LineCanvas;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Reads a {@link SceneBinaryFormat} file on a background thread and hands it to the event
+ * dispatch thread, or whichever thread owns the scene, in batches, so the editor can draw and
+ * stay responsive while a large scene is still loading. Each batch is its own task, so input is
+ * handled between batches, and at most {@link #MAX_PENDING_BATCHES} batches are queued at a time.
+ */
+public class SceneStreamLoader extends SwingWorker<Void, Void> {
+    public static final int BATCH_LINES = 1024;
+    private static final int MAX_PENDING_BATCHES = 2;
+
+    /**
+     * Callbacks, all run by the loader's delivery executor.
+     */
+    public interface Listener {
+        /**
+         * Header and fill history, delivered before any lines.
+         */
+        void sceneOpened(int width, int height, int clearColor, List<FillOperation> fills);
+
+        /**
+         * The next lines and shapes in file order, with how many of the file's {@code total}
+         * have been read. {@code batch} is a scratch canvas owned by the listener from now on.
+         * {@code fills} continues the fill history; only version 3 files, which keep polygon
+         * fills with their shapes, add to it after {@link #sceneOpened}.
+         */
+        void linesLoaded(LineCanvas batch, List<FillOperation> fills, int read, int total);
+
+        /**
+         * Called once at the end unless the load was cancelled; {@code error} is null on success.
+         */
+        void loadFinished(IOException error);
+    }
+
+    private static final class Batch {
+        private final List<FillOperation> fills;
+        private final LineCanvas lines;
+        private final int read;
+
+        private Batch(List<FillOperation> fills, LineCanvas lines, int read) {
+            this.fills = fills;
+            this.lines = lines;
+            this.read = read;
+        }
+    }
+
+    private final Path path;
+    private final Listener listener;
+    private final Executor delivery;
+    private final Semaphore pending = new Semaphore(MAX_PENDING_BATCHES);
+    private int width;
+    private int height;
+    private int clearColor;
+    private int total;
+
+    public SceneStreamLoader(Path path, Listener listener) {
+        this(path, listener, SwingUtilities::invokeLater);
+    }
+
+    public SceneStreamLoader(Path path, Listener listener, Executor delivery) {
+        this.path = path;
+        this.listener = listener;
+        this.delivery = delivery;
+    }
+
+    @Override
+    protected Void doInBackground() throws IOException, InterruptedException {
+        try (SceneBinaryReader reader = SceneBinaryReader.open(path)) {
+            width = reader.getWidth();
+            height = reader.getHeight();
+            clearColor = reader.getClearColor();
+            total = reader.getLineCount() + reader.getShapeCount();
+            List<FillOperation> fills = new ArrayList<>();
+            reader.readFills(fills);
+            deliver(new Batch(fills, null, 0));
+            while (!isCancelled()) {
+                // A fresh canvas indexes lazily, so filling it costs no more than the lists
+                LineCanvas lines = new LineCanvas(new ArrayList<>(), new ArrayList<>());
+                List<FillOperation> shapeFills = new ArrayList<>();
+                if (reader.read(BATCH_LINES, lines, shapeFills) == 0) {
+                    break;
+                }
+                deliver(new Batch(shapeFills, lines, reader.getLinesRead() + reader.getShapesRead()));
+            }
+        } finally {
+            // done() must not overtake batches still queued for delivery
+            pending.acquireUninterruptibly(MAX_PENDING_BATCHES);
+        }
+        return null;
+    }
+
+    private void deliver(Batch batch) throws InterruptedException {
+        pending.acquire();
+        delivery.execute(() -> {
+            try {
+                if (!isCancelled()) {
+                    if (batch.lines == null) {
+                        listener.sceneOpened(width, height, clearColor, batch.fills);
+                    } else {
+                        listener.linesLoaded(batch.lines, batch.fills, batch.read, total);
+                    }
+                }
+            } finally {
+                pending.release();
+            }
+        });
+    }
+
+    @Override
+    protected void done() {
+        if (isCancelled()) {
+            return;
+        }
+        IOException error = null;
+        try {
+            get();
+        } catch (ExecutionException e) {
+            error = e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        IOException result = error;
+        delivery.execute(() -> listener.loadFinished(result));
+    }
+}
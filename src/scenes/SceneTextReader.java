@@ -0,0 +1,234 @@
+package scenes;
+
+import Fillers.FillOperation;
+import Fillers.ScanlineFiller;
+import Fillers.SpanList;
+import models.BrushShape;
+import models.Circle;
+import models.Ellipse;
+import models.FillRule;
+import models.Line;
+import models.LineCanvas;
+import models.Point;
+import models.Polygon;
+import models.Polyline;
+import models.Rect;
+import models.Scene;
+import rasterizers.LineCanvasRasterizer;
+import rasterizers.PolygonFillOperation;
+import rasterizers.SceneRasterizer;
+import rasters.Raster;
+
+import java.awt.*;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Reads a scene description: one command per line, replayed the way the editor would.
+ * <pre>
+ * # comment
+ * size 1120 600                      (optional, before any drawing command)
+ * clear aaaaaa                       (optional clear colour, RRGGBB or AARRGGBB)
+ * line   x1 y1 x2 y2 color thickness [square|round]  (brush, square by default)
+ * dotted x1 y1 x2 y2 color thickness [square|round]
+ * square x1 y1 x2 y2 color thickness (corner and drag point)
+ * rect   x1 y1 x2 y2 color thickness (opposite corners)
+ * circle cx cy ex ey color thickness (centre and a point on the circle)
+ * ellipse cx cy rx ry color thickness
+ * polyline color thickness x1 y1 x2 y2 ...
+ * polygon  color thickness x1 y1 x2 y2 ...
+ * fillpolygon color thickness fillcolor evenodd|nonzero x1 y1 x2 y2 ...
+ * fill   x y color                   (flood fill of what is drawn so far)
+ * </pre>
+ * Fills are computed against the scene as rendered at that point, so the reader needs a
+ * raster; it asks {@code rasters} for one of the scene size when the first fill is reached.
+ * Like the editor, it keeps that raster with each flood fill painted in. Later fills only draw
+ * the lines and shapes added since the previous fill on top and re-render the area of new
+ * polygon fills, so loading time stays linear in the number of fills.
+ */
+public class SceneTextReader {
+    public static final int DEFAULT_WIDTH = 1120;
+    public static final int DEFAULT_HEIGHT = 600;
+    public static final int DEFAULT_CLEAR_COLOR = 0xffaaaaaa;
+
+    private SceneTextReader() {
+    }
+
+    public static Scene read(BufferedReader in, BiFunction<Integer, Integer, Raster> rasters) throws IOException {
+        int width = DEFAULT_WIDTH;
+        int height = DEFAULT_HEIGHT;
+        int clearColor = DEFAULT_CLEAR_COLOR;
+        Scene scene = null;
+        Raster raster = null;
+        SceneRasterizer sceneRasterizer = null;
+        LineCanvasRasterizer lineRasterizer = null;
+        // Lines and shapes not yet drawn into the raster, moved into the scene at each fill
+        LineCanvas added = new LineCanvas(new ArrayList<>(), new ArrayList<>());
+        // Fills already in the raster
+        int fillsDrawn = 0;
+
+        String text;
+        int lineNumber = 0;
+        while ((text = in.readLine()) != null) {
+            lineNumber++;
+            text = text.strip();
+            if (text.isEmpty() || text.startsWith("#")) {
+                continue;
+            }
+            String[] args = text.split("\\s+");
+            try {
+                String command = args[0].toLowerCase();
+                if (command.equals("size") || command.equals("clear")) {
+                    if (scene != null) {
+                        throw new IOException("'" + command + "' must come before drawing commands");
+                    }
+                    if (command.equals("size")) {
+                        expect(args, 3);
+                        width = Integer.parseInt(args[1]);
+                        height = Integer.parseInt(args[2]);
+                    } else {
+                        expect(args, 2);
+                        clearColor = parseColor(args[1]).getRGB();
+                    }
+                    continue;
+                }
+                if (scene == null) {
+                    scene = new Scene(width, height, clearColor);
+                }
+                switch (command) {
+                    case "line", "dotted", "square", "rect", "circle" -> {
+                        boolean isLine = command.equals("line") || command.equals("dotted");
+                        if (!isLine || args.length != 8) {
+                            expect(args, 7);
+                        }
+                        Point a = new Point(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+                        Point b = new Point(Integer.parseInt(args[3]), Integer.parseInt(args[4]));
+                        Color color = parseColor(args[5]);
+                        int thickness = Integer.parseInt(args[6]);
+                        BrushShape brush = args.length == 8 ? parseBrush(args[7]) : BrushShape.SQUARE;
+                        switch (command) {
+                            case "line" -> added.add(new Line(a, b, color, thickness, brush));
+                            case "dotted" -> added.addDottedLine(new Line(a, b, color, thickness, brush));
+                            case "square" -> added.addShape(Rect.square(a, b, color, thickness));
+                            case "rect" -> added.addShape(new Rect(a, b, color, thickness));
+                            default -> added.addShape(Circle.through(a, b, color, thickness));
+                        }
+                    }
+                    case "ellipse" -> {
+                        expect(args, 7);
+                        Point center = new Point(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+                        int radiusX = Integer.parseInt(args[3]);
+                        int radiusY = Integer.parseInt(args[4]);
+                        if (radiusX < 0 || radiusY < 0) {
+                            throw new IOException("negative ellipse radius");
+                        }
+                        added.addShape(new Ellipse(center, radiusX, radiusY,
+                                parseColor(args[5]), Integer.parseInt(args[6])));
+                    }
+                    case "polyline", "polygon" -> {
+                        if (args.length < 5 || args.length % 2 == 0) {
+                            throw new IOException("'" + args[0] + "' takes a color, a thickness and x y pairs");
+                        }
+                        Color color = parseColor(args[1]);
+                        int thickness = Integer.parseInt(args[2]);
+                        List<Point> vertices = new ArrayList<>();
+                        for (int i = 3; i < args.length; i += 2) {
+                            vertices.add(new Point(Integer.parseInt(args[i]), Integer.parseInt(args[i + 1])));
+                        }
+                        added.addShape(command.equals("polygon")
+                                ? new Polygon(vertices, color, thickness)
+                                : new Polyline(vertices, color, thickness));
+                    }
+                    case "fill" -> {
+                        expect(args, 4);
+                        List<FillOperation> fills = scene.getFillOperations();
+                        if (raster == null) {
+                            raster = rasters.apply(width, height);
+                            sceneRasterizer = new SceneRasterizer(raster);
+                            sceneRasterizer.setClearColor(clearColor);
+                            lineRasterizer = new LineCanvasRasterizer(raster);
+                            scene.getCanvas().appendAll(added);
+                            sceneRasterizer.rasterize(scene.getCanvas(), fills);
+                        } else {
+                            // New lines and shapes go on top of everything drawn so far
+                            lineRasterizer.rasterizeCanvas(added);
+                            scene.getCanvas().appendAll(added);
+                            // New polygon fills go under all lines, so their area is drawn again
+                            Rectangle stale = null;
+                            for (int i = fillsDrawn; i < fills.size(); i++) {
+                                Rectangle bounds = fills.get(i).getBounds();
+                                stale = stale == null ? bounds : stale.union(bounds);
+                            }
+                            if (stale != null && !stale.isEmpty()) {
+                                sceneRasterizer.rasterize(scene.getCanvas(), fills, stale);
+                            }
+                        }
+                        added = new LineCanvas(new ArrayList<>(), new ArrayList<>());
+                        Color color = parseColor(args[3]);
+                        // The filler paints into the raster, which keeps it for the next fill
+                        SpanList spans = new ScanlineFiller(raster).fillSpans(
+                                new Point(Integer.parseInt(args[1]), Integer.parseInt(args[2])), color);
+                        if (!spans.isEmpty()) {
+                            fills.add(new FillOperation(spans, color));
+                        }
+                        fillsDrawn = fills.size();
+                    }
+                    case "fillpolygon" -> {
+                        if (args.length < 7 || args.length % 2 == 0) {
+                            throw new IOException("'" + args[0] + "' takes a color, a thickness, a fill color, a fill rule and x y pairs");
+                        }
+                        FillRule rule = switch (args[4].toLowerCase()) {
+                            case "evenodd" -> FillRule.EVEN_ODD;
+                            case "nonzero" -> FillRule.NON_ZERO;
+                            default -> throw new IOException("bad fill rule '" + args[4] + "'");
+                        };
+                        List<Point> vertices = new ArrayList<>();
+                        for (int i = 5; i < args.length; i += 2) {
+                            vertices.add(new Point(Integer.parseInt(args[i]), Integer.parseInt(args[i + 1])));
+                        }
+                        Polygon polygon = new Polygon(vertices, parseColor(args[1]), Integer.parseInt(args[2]));
+                        added.addShape(polygon);
+                        scene.getFillOperations().add(new PolygonFillOperation(polygon, parseColor(args[3]), rule));
+                    }
+                    default -> throw new IOException("unknown command '" + args[0] + "'");
+                }
+            } catch (IOException | NumberFormatException e) {
+                throw new IOException("Line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        if (scene == null) {
+            return new Scene(width, height, clearColor);
+        }
+        scene.getCanvas().appendAll(added);
+        return scene;
+    }
+
+    /**
+     * RRGGBB (opaque) or AARRGGBB, with an optional leading '#'
+     */
+    static Color parseColor(String text) throws IOException {
+        String hex = text.startsWith("#") ? text.substring(1) : text;
+        if (hex.length() != 6 && hex.length() != 8) {
+            throw new IOException("bad color '" + text + "'");
+        }
+        int value = (int) Long.parseLong(hex, 16);
+        return new Color(hex.length() == 6 ? 0xff000000 | value : value, true);
+    }
+
+    private static BrushShape parseBrush(String text) throws IOException {
+        return switch (text.toLowerCase()) {
+            case "square" -> BrushShape.SQUARE;
+            case "round" -> BrushShape.ROUND;
+            default -> throw new IOException("bad brush '" + text + "'");
+        };
+    }
+
+    private static void expect(String[] args, int count) throws IOException {
+        if (args.length != count) {
+            throw new IOException("'" + args[0] + "' takes " + (count - 1) + " arguments");
+        }
+    }
+}